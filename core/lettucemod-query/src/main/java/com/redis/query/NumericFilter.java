@@ -0,0 +1,36 @@
+package com.redis.query;
+
+/**
+ * Inclusive numeric range on a field, suitable for the {@code FILTER} argument
+ * of {@code FT.SEARCH}.
+ */
+public class NumericFilter {
+
+	private final String field;
+	private final double min;
+	private final double max;
+
+	public NumericFilter(String field, double min, double max) {
+		this.field = field;
+		this.min = min;
+		this.max = max;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return "NumericFilter(field=" + field + ", min=" + min + ", max=" + max + ")";
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.redis.query;
+
+import java.util.List;
+
+import com.redis.search.query.filter.Condition;
+
+/**
+ * Result of {@link QueryOptimizer#optimize(Condition)}: the rewritten condition
+ * and the numeric predicates that were moved out of the query string, if any.
+ */
+public class OptimizedQuery {
+
+	private final Condition condition;
+	private final List<NumericFilter> filters;
+
+	public OptimizedQuery(Condition condition, List<NumericFilter> filters) {
+		this.condition = condition;
+		this.filters = filters;
+	}
+
+	public Condition getCondition() {
+		return condition;
+	}
+
+	/**
+	 * @return numeric filters to pass as {@code FILTER} arguments alongside the
+	 *         query
+	 */
+	public List<NumericFilter> getFilters() {
+		return filters;
+	}
+
+	public String getQuery() {
+		return condition.getQuery();
+	}
+
+}
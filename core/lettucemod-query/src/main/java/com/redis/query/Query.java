@@ -1,5 +1,6 @@
 package com.redis.query;
 
+import com.redis.search.query.filter.Condition;
 import com.redis.search.query.filter.GeoField;
 import com.redis.search.query.filter.NumericField;
 import com.redis.search.query.filter.TagField;
@@ -43,8 +44,72 @@ public abstract class Query {
 		return WILDCARD;
 	}
 
+	/**
+	 * Rewrites the given condition into an equivalent but cheaper query.
+	 * 
+	 * @param condition the condition to optimize
+	 * @return optimized condition
+	 * @see QueryOptimizer
+	 */
+	public static Condition optimize(Condition condition) {
+		return QueryOptimizer.create().optimize(condition).getCondition();
+	}
+
+	/**
+	 * Escapes every character of the given tag value that is not alphanumeric
+	 * or {@code *} with a backslash. Returns the value itself when nothing
+	 * needs to be escaped.
+	 * 
+	 * @param value the tag value to escape
+	 * @return escaped tag value
+	 */
 	public static String escapeTag(String value) {
-		return value.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1");
+		int length = value.length();
+		int index = 0;
+		while (index < length && isTagSafe(value.charAt(index))) {
+			index++;
+		}
+		if (index == length) {
+			return value;
+		}
+		StringBuilder builder = new StringBuilder(length + 16);
+		builder.append(value, 0, index);
+		appendEscapedTag(builder, value, index);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the escaped form of the given tag value to the builder.
+	 * 
+	 * @param builder the builder to append to
+	 * @param value   the tag value to escape
+	 * @see #escapeTag(String)
+	 */
+	public static void escapeTag(StringBuilder builder, CharSequence value) {
+		appendEscapedTag(builder, value, 0);
+	}
+
+	private static void appendEscapedTag(StringBuilder builder, CharSequence value, int from) {
+		int length = value.length();
+		int start = from;
+		for (int index = from; index < length; index++) {
+			char c = value.charAt(index);
+			if (isTagSafe(c)) {
+				continue;
+			}
+			builder.append(value, start, index).append('\\');
+			start = index;
+			if (Character.isHighSurrogate(c) && index + 1 < length
+					&& Character.isLowSurrogate(value.charAt(index + 1))) {
+				// Escape the code point once, not each of its surrogates
+				index++;
+			}
+		}
+		builder.append(value, start, length);
+	}
+
+	private static boolean isTagSafe(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '*';
 	}
 
 }
\ No newline at end of file
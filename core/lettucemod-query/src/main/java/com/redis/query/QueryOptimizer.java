@@ -0,0 +1,300 @@
+package com.redis.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redis.search.query.filter.And;
+import com.redis.search.query.filter.Condition;
+import com.redis.search.query.filter.FieldCondition;
+import com.redis.search.query.filter.Not;
+import com.redis.search.query.filter.NumericBoundary;
+import com.redis.search.query.filter.NumericCondition;
+import com.redis.search.query.filter.NumericInterval;
+import com.redis.search.query.filter.Optional;
+import com.redis.search.query.filter.Or;
+import com.redis.search.query.filter.OrList;
+import com.redis.search.query.filter.TagCondition;
+import com.redis.search.query.filter.Wildcard;
+
+/**
+ * Rewrites a {@link Condition} tree into an equivalent but cheaper RediSearch
+ * query:
+ * <ul>
+ * <li>nested {@link And}, {@link Or} and {@link OrList} nodes are flattened and
+ * duplicate operands are removed</li>
+ * <li>tag disjunctions on the same field are merged into a single
+ * {@code @field:{a|b}} clause</li>
+ * <li>numeric ranges intersected on the same field are merged into a single
+ * interval</li>
+ * <li>wildcards are dropped from intersections, and unions containing a
+ * wildcard collapse to the wildcard</li>
+ * <li>double negations and nested optionals are removed</li>
+ * </ul>
+ * When created with {@link #withNumericFilters()}, inclusive numeric ranges
+ * that are top-level conjuncts of the query are moved out of the query string
+ * into {@link NumericFilter}s for the {@code FILTER} argument.
+ * <p>
+ * Conditions that are not composed of the types above (text, geo, vector,
+ * custom implementations) are kept as-is.
+ */
+public class QueryOptimizer {
+
+	private static final QueryOptimizer DEFAULT = new QueryOptimizer(false);
+
+	private final boolean numericFilters;
+
+	private QueryOptimizer(boolean numericFilters) {
+		this.numericFilters = numericFilters;
+	}
+
+	public static QueryOptimizer create() {
+		return DEFAULT;
+	}
+
+	public static QueryOptimizer withNumericFilters() {
+		return new QueryOptimizer(true);
+	}
+
+	public OptimizedQuery optimize(Condition condition) {
+		Condition optimized = rewrite(condition);
+		if (!numericFilters) {
+			return new OptimizedQuery(optimized, Collections.emptyList());
+		}
+		List<Condition> conjuncts = new ArrayList<>();
+		flattenAnd(optimized, conjuncts);
+		List<Condition> remaining = new ArrayList<>();
+		List<NumericFilter> filters = new ArrayList<>();
+		for (Condition conjunct : conjuncts) {
+			NumericInterval interval = numericInterval(conjunct);
+			if (interval != null && isInclusive(interval.getLower()) && isInclusive(interval.getUpper())) {
+				filters.add(new NumericFilter(((FieldCondition) conjunct).getField().getName(),
+						interval.getLower().getValue().doubleValue(), interval.getUpper().getValue().doubleValue()));
+			} else {
+				remaining.add(conjunct);
+			}
+		}
+		return new OptimizedQuery(and(remaining), filters);
+	}
+
+	private Condition rewrite(Condition condition) {
+		if (condition instanceof And) {
+			return rewriteAnd(condition);
+		}
+		if (condition instanceof Or || condition instanceof OrList) {
+			return rewriteOr(condition);
+		}
+		if (condition instanceof Not) {
+			return rewriteNot((Not) condition);
+		}
+		if (condition instanceof Optional) {
+			return rewriteOptional((Optional) condition);
+		}
+		return condition;
+	}
+
+	private Condition rewriteAnd(Condition condition) {
+		List<Condition> conjuncts = new ArrayList<>();
+		collectAnd(condition, conjuncts);
+		Map<String, Condition> merged = new LinkedHashMap<>();
+		Map<String, NumericInterval> intervals = new LinkedHashMap<>();
+		for (Condition conjunct : conjuncts) {
+			if (conjunct instanceof Wildcard) {
+				continue;
+			}
+			NumericInterval interval = numericInterval(conjunct);
+			if (interval == null) {
+				merged.putIfAbsent(conjunct.getQuery(), conjunct);
+			} else {
+				FieldCondition fieldCondition = (FieldCondition) conjunct;
+				String name = fieldCondition.getField().getName();
+				NumericInterval existing = intervals.get(name);
+				if (existing == null) {
+					intervals.put(name, interval);
+					merged.put(numericKey(name), conjunct);
+				} else {
+					NumericInterval intersection = intersect(existing, interval);
+					intervals.put(name, intersection);
+					merged.put(numericKey(name), new FieldCondition(fieldCondition.getField(),
+							new NumericCondition(intersection)));
+				}
+			}
+		}
+		return and(new ArrayList<>(merged.values()));
+	}
+
+	private void collectAnd(Condition condition, List<Condition> conjuncts) {
+		if (condition instanceof And) {
+			And and = (And) condition;
+			collectAnd(and.getLeft(), conjuncts);
+			collectAnd(and.getRight(), conjuncts);
+		} else {
+			flattenAnd(rewrite(condition), conjuncts);
+		}
+	}
+
+	private void flattenAnd(Condition condition, List<Condition> conjuncts) {
+		if (condition instanceof And) {
+			And and = (And) condition;
+			flattenAnd(and.getLeft(), conjuncts);
+			flattenAnd(and.getRight(), conjuncts);
+		} else {
+			conjuncts.add(condition);
+		}
+	}
+
+	private Condition rewriteOr(Condition condition) {
+		List<Condition> disjuncts = new ArrayList<>();
+		collectOr(condition, disjuncts);
+		Map<String, Condition> merged = new LinkedHashMap<>();
+		Map<String, Map<String, String>> tags = new LinkedHashMap<>();
+		Map<String, FieldCondition> tagConditions = new LinkedHashMap<>();
+		for (Condition disjunct : disjuncts) {
+			if (disjunct instanceof Wildcard) {
+				return disjunct;
+			}
+			if (isTagCondition(disjunct)) {
+				FieldCondition fieldCondition = (FieldCondition) disjunct;
+				String name = fieldCondition.getField().getName();
+				Map<String, String> values = tags.get(name);
+				if (values == null) {
+					values = new LinkedHashMap<>();
+					tags.put(name, values);
+					tagConditions.put(name, fieldCondition);
+					merged.put(tagKey(name), fieldCondition);
+				}
+				TagCondition tagCondition = (TagCondition) fieldCondition.getCondition();
+				for (int index = 0; index < tagCondition.getValues().size(); index++) {
+					values.putIfAbsent(tagCondition.getValues().get(index), tagCondition.getEscapedValue(index));
+				}
+			} else {
+				merged.putIfAbsent(disjunct.getQuery(), disjunct);
+			}
+		}
+		for (Map.Entry<String, Map<String, String>> entry : tags.entrySet()) {
+			FieldCondition fieldCondition = tagConditions.get(entry.getKey());
+			Map<String, String> values = entry.getValue();
+			if (values.size() != ((TagCondition) fieldCondition.getCondition()).getValues().size()) {
+				merged.put(tagKey(entry.getKey()), new FieldCondition(fieldCondition.getField(),
+						new TagCondition(new ArrayList<>(values.keySet()), new ArrayList<>(values.values()))));
+			}
+		}
+		return or(new ArrayList<>(merged.values()));
+	}
+
+	private void collectOr(Condition condition, List<Condition> disjuncts) {
+		if (condition == null) {
+			return;
+		}
+		if (condition instanceof Or) {
+			Or or = (Or) condition;
+			collectOr(or.getLeft(), disjuncts);
+			collectOr(or.getRight(), disjuncts);
+		} else if (condition instanceof OrList) {
+			for (Condition element : ((OrList) condition).getConditions()) {
+				collectOr(element, disjuncts);
+			}
+		} else {
+			Condition rewritten = rewrite(condition);
+			if (rewritten != condition && (rewritten instanceof Or || rewritten instanceof OrList)) {
+				collectOr(rewritten, disjuncts);
+			} else {
+				disjuncts.add(rewritten);
+			}
+		}
+	}
+
+	private Condition rewriteNot(Not not) {
+		Condition operand = rewrite(not.getCondition());
+		if (operand instanceof Not) {
+			return ((Not) operand).getCondition();
+		}
+		if (operand == not.getCondition()) {
+			return not;
+		}
+		return new Not(operand);
+	}
+
+	private Condition rewriteOptional(Optional optional) {
+		Condition operand = rewrite(optional.getCondition());
+		if (operand instanceof Optional) {
+			return operand;
+		}
+		if (operand == optional.getCondition()) {
+			return optional;
+		}
+		return new Optional(operand);
+	}
+
+	private static Condition and(List<Condition> conditions) {
+		if (conditions.isEmpty()) {
+			return Query.wildcard();
+		}
+		Condition result = conditions.get(0);
+		for (int index = 1; index < conditions.size(); index++) {
+			result = new And(result, conditions.get(index));
+		}
+		return result;
+	}
+
+	private static Condition or(List<Condition> conditions) {
+		if (conditions.size() == 1) {
+			return conditions.get(0);
+		}
+		if (conditions.size() == 2) {
+			return new Or(conditions.get(0), conditions.get(1));
+		}
+		return new OrList(conditions.toArray(new Condition[0]));
+	}
+
+	private static String numericKey(String field) {
+		// Rendered queries never contain NUL characters
+		return "\0numeric\0" + field;
+	}
+
+	private static String tagKey(String field) {
+		return "\0tag\0" + field;
+	}
+
+	private static boolean isTagCondition(Condition condition) {
+		return condition.getClass() == FieldCondition.class
+				&& ((FieldCondition) condition).getCondition() instanceof TagCondition;
+	}
+
+	private static NumericInterval numericInterval(Condition condition) {
+		if (condition.getClass() == FieldCondition.class) {
+			Condition value = ((FieldCondition) condition).getCondition();
+			if (value instanceof NumericCondition) {
+				return ((NumericCondition) value).getInterval();
+			}
+		}
+		return null;
+	}
+
+	private static boolean isInclusive(NumericBoundary boundary) {
+		return !boundary.isExclusive() || Double.isInfinite(boundary.getValue().doubleValue());
+	}
+
+	private static NumericInterval intersect(NumericInterval a, NumericInterval b) {
+		return new NumericInterval(max(a.getLower(), b.getLower()), min(a.getUpper(), b.getUpper()));
+	}
+
+	private static NumericBoundary max(NumericBoundary a, NumericBoundary b) {
+		int comparison = Double.compare(a.getValue().doubleValue(), b.getValue().doubleValue());
+		if (comparison == 0) {
+			return a.isExclusive() ? a : b;
+		}
+		return comparison > 0 ? a : b;
+	}
+
+	private static NumericBoundary min(NumericBoundary a, NumericBoundary b) {
+		int comparison = Double.compare(a.getValue().doubleValue(), b.getValue().doubleValue());
+		if (comparison == 0) {
+			return a.isExclusive() ? a : b;
+		}
+		return comparison < 0 ? a : b;
+	}
+
+}
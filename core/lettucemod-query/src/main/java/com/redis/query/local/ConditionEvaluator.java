@@ -0,0 +1,174 @@
+package com.redis.query.local;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.redis.search.query.filter.And;
+import com.redis.search.query.filter.Condition;
+import com.redis.search.query.filter.FieldCondition;
+import com.redis.search.query.filter.GeoCondition;
+import com.redis.search.query.filter.Not;
+import com.redis.search.query.filter.NumericCondition;
+import com.redis.search.query.filter.Optional;
+import com.redis.search.query.filter.Or;
+import com.redis.search.query.filter.OrList;
+import com.redis.search.query.filter.TagCondition;
+import com.redis.search.query.filter.TermCondition;
+import com.redis.search.query.filter.Wildcard;
+
+/**
+ * Evaluates a {@link Condition} tree against the field indexes of a
+ * {@link LocalIndex}, returning the set of matching document ids.
+ */
+class ConditionEvaluator {
+
+	private static final char PREFIX = '*';
+	private static final char QUOTE = '"';
+
+	private final Map<String, FieldIndex> fields;
+	private final Map<String, TextIndex> textFields;
+	private final Supplier<Set<String>> ids;
+
+	ConditionEvaluator(Map<String, FieldIndex> fields, Map<String, TextIndex> textFields,
+			Supplier<Set<String>> ids) {
+		this.fields = fields;
+		this.textFields = textFields;
+		this.ids = ids;
+	}
+
+	public Set<String> evaluate(Condition condition) {
+		return evaluate(condition, textFields.values());
+	}
+
+	private Set<String> evaluate(Condition condition, Collection<TextIndex> scope) {
+		if (condition instanceof Wildcard || condition instanceof Optional) {
+			// Optional clauses only affect scoring
+			return all();
+		}
+		if (condition instanceof And) {
+			And and = (And) condition;
+			Set<String> left = evaluate(and.getLeft(), scope);
+			if (!left.isEmpty()) {
+				left.retainAll(evaluate(and.getRight(), scope));
+			}
+			return left;
+		}
+		if (condition instanceof Or) {
+			Or or = (Or) condition;
+			Set<String> result = new HashSet<>();
+			if (or.getLeft() != null) {
+				result.addAll(evaluate(or.getLeft(), scope));
+			}
+			if (or.getRight() != null) {
+				result.addAll(evaluate(or.getRight(), scope));
+			}
+			return result;
+		}
+		if (condition instanceof OrList) {
+			Set<String> result = new HashSet<>();
+			for (Condition element : ((OrList) condition).getConditions()) {
+				if (element != null) {
+					result.addAll(evaluate(element, scope));
+				}
+			}
+			return result;
+		}
+		if (condition instanceof Not) {
+			Set<String> result = all();
+			result.removeAll(evaluate(((Not) condition).getCondition(), scope));
+			return result;
+		}
+		if (condition instanceof FieldCondition) {
+			return field((FieldCondition) condition);
+		}
+		if (condition instanceof TermCondition) {
+			return term(condition.getQuery(), scope);
+		}
+		throw unsupported(condition);
+	}
+
+	private Set<String> field(FieldCondition condition) {
+		String name = condition.getField().getName();
+		FieldIndex index = fields.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("Unknown field " + name);
+		}
+		Condition value = condition.getCondition();
+		if (value instanceof TagCondition) {
+			return tags(cast(index, TagIndex.class, name), ((TagCondition) value).getValues());
+		}
+		if (value instanceof NumericCondition) {
+			return cast(index, NumericIndex.class, name).range(((NumericCondition) value).getInterval());
+		}
+		if (value instanceof GeoCondition) {
+			GeoCondition geo = (GeoCondition) value;
+			return cast(index, GeoIndex.class, name).within(geo.getCoordinates(), geo.getRadius());
+		}
+		if (index instanceof TextIndex) {
+			return evaluate(value, Collections.singletonList((TextIndex) index));
+		}
+		throw unsupported(value);
+	}
+
+	private Set<String> tags(TagIndex index, Collection<String> values) {
+		Set<String> result = new HashSet<>();
+		for (String value : values) {
+			if (value.length() > 1 && value.charAt(value.length() - 1) == PREFIX) {
+				result.addAll(index.prefix(index.normalize(value.substring(0, value.length() - 1))));
+			} else {
+				result.addAll(index.exact(index.normalize(value)));
+			}
+		}
+		return result;
+	}
+
+	private Set<String> term(String value, Collection<TextIndex> scope) {
+		if (value == null) {
+			return new HashSet<>();
+		}
+		String terms = value.trim();
+		if (terms.length() > 1 && terms.charAt(0) == QUOTE && terms.charAt(terms.length() - 1) == QUOTE) {
+			terms = terms.substring(1, terms.length() - 1);
+		}
+		Set<String> result = null;
+		for (String word : terms.split("\\s+")) {
+			boolean prefix = word.length() > 1 && word.charAt(word.length() - 1) == PREFIX;
+			Iterator<String> tokens = TextIndex.tokenize(word).iterator();
+			while (tokens.hasNext()) {
+				String token = tokens.next();
+				Set<String> matches = new HashSet<>();
+				for (TextIndex index : scope) {
+					matches.addAll(prefix && !tokens.hasNext() ? index.prefix(token) : index.exact(token));
+				}
+				if (result == null) {
+					result = matches;
+				} else {
+					result.retainAll(matches);
+				}
+			}
+		}
+		return result == null ? new HashSet<>() : result;
+	}
+
+	private Set<String> all() {
+		return new HashSet<>(ids.get());
+	}
+
+	private static <T extends FieldIndex> T cast(FieldIndex index, Class<T> type, String name) {
+		if (!type.isInstance(index)) {
+			throw new IllegalArgumentException("Field " + name + " is not a " + type.getSimpleName());
+		}
+		return type.cast(index);
+	}
+
+	private static UnsupportedOperationException unsupported(Condition condition) {
+		return new UnsupportedOperationException(
+				"Condition cannot be evaluated locally: " + condition.getClass().getSimpleName());
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.redis.query.local;
+
+/**
+ * Index of the values of a single document field.
+ */
+interface FieldIndex {
+
+	void add(String id, Object value);
+
+	void remove(String id, Object value);
+
+}
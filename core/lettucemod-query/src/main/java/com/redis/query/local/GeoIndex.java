@@ -0,0 +1,87 @@
+package com.redis.query.local;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.redis.search.query.filter.Distance;
+import com.redis.search.query.filter.GeoCoordinates;
+
+/**
+ * Geo field index holding {@code lon,lat} coordinates. Radius queries scan all
+ * indexed points.
+ */
+class GeoIndex implements FieldIndex {
+
+	// Same earth radius as Redis GEO commands
+	private static final double EARTH_RADIUS_METERS = 6372797.560856;
+
+	private final Map<String, double[]> points = new HashMap<>();
+
+	@Override
+	public void add(String id, Object value) {
+		double[] point = parse(value);
+		if (point != null) {
+			points.put(id, point);
+		}
+	}
+
+	@Override
+	public void remove(String id, Object value) {
+		points.remove(id);
+	}
+
+	public Set<String> within(GeoCoordinates coordinates, Distance radius) {
+		double lon = coordinates.getLon().doubleValue();
+		double lat = coordinates.getLat().doubleValue();
+		double meters = radius.getValue().doubleValue() * meters(radius.getUnit());
+		Set<String> ids = new HashSet<>();
+		for (Map.Entry<String, double[]> entry : points.entrySet()) {
+			double[] point = entry.getValue();
+			if (distance(lon, lat, point[0], point[1]) <= meters) {
+				ids.add(entry.getKey());
+			}
+		}
+		return ids;
+	}
+
+	private static double meters(Distance.Unit unit) {
+		switch (unit) {
+		case KILOMETERS:
+			return 1000;
+		case MILES:
+			return 1609.34;
+		case FEET:
+			return 0.3048;
+		default:
+			return 1;
+		}
+	}
+
+	private static double distance(double lon1, double lat1, double lon2, double lat2) {
+		double phi1 = Math.toRadians(lat1);
+		double phi2 = Math.toRadians(lat2);
+		double u = Math.sin((phi2 - phi1) / 2);
+		double v = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+		return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(u * u + Math.cos(phi1) * Math.cos(phi2) * v * v));
+	}
+
+	private static double[] parse(Object value) {
+		if (value == null) {
+			return null;
+		}
+		String string = value.toString();
+		int comma = string.indexOf(',');
+		if (comma < 0) {
+			return null;
+		}
+		try {
+			return new double[] { Double.parseDouble(string.substring(0, comma).trim()),
+					Double.parseDouble(string.substring(comma + 1).trim()) };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.redis.query.local;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import com.redis.search.query.filter.Condition;
+import com.redis.search.query.filter.Utils;
+
+/**
+ * In-memory store of documents that can be queried with {@link Condition}s
+ * without a round-trip to Redis, e.g. to serve a hot subset of an index from an
+ * application-side cache or to run deterministic tests.
+ * <p>
+ * Each document is a map of field names to values, so
+ * {@code Document<String, String>} instances can be stored directly. Fields
+ * declared in the schema are indexed: tag and text fields in inverted indexes,
+ * numeric fields in a sorted index and geo fields ({@code lon,lat}) in a point
+ * list.
+ * <p>
+ * Matching follows RediSearch semantics for tag, numeric, geo, wildcard,
+ * intersection, union, negation and optional conditions. Text matching is an
+ * approximation: terms are lower-cased and split on non-alphanumeric
+ * characters, prefix terms ({@code foo*}) are supported, but there is no
+ * stemming, no stop-word removal and phrases only require all their terms to be
+ * present. Vector conditions are not supported.
+ *
+ * @param <D> document type
+ */
+public class LocalIndex<D extends Map<String, ?>> {
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, D> documents = new LinkedHashMap<>();
+	private final Map<String, Supplier<FieldIndex>> schema;
+	private final Map<String, FieldIndex> fields = new HashMap<>();
+	private final Map<String, TextIndex> textFields = new LinkedHashMap<>();
+	private final ConditionEvaluator evaluator;
+
+	private LocalIndex(Builder builder) {
+		this.schema = new LinkedHashMap<>(builder.schema);
+		createFields();
+		this.evaluator = new ConditionEvaluator(fields, textFields, documents::keySet);
+	}
+
+	private void createFields() {
+		fields.clear();
+		textFields.clear();
+		for (Map.Entry<String, Supplier<FieldIndex>> entry : schema.entrySet()) {
+			FieldIndex index = entry.getValue().get();
+			fields.put(entry.getKey(), index);
+			if (index instanceof TextIndex) {
+				textFields.put(entry.getKey(), (TextIndex) index);
+			}
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Adds or replaces a document.
+	 * 
+	 * @param id       document id
+	 * @param document document fields
+	 */
+	public void put(String id, D document) {
+		Utils.notNull(id, "Id must not be null");
+		Utils.notNull(document, "Document must not be null");
+		lock.writeLock().lock();
+		try {
+			D previous = documents.remove(id);
+			if (previous != null) {
+				unindex(id, previous);
+			}
+			documents.put(id, document);
+			for (Map.Entry<String, FieldIndex> field : fields.entrySet()) {
+				Object value = document.get(field.getKey());
+				if (value != null) {
+					field.getValue().add(id, value);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public D remove(String id) {
+		lock.writeLock().lock();
+		try {
+			D document = documents.remove(id);
+			if (document != null) {
+				unindex(id, document);
+			}
+			return document;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void unindex(String id, D document) {
+		for (Map.Entry<String, FieldIndex> field : fields.entrySet()) {
+			Object value = document.get(field.getKey());
+			if (value != null) {
+				field.getValue().remove(id, value);
+			}
+		}
+	}
+
+	public D get(String id) {
+		lock.readLock().lock();
+		try {
+			return documents.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			documents.clear();
+			createFields();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @param condition condition to match
+	 * @return ids of the documents matching the condition
+	 * @throws UnsupportedOperationException if the condition cannot be evaluated
+	 *                                       locally
+	 */
+	public Set<String> ids(Condition condition) {
+		lock.readLock().lock();
+		try {
+			return evaluator.evaluate(condition);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param condition condition to match
+	 * @return documents matching the condition, in insertion order
+	 * @throws UnsupportedOperationException if the condition cannot be evaluated
+	 *                                       locally
+	 */
+	public List<D> search(Condition condition) {
+		lock.readLock().lock();
+		try {
+			Set<String> ids = evaluator.evaluate(condition);
+			if (ids.isEmpty()) {
+				return Collections.emptyList();
+			}
+			List<D> results = new ArrayList<>(ids.size());
+			for (Map.Entry<String, D> entry : documents.entrySet()) {
+				if (ids.contains(entry.getKey())) {
+					results.add(entry.getValue());
+				}
+			}
+			return results;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public static class Builder {
+
+		private static final char DEFAULT_SEPARATOR = ',';
+
+		private final Map<String, Supplier<FieldIndex>> schema = new LinkedHashMap<>();
+
+		private Builder field(String name, Supplier<FieldIndex> index) {
+			Utils.notNull(name, "Field name must not be null");
+			Utils.isTrue(!schema.containsKey(name), "Duplicate field " + name);
+			schema.put(name, index);
+			return this;
+		}
+
+		public Builder tag(String name) {
+			return tag(name, DEFAULT_SEPARATOR, false);
+		}
+
+		public Builder tag(String name, char separator, boolean caseSensitive) {
+			return field(name, () -> new TagIndex(separator, caseSensitive));
+		}
+
+		public Builder numeric(String name) {
+			return field(name, NumericIndex::new);
+		}
+
+		public Builder text(String name) {
+			return field(name, TextIndex::new);
+		}
+
+		public Builder geo(String name) {
+			return field(name, GeoIndex::new);
+		}
+
+		public <D extends Map<String, ?>> LocalIndex<D> build() {
+			return new LocalIndex<>(this);
+		}
+
+	}
+
+}
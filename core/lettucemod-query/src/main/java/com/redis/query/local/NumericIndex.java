@@ -0,0 +1,71 @@
+package com.redis.query.local;
+
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.redis.search.query.filter.NumericBoundary;
+import com.redis.search.query.filter.NumericInterval;
+
+/**
+ * Numeric field index sorted by value so that range queries are a sub-map
+ * scan. Values that cannot be parsed as numbers are not indexed.
+ */
+class NumericIndex implements FieldIndex {
+
+	private final NavigableMap<Double, Set<String>> values = new TreeMap<>();
+
+	@Override
+	public void add(String id, Object value) {
+		Double number = parse(value);
+		if (number != null) {
+			values.computeIfAbsent(number, k -> new HashSet<>()).add(id);
+		}
+	}
+
+	@Override
+	public void remove(String id, Object value) {
+		Double number = parse(value);
+		if (number == null) {
+			return;
+		}
+		Set<String> ids = values.get(number);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				values.remove(number);
+			}
+		}
+	}
+
+	public Set<String> range(NumericInterval interval) {
+		NumericBoundary lower = interval.getLower();
+		NumericBoundary upper = interval.getUpper();
+		double from = lower.getValue().doubleValue();
+		double to = upper.getValue().doubleValue();
+		Set<String> ids = new HashSet<>();
+		if (from > to) {
+			return ids;
+		}
+		boolean fromInclusive = !lower.isExclusive() || Double.isInfinite(from);
+		boolean toInclusive = !upper.isExclusive() || Double.isInfinite(to);
+		values.subMap(from, fromInclusive, to, toInclusive).values().forEach(ids::addAll);
+		return ids;
+	}
+
+	private static Double parse(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Double.parseDouble(value.toString().trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+}
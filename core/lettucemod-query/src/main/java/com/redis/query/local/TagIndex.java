@@ -0,0 +1,42 @@
+package com.redis.query.local;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tag field index. Values are split on the field separator and trimmed, and
+ * lower-cased unless the field is case-sensitive.
+ */
+class TagIndex extends TermIndex {
+
+	private final char separator;
+	private final boolean caseSensitive;
+
+	TagIndex(char separator, boolean caseSensitive) {
+		this.separator = separator;
+		this.caseSensitive = caseSensitive;
+	}
+
+	@Override
+	protected Collection<String> terms(String value) {
+		List<String> tags = new ArrayList<>();
+		int start = 0;
+		for (int index = 0; index <= value.length(); index++) {
+			if (index == value.length() || value.charAt(index) == separator) {
+				String tag = value.substring(start, index).trim();
+				if (!tag.isEmpty()) {
+					tags.add(normalize(tag));
+				}
+				start = index + 1;
+			}
+		}
+		return tags;
+	}
+
+	String normalize(String tag) {
+		return caseSensitive ? tag : tag.toLowerCase(Locale.ROOT);
+	}
+
+}
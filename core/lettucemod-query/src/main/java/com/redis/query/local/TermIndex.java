@@ -0,0 +1,57 @@
+package com.redis.query.local;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from the terms of a field to the ids of the documents
+ * containing them. Terms are kept sorted so that prefix queries are a range
+ * scan.
+ */
+abstract class TermIndex implements FieldIndex {
+
+	private final NavigableMap<String, Set<String>> postings = new TreeMap<>();
+
+	protected abstract Collection<String> terms(String value);
+
+	@Override
+	public void add(String id, Object value) {
+		for (String term : terms(String.valueOf(value))) {
+			postings.computeIfAbsent(term, k -> new HashSet<>()).add(id);
+		}
+	}
+
+	@Override
+	public void remove(String id, Object value) {
+		for (String term : terms(String.valueOf(value))) {
+			Set<String> ids = postings.get(term);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+		}
+	}
+
+	public Set<String> exact(String term) {
+		Set<String> ids = postings.get(term);
+		return ids == null ? new HashSet<>() : new HashSet<>(ids);
+	}
+
+	public Set<String> prefix(String prefix) {
+		Set<String> ids = new HashSet<>();
+		for (Map.Entry<String, Set<String>> entry : postings.tailMap(prefix, true).entrySet()) {
+			if (!entry.getKey().startsWith(prefix)) {
+				break;
+			}
+			ids.addAll(entry.getValue());
+		}
+		return ids;
+	}
+
+}
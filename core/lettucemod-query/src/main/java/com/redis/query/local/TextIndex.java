@@ -0,0 +1,35 @@
+package com.redis.query.local;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Full-text field index. Values are split on every character that is not a
+ * letter or digit and lower-cased. Unlike RediSearch there is no stemming and
+ * no stop-word removal.
+ */
+class TextIndex extends TermIndex {
+
+	@Override
+	protected Collection<String> terms(String value) {
+		return tokenize(value);
+	}
+
+	static Set<String> tokenize(String value) {
+		Set<String> tokens = new LinkedHashSet<>();
+		int start = -1;
+		for (int index = 0; index <= value.length(); index++) {
+			boolean word = index < value.length() && Character.isLetterOrDigit(value.charAt(index));
+			if (word && start < 0) {
+				start = index;
+			} else if (!word && start >= 0) {
+				tokens.add(value.substring(start, index).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+}
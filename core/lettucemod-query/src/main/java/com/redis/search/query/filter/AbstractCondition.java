@@ -0,0 +1,20 @@
+package com.redis.search.query.filter;
+
+/**
+ * Base class for conditions that render themselves with
+ * {@link #appendTo(StringBuilder)}. {@link #getQuery()} allocates a single
+ * builder for the whole condition tree.
+ */
+public abstract class AbstractCondition implements Condition {
+
+    @Override
+    public String getQuery() {
+	StringBuilder builder = new StringBuilder();
+	appendTo(builder);
+	return builder.toString();
+    }
+
+    @Override
+    public abstract void appendTo(StringBuilder builder);
+
+}
@@ -1,6 +1,6 @@
 package com.redis.search.query.filter;
 
-public class CompositeCondition implements Condition {
+public class CompositeCondition extends AbstractCondition {
     protected final Condition right;
     protected final CharSequence delimiter;
     protected final Condition left;
@@ -9,9 +9,20 @@ public class CompositeCondition implements Condition {
         this.left = left;
         this.right = right;
     }
+    public Condition getLeft() {
+        return left;
+    }
+    public Condition getRight() {
+        return right;
+    }
+    public CharSequence getDelimiter() {
+        return delimiter;
+    }
     @Override
-    public String getQuery() {
-        return String.join(delimiter, left.getQuery(), right.getQuery());
+    public void appendTo(StringBuilder builder) {
+        left.appendTo(builder);
+        builder.append(delimiter);
+        right.appendTo(builder);
     }
 
 }
\ No newline at end of file
@@ -5,6 +5,23 @@ public interface Condition {
 
     String getQuery();
 
+    /**
+     * Appends this condition's query to the given builder. Composite conditions
+     * render their children through this method so that a whole tree is written
+     * into a single buffer instead of concatenating intermediate strings.
+     * <p>
+     * The default implementation appends the result of {@link #getQuery()}, if
+     * any.
+     *
+     * @param builder the builder to append the query to
+     */
+    default void appendTo(StringBuilder builder) {
+        String query = getQuery();
+        if (query != null) {
+            builder.append(query);
+        }
+    }
+
     default Condition and(Condition condition) {
         return new And(this, condition);
     }
@@ -1,8 +1,9 @@
 package com.redis.search.query.filter;
 
-public class FieldCondition implements Condition {
+public class FieldCondition extends AbstractCondition {
 
-    private static final String FORMAT = "@%s:%s";
+    private static final char PREFIX = '@';
+    private static final char SEPARATOR = ':';
 
     protected final Field field;
     protected Condition condition;
@@ -14,13 +15,22 @@ public class FieldCondition implements Condition {
 	this.condition = condition;
     }
 
+    public Field getField() {
+	return field;
+    }
+
+    public Condition getCondition() {
+	return condition;
+    }
+
     @Override
-    public String getQuery() {
-	return String.format(FORMAT, field.getName(), valueString());
+    public void appendTo(StringBuilder builder) {
+	builder.append(PREFIX).append(field.getName()).append(SEPARATOR);
+	appendValue(builder);
     }
 
-    protected String valueString() {
-	return condition.getQuery();
+    protected void appendValue(StringBuilder builder) {
+	condition.appendTo(builder);
     }
 
 }
\ No newline at end of file
@@ -1,8 +1,7 @@
 package com.redis.search.query.filter;
 
-public class GeoCondition implements Condition {
+public class GeoCondition extends AbstractCondition {
 
-    private static final String FORMAT = "[%s %s %s %s]";
     private final GeoCoordinates coordinates;
     private final Distance radius;
 
@@ -11,10 +10,18 @@ public class GeoCondition implements Condition {
 	this.radius = radius;
     }
 
+    public GeoCoordinates getCoordinates() {
+	return coordinates;
+    }
+
+    public Distance getRadius() {
+	return radius;
+    }
+
     @Override
-    public String getQuery() {
-	return String.format(FORMAT, coordinates.getLon(), coordinates.getLat(), radius.getValue(),
-		radius.getUnit().getString());
+    public void appendTo(StringBuilder builder) {
+	builder.append('[').append(coordinates.getLon()).append(' ').append(coordinates.getLat()).append(' ')
+		.append(radius.getValue()).append(' ').append(radius.getUnit().getString()).append(']');
     }
 
 }
@@ -7,7 +7,7 @@ public class NumericBoundary {
     public static final NumericBoundary POSITIVE_INFINITY = new NumericBoundary(Double.POSITIVE_INFINITY, true);
     public static final NumericBoundary NEGATIVE_INFINITY = new NumericBoundary(Double.NEGATIVE_INFINITY, true);
 
-    private static final String EXCLUSIVE_FORMAT = "(%s";
+    private static final char EXCLUSIVE_PREFIX = '(';
 
     private final Number value;
     private final boolean exclusive;
@@ -17,17 +17,32 @@ public class NumericBoundary {
 	this.exclusive = exclusive;
     }
 
+    public Number getValue() {
+	return value;
+    }
+
+    public boolean isExclusive() {
+	return exclusive;
+    }
+
+    @Override
     public String toString() {
+	StringBuilder builder = new StringBuilder();
+	appendTo(builder);
+	return builder.toString();
+    }
+
+    public void appendTo(StringBuilder builder) {
 	if (this == NEGATIVE_INFINITY) {
-	    return MINUS_INFINITY;
-	}
-	if (this == POSITIVE_INFINITY) {
-	    return INFINITY;
-	}
-	if (exclusive) {
-	    return String.format(EXCLUSIVE_FORMAT, value);
+	    builder.append(MINUS_INFINITY);
+	} else if (this == POSITIVE_INFINITY) {
+	    builder.append(INFINITY);
+	} else {
+	    if (exclusive) {
+		builder.append(EXCLUSIVE_PREFIX);
+	    }
+	    builder.append(value);
 	}
-	return value.toString();
     }
 
     public static NumericBoundary inclusive(Number value) {
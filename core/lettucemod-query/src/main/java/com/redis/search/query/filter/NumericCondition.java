@@ -1,8 +1,6 @@
 package com.redis.search.query.filter;
 
-public class NumericCondition implements Condition {
-
-    private static final String FORMAT = "[%s %s]";
+public class NumericCondition extends AbstractCondition {
 
     private final NumericInterval interval;
 
@@ -10,9 +8,17 @@ public class NumericCondition implements Condition {
 	this.interval = interval;
     }
 
+    public NumericInterval getInterval() {
+	return interval;
+    }
+
     @Override
-    public String getQuery() {
-	return String.format(FORMAT, interval.getLower(), interval.getUpper());
+    public void appendTo(StringBuilder builder) {
+	builder.append('[');
+	interval.getLower().appendTo(builder);
+	builder.append(' ');
+	interval.getUpper().appendTo(builder);
+	builder.append(']');
     }
 
 }
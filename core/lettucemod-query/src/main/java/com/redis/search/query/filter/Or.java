@@ -1,7 +1,5 @@
 package com.redis.search.query.filter;
 
-import java.util.StringJoiner;
-
 /**
  * Represents a logical OR condition between two {@link Condition} objects.
  * <p>
@@ -20,6 +18,8 @@ public class Or extends CompositeCondition {
      */
     public static final String DELIMITER = "|";
 
+    private static final String CLOSE_OPEN = ")" + DELIMITER + "(";
+
     /**
      * Constructs an {@code Or} condition from two {@link Condition} objects.
      *
@@ -31,40 +31,53 @@ public class Or extends CompositeCondition {
     }
 
     /**
-     * Builds a logical OR query between two sub-conditions.
+     * Appends a logical OR query between two sub-conditions.
      * <p>
      * Logic:
-     * 1. If both left and right queries are present, returns them in the format "(@leftQuery)|(@rightQuery)".
-     * 2. If only one of them is present, returns that query directly wrapped in parentheses.
-     * 3. If both are missing or empty, returns an empty string.
+     * 1. If both left and right queries are present, appends them in the format "(@leftQuery)|(@rightQuery)".
+     * 2. If only one of them is present, appends that query directly wrapped in parentheses.
+     * 3. If both are missing or empty, appends nothing.
+     * <p>
+     * Both sides are rendered in place and rolled back if they turn out to be empty,
+     * so no intermediate strings are created.
      *
-     * @return A string representing the logical query.
+     * @param builder The builder to append the query to.
      */
     @Override
-    public String getQuery() {
-        String leftQuery = (left != null) ? left.getQuery() : null;
-        String rightQuery = (right != null) ? right.getQuery() : null;
-
-        // Treat empty or whitespace strings as null
-        if (rightQuery != null && rightQuery.trim().isEmpty()) {
-            rightQuery = null;
+    public void appendTo(StringBuilder builder) {
+        int start = builder.length();
+        builder.append('(');
+        int leftStart = builder.length();
+        if (left != null) {
+            left.appendTo(builder);
         }
-
-        boolean hasLeft = leftQuery != null && !leftQuery.isEmpty();
-        boolean hasRight = rightQuery != null && !rightQuery.isEmpty();
-
-        if (hasLeft && hasRight) {
-            // Both sides present: (@leftQuery)|(@rightQuery)
-            return String.format("(%s)|(%s)", leftQuery, rightQuery);
-        } else if (hasLeft) {
-            // Only left side present: (@leftQuery)
-            return String.format("(%s)", leftQuery);
-        } else if (hasRight) {
-            // Only right side present: (@rightQuery)
-            return String.format("(%s)", rightQuery);
+        boolean hasLeft = builder.length() > leftStart;
+        if (hasLeft) {
+            builder.append(CLOSE_OPEN);
+        }
+        int rightStart = builder.length();
+        if (right != null) {
+            right.appendTo(builder);
+        }
+        // Treat empty or whitespace strings (as per String.trim()) as missing
+        boolean hasRight = !isBlank(builder, rightStart);
+        if (!hasRight) {
+            builder.setLength(hasLeft ? rightStart - CLOSE_OPEN.length() : rightStart);
+        }
+        if (hasLeft || hasRight) {
+            builder.append(')');
         } else {
             // Both sides missing or blank
-            return "";
+            builder.setLength(start);
+        }
+    }
+
+    private static boolean isBlank(CharSequence sequence, int from) {
+        for (int index = from; index < sequence.length(); index++) {
+            if (sequence.charAt(index) > ' ') {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -2,7 +2,6 @@ package com.redis.search.query.filter;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.StringJoiner;
 
 /**
  * Represents a logical OR condition composed of multiple {@link Condition} elements.
@@ -15,7 +14,7 @@ import java.util.StringJoiner;
  *     ( (query1)|(query2)|(query3) )
  * }</pre>
  */
-public class OrList implements Condition {
+public class OrList extends AbstractCondition {
 
     /**
      * The delimiter used to join conditions in an OR clause.
@@ -34,42 +33,61 @@ public class OrList implements Condition {
     }
 
     /**
-     * Builds and returns the query string representing a logical OR condition.
+     * @return The conditions of this list, which may include {@code null} elements.
+     */
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Appends the query representing a logical OR condition.
      * <p>
      * Logic:
      * <ul>
      *   <li>Each valid (non-null and non-empty) condition query is wrapped in parentheses.</li>
      *   <li>All valid conditions are joined using the OR operator {@code |}.</li>
-     *   <li>If fewer than two valid conditions are present, the query is returned without wrapping the entire string in extra parentheses.</li>
-     *   <li>If no valid conditions are present, an empty string is returned.</li>
+     *   <li>If fewer than two valid conditions are present, the query is appended without wrapping the entire string in extra parentheses.</li>
+     *   <li>If no valid conditions are present, nothing is appended.</li>
      * </ul>
+     * Conditions are rendered directly into the builder, so large lists do not create one
+     * intermediate string per element.
      *
-     * @return A formatted query string representing the logical OR of valid conditions,
-     * or an empty string if none exist.
+     * @param builder The builder to append the query to.
      */
     @Override
-    public String getQuery() {
+    public void appendTo(StringBuilder builder) {
         if (conditions == null || conditions.isEmpty()) {
-            return "";
+            return;
         }
 
-        StringJoiner joiner = new StringJoiner(OR_LIST_CONDITION_FORMAT);
+        int start = builder.length();
+        builder.append('(');
         int validConditionCounter = 0;
         for (Condition condition : conditions) {
             if (condition == null) {
                 continue;
             }
 
-            String query = condition.getQuery();
-            if (query != null && !query.isEmpty()) {
-                joiner.add("(" + query + ")");
+            int mark = builder.length();
+            if (validConditionCounter > 0) {
+                builder.append(OR_LIST_CONDITION_FORMAT);
+            }
+            builder.append('(');
+            int queryStart = builder.length();
+            condition.appendTo(builder);
+            if (builder.length() == queryStart) {
+                builder.setLength(mark);
+            } else {
+                builder.append(')');
                 validConditionCounter++;
             }
         }
-        if (joiner.length() == 0 || validConditionCounter < 2) {
-            return joiner.toString();
+        if (validConditionCounter == 0) {
+            builder.setLength(start);
+        } else if (validConditionCounter < 2) {
+            builder.deleteCharAt(start);
+        } else {
+            builder.append(')');
         }
-
-        return "(" + joiner.toString() + ")";
     }
 }
@@ -1,25 +1,79 @@
 package com.redis.search.query.filter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.StringJoiner;
+import java.util.function.UnaryOperator;
 
 import com.redis.query.Query;
 
-public class TagCondition implements Condition {
+public class TagCondition extends AbstractCondition {
 
     private final List<String> values;
+    private final List<String> escapedValues;
 
     public TagCondition(String... values) {
 	Utils.notEmpty(values, "Must have at least one tag");
 	this.values = Arrays.asList(values);
+	this.escapedValues = null;
+    }
+
+    /**
+     * 
+     * @param values        tag values
+     * @param escapedValues escaped form of each tag value, appended to the query
+     *                      as is
+     */
+    public TagCondition(List<String> values, List<String> escapedValues) {
+	Utils.notEmpty(values, "Must have at least one tag");
+	Utils.isTrue(escapedValues.size() == values.size(), "Must have an escaped form for each tag");
+	this.values = values;
+	this.escapedValues = escapedValues;
+    }
+
+    /**
+     * Creates a condition whose values are escaped with the given function
+     * instead of {@link Query#escapeTag(String)}, e.g. a lookup into tag values
+     * that were escaped once when they were loaded.
+     * 
+     * @param escaper returns the escaped form of a tag value
+     * @param values  tag values
+     * @return tag condition
+     */
+    public static TagCondition of(UnaryOperator<String> escaper, String... values) {
+	Utils.notEmpty(values, "Must have at least one tag");
+	List<String> escapedValues = new ArrayList<>(values.length);
+	for (String value : values) {
+	    escapedValues.add(escaper.apply(value));
+	}
+	return new TagCondition(Arrays.asList(values), escapedValues);
+    }
+
+    public List<String> getValues() {
+	return values;
+    }
+
+    public String getEscapedValue(int index) {
+	if (escapedValues == null) {
+	    return Query.escapeTag(values.get(index));
+	}
+	return escapedValues.get(index);
     }
 
     @Override
-    public String getQuery() {
-	StringJoiner joiner = new StringJoiner(Or.DELIMITER, "{", "}");
-	values.stream().map(Query::escapeTag).forEach(joiner::add);
-	return joiner.toString();
+    public void appendTo(StringBuilder builder) {
+	builder.append('{');
+	for (int index = 0; index < values.size(); index++) {
+	    if (index > 0) {
+		builder.append(Or.DELIMITER);
+	    }
+	    if (escapedValues == null) {
+		Query.escapeTag(builder, values.get(index));
+	    } else {
+		builder.append(escapedValues.get(index));
+	    }
+	}
+	builder.append('}');
     }
 
 }
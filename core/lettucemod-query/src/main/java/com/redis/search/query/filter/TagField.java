@@ -1,5 +1,7 @@
 package com.redis.search.query.filter;
 
+import java.util.function.UnaryOperator;
+
 public class TagField extends AbstractField {
 
     public TagField(String name) {
@@ -10,4 +12,15 @@ public class TagField extends AbstractField {
 	return new FieldCondition(this, new TagCondition(values));
     }
 
+    /**
+     * 
+     * @param escaper returns the escaped form of a tag value
+     * @param values  tag values
+     * @return condition matching any of the given values
+     * @see TagCondition#of(UnaryOperator, String...)
+     */
+    public FieldCondition in(UnaryOperator<String> escaper, String... values) {
+	return new FieldCondition(this, TagCondition.of(escaper, values));
+    }
+
 }
@@ -2,8 +2,6 @@ package com.redis.search.query.filter;
 
 public class TextCondition extends FieldCondition {
 
-    private static final String VALUE_FORMAT = "(%s)";
-
     public TextCondition(Field field, TermCondition condition) {
 	super(field, condition);
     }
@@ -19,15 +17,18 @@ public class TextCondition extends FieldCondition {
     }
 
     @Override
-    protected String valueString() {
+    protected void appendValue(StringBuilder builder) {
 	if (condition instanceof TermCondition) {
 	    TermCondition termCondition = (TermCondition) condition;
 	    String query = termCondition.getQuery();
 	    if (!query.contains(" ")) {
-		return query;
+		builder.append(query);
+		return;
 	    }
 	}
-	return String.format(VALUE_FORMAT, condition.getQuery());
+	builder.append('(');
+	condition.appendTo(builder);
+	builder.append(')');
     }
 
 }
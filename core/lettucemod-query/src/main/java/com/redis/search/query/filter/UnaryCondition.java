@@ -1,6 +1,6 @@
 package com.redis.search.query.filter;
 
-public class UnaryCondition implements Condition {
+public class UnaryCondition extends AbstractCondition {
 
     private final CharSequence operator;
     private final Condition condition;
@@ -10,19 +10,28 @@ public class UnaryCondition implements Condition {
 	this.condition = condition;
     }
 
+    public CharSequence getOperator() {
+	return operator;
+    }
+
+    public Condition getCondition() {
+	return condition;
+    }
+
     @Override
-    public String getQuery() {
-	StringBuilder builder = new StringBuilder();
+    public void appendTo(StringBuilder builder) {
 	builder.append(operator);
-	builder.append(operandString());
-	return builder.toString();
+	appendOperand(builder);
     }
 
-    private String operandString() {
+    private void appendOperand(StringBuilder builder) {
 	if (condition instanceof FieldCondition) {
-	    return condition.getQuery();
+	    condition.appendTo(builder);
+	} else {
+	    builder.append('(');
+	    condition.appendTo(builder);
+	    builder.append(')');
 	}
-	return Utils.parens(condition.getQuery());
     }
 
-}
+}
\ No newline at end of file
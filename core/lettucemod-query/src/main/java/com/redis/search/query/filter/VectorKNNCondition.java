@@ -2,12 +2,12 @@ package com.redis.search.query.filter;
 
 import com.redis.query.Query;
 
-public class VectorKNNCondition implements Condition {
+public class VectorKNNCondition extends AbstractCondition {
 
     /**
      * The basic syntax is "*=>[ KNN {num|$num} @vector $query_vec ]"
      */
-    private static final String FORMAT = "%s=>[KNN %s @%s $%s]";
+    private static final String KNN = "=>[KNN ";
 
     private final Field field;
     private int num;
@@ -28,25 +28,29 @@ public class VectorKNNCondition implements Condition {
     }
 
     @Override
-    public String getQuery() {
-	return String.format(FORMAT, conditionString(), numString(), field.getName(), vectorParam);
+    public void appendTo(StringBuilder builder) {
+	appendCondition(builder);
+	builder.append(KNN);
+	appendNum(builder);
+	builder.append(" @").append(field.getName()).append(" $").append(vectorParam).append(']');
     }
 
-    private String conditionString() {
-	if (condition == Query.WILDCARD) {
-	    return condition.getQuery();
+    private void appendCondition(StringBuilder builder) {
+	if (condition == Query.WILDCARD || condition instanceof FieldCondition) {
+	    condition.appendTo(builder);
+	} else {
+	    builder.append('(');
+	    condition.appendTo(builder);
+	    builder.append(')');
 	}
-	if (condition instanceof FieldCondition) {
-	    return condition.getQuery();
-	}
-	return Utils.parens(condition.getQuery());
     }
 
-    private String numString() {
+    private void appendNum(StringBuilder builder) {
 	if (numParam == null) {
-	    return String.valueOf(num);
+	    builder.append(num);
+	} else {
+	    builder.append('$').append(numParam);
 	}
-	return "$" + numParam;
     }
 
     private VectorKNNCondition condition(Condition condition) {
@@ -1,8 +1,8 @@
 package com.redis.search.query.filter;
 
-public class VectorRangeCondition implements Condition {
+public class VectorRangeCondition extends AbstractCondition {
 
-    private static final String FORMAT = "[VECTOR_RANGE %s $%s]";
+    private static final String VECTOR_RANGE = "[VECTOR_RANGE ";
 
     private final Number radius;
     private final String vector;
@@ -13,7 +13,7 @@ public class VectorRangeCondition implements Condition {
     }
 
     @Override
-    public String getQuery() {
-	return String.format(FORMAT, radius, vector);
+    public void appendTo(StringBuilder builder) {
+	builder.append(VECTOR_RANGE).append(radius).append(" $").append(vector).append(']');
     }
-}
+}
\ No newline at end of file
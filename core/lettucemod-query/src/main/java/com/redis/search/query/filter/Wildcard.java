@@ -9,6 +9,11 @@ public class Wildcard implements Condition {
 	return ASTERISK;
     }
 
+    @Override
+    public void appendTo(StringBuilder builder) {
+	builder.append(ASTERISK);
+    }
+
     @Override
     public Condition and(Condition condition) {
 	return condition;
@@ -38,6 +38,12 @@ class QueryBuilderTests {
 	assertEquals("@myField:{foo\\ bar|bar}", condition.getQuery());
     }
 
+    @Test
+    void testTagEscaper() {
+	Condition condition = tag("myField").in(value -> value.replace("*", "\\*"), "foo*", "bar");
+	assertEquals("@myField:{foo\\*|bar}", condition.getQuery());
+    }
+
     @Test
     void testNumeric() {
 	NumericField field = numeric("name");
@@ -133,6 +139,39 @@ class QueryBuilderTests {
 	assertEquals("a\\ b\\ c", Query.escapeTag(tag));
     }
 
+    @Test
+    void testEscapeTagSpecialCharacters() {
+	assertEquals("abc*", Query.escapeTag("abc*"));
+	assertEquals("User1\\#test\\.org", Query.escapeTag("User1#test.org"));
+	assertEquals("caf\\\u00e9", Query.escapeTag("caf\u00e9"));
+	assertEquals("\\\ud83d\ude00", Query.escapeTag("\ud83d\ude00"));
+    }
+
+    @Test
+    void testAppendTo() {
+	Condition condition = tag("myField").in("foo bar", "baz").or(numeric("n").between(1, 2))
+		.and(text("t").term("hello").not());
+	StringBuilder builder = new StringBuilder("FT.SEARCH idx ");
+	condition.appendTo(builder);
+	assertEquals("FT.SEARCH idx " + condition.getQuery(), builder.toString());
+	assertEquals("(@myField:{foo\\ bar|baz})|(@n:[1 2]) -@t:hello", condition.getQuery());
+    }
+
+    @Test
+    void testLargeOrList() {
+	Condition[] conditions = new Condition[2000];
+	StringBuilder expected = new StringBuilder("(");
+	for (int index = 0; index < conditions.length; index++) {
+	    conditions[index] = tag("myField").in("value " + index);
+	    if (index > 0) {
+		expected.append("|");
+	    }
+	    expected.append("(@myField:{value\\ ").append(index).append("})");
+	}
+	expected.append(")");
+	assertEquals(expected.toString(), Condition.orList(conditions).getQuery());
+    }
+
     @Test
     void wildcard() {
 	assertEquals("*", Query.wildcard().getQuery());
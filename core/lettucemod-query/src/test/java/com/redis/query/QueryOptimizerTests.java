@@ -0,0 +1,81 @@
+package com.redis.query;
+
+import static com.redis.query.Query.numeric;
+import static com.redis.query.Query.tag;
+import static com.redis.query.Query.term;
+import static com.redis.query.Query.wildcard;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.redis.search.query.filter.And;
+import com.redis.search.query.filter.Condition;
+import com.redis.search.query.filter.Or;
+import com.redis.search.query.filter.OrList;
+
+class QueryOptimizerTests {
+
+    @Test
+    void mergeTagDisjunctions() {
+	Condition condition = tag("a").in("x").or(tag("a").in("y"));
+	assertEquals("@a:{x|y}", Query.optimize(condition).getQuery());
+	condition = tag("a").in("x").or(tag("b").in("z")).or(tag("a").in("y", "x"));
+	assertEquals("(@a:{x|y})|(@b:{z})", Query.optimize(condition).getQuery());
+	condition = new OrList(tag("a").in("x"), null, tag("a").in("y"), term("foo"), term("foo"));
+	assertEquals("(@a:{x|y})|(foo)", Query.optimize(condition).getQuery());
+    }
+
+    @Test
+    void mergeEscapedTagDisjunctions() {
+	Condition condition = tag("a").in(value -> value.replace("*", "\\*"), "x*").or(tag("a").in("y z"));
+	assertEquals("@a:{x\\*|y\\ z}", Query.optimize(condition).getQuery());
+    }
+
+    @Test
+    void intersectNumericIntervals() {
+	Condition condition = numeric("n").ge(1).and(numeric("n").lt(10)).and(numeric("n").gt(1));
+	assertEquals("@n:[(1 (10]", Query.optimize(condition).getQuery());
+	condition = numeric("n").between(1, 5).and(term("foo")).and(numeric("n").le(3));
+	assertEquals("@n:[1 3] foo", Query.optimize(condition).getQuery());
+    }
+
+    @Test
+    void flattenAndDeduplicate() {
+	Condition condition = new And(new And(term("a"), term("b")), new And(term("a"), term("c")));
+	assertEquals("a b c", Query.optimize(condition).getQuery());
+    }
+
+    @Test
+    void wildcards() {
+	assertEquals("@a:{x}", Query.optimize(new And(tag("a").in("x"), wildcard())).getQuery());
+	assertEquals("*", Query.optimize(new And(wildcard(), wildcard())).getQuery());
+	assertEquals("*", Query.optimize(new Or(tag("a").in("x"), wildcard())).getQuery());
+    }
+
+    @Test
+    void negations() {
+	assertEquals("@a:{x}", Query.optimize(tag("a").in("x").not().not()).getQuery());
+	assertEquals("~(x)", Query.optimize(term("x").optional().optional()).getQuery());
+	assertEquals("-@a:{x|y}", Query.optimize(tag("a").in("x").or(tag("a").in("y")).not()).getQuery());
+    }
+
+    @Test
+    void numericFilters() {
+	Condition condition = term("foo").and(numeric("p").between(1, 5)).and(numeric("q").gt(2));
+	OptimizedQuery query = QueryOptimizer.withNumericFilters().optimize(condition);
+	assertEquals("foo @q:[(2 inf]", query.getQuery());
+	List<NumericFilter> filters = query.getFilters();
+	assertEquals(1, filters.size());
+	assertEquals("p", filters.get(0).getField());
+	assertEquals(1, filters.get(0).getMin());
+	assertEquals(5, filters.get(0).getMax());
+	query = QueryOptimizer.withNumericFilters().optimize(numeric("p").ge(1));
+	assertEquals("*", query.getQuery());
+	assertEquals(Double.POSITIVE_INFINITY, query.getFilters().get(0).getMax());
+	assertTrue(QueryOptimizer.create().optimize(condition).getFilters().isEmpty());
+    }
+
+}
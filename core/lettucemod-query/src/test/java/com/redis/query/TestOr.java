@@ -13,8 +13,8 @@ public class TestOr {
 
     @BeforeEach
     public void setup() {
-        left = Mockito.mock(Condition.class);
-        right = Mockito.mock(Condition.class);
+        left = Mockito.mock(Condition.class, Mockito.CALLS_REAL_METHODS);
+        right = Mockito.mock(Condition.class, Mockito.CALLS_REAL_METHODS);
     }
 
     @Test
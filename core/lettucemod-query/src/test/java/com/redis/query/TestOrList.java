@@ -14,9 +14,9 @@ public class TestOrList {
 
     @BeforeEach
     public void setup() {
-        cond1 = Mockito.mock(Condition.class);
-        cond2 = Mockito.mock(Condition.class);
-        cond3 = Mockito.mock(Condition.class);
+        cond1 = Mockito.mock(Condition.class, Mockito.CALLS_REAL_METHODS);
+        cond2 = Mockito.mock(Condition.class, Mockito.CALLS_REAL_METHODS);
+        cond3 = Mockito.mock(Condition.class, Mockito.CALLS_REAL_METHODS);
     }
 
     @Test
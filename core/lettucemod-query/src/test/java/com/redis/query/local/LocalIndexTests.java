@@ -0,0 +1,115 @@
+package com.redis.query.local;
+
+import static com.redis.query.Query.geo;
+import static com.redis.query.Query.numeric;
+import static com.redis.query.Query.tag;
+import static com.redis.query.Query.term;
+import static com.redis.query.Query.text;
+import static com.redis.query.Query.vector;
+import static com.redis.query.Query.wildcard;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.redis.search.query.filter.Distance;
+import com.redis.search.query.filter.GeoCoordinates;
+
+class LocalIndexTests {
+
+    private LocalIndex<Map<String, String>> index;
+
+    @BeforeEach
+    void setup() {
+	index = LocalIndex.builder().tag("style").tag("codes", ';', true).numeric("abv").text("name").text("descr")
+		.geo("location").build();
+	index.put("beer:1", doc("Hoppy Pale Ale", "American IPA,Pale Ale", "A;b", "6.5", "Bitter and hoppy",
+		"-122.4194,37.7749"));
+	index.put("beer:2", doc("Dark Stout", "Stout", "a;C", "8.2", "Roasted coffee notes", "-118.2437,34.0522"));
+	index.put("beer:3", doc("Summer Lager", "Lager", "d", "4.5", "Crisp and light", "-122.2711,37.8044"));
+    }
+
+    private static Map<String, String> doc(String name, String style, String codes, String abv, String descr,
+	    String location) {
+	Map<String, String> document = new HashMap<>();
+	document.put("name", name);
+	document.put("style", style);
+	document.put("codes", codes);
+	document.put("abv", abv);
+	document.put("descr", descr);
+	document.put("location", location);
+	return document;
+    }
+
+    private static Set<String> ids(String... ids) {
+	return new HashSet<>(Arrays.asList(ids));
+    }
+
+    @Test
+    void tags() {
+	assertEquals(ids("beer:1"), index.ids(tag("style").in("pale ale")));
+	assertEquals(ids("beer:1", "beer:2"), index.ids(tag("style").in("Stout", "American IPA")));
+	assertEquals(ids("beer:1"), index.ids(tag("style").in("amer*")));
+	assertEquals(ids("beer:2"), index.ids(tag("codes").in("C")));
+	assertEquals(ids(), index.ids(tag("codes").in("c")));
+    }
+
+    @Test
+    void numerics() {
+	assertEquals(ids("beer:1", "beer:2"), index.ids(numeric("abv").gt(6)));
+	assertEquals(ids("beer:3"), index.ids(numeric("abv").lt(6.5)));
+	assertEquals(ids("beer:1"), index.ids(numeric("abv").between(6.5, 8)));
+	assertEquals(ids(), index.ids(numeric("abv").betweenExclusive(6.5, 8.2)));
+    }
+
+    @Test
+    void texts() {
+	assertEquals(ids("beer:1"), index.ids(term("hoppy")));
+	assertEquals(ids("beer:2"), index.ids(text("name").term("stout")));
+	assertEquals(ids("beer:1", "beer:2"), index.ids(text("descr").term("bitter").or("coffee")));
+	assertEquals(ids("beer:3"), index.ids(term("crisp lig*")));
+	assertEquals(ids(), index.ids(text("name").term("coffee")));
+    }
+
+    @Test
+    void geoRadius() {
+	GeoCoordinates sanFrancisco = GeoCoordinates.lon(-122.4194).lat(37.7749);
+	assertEquals(ids("beer:1"), index.ids(geo("location").within(sanFrancisco, Distance.kilometers(5))));
+	assertEquals(ids("beer:1", "beer:3"), index.ids(geo("location").within(sanFrancisco, Distance.miles(20))));
+    }
+
+    @Test
+    void composite() {
+	assertEquals(ids("beer:1", "beer:2", "beer:3"), index.ids(wildcard()));
+	assertEquals(ids("beer:2"), index.ids(numeric("abv").gt(6).and(tag("style").in("Pale Ale").not())));
+	assertEquals(ids("beer:1", "beer:3"),
+		index.ids(tag("style").in("lager").or(numeric("abv").between(6, 7))));
+	assertEquals(ids("beer:2"), index.ids(numeric("abv").gt(6).and(term("coffee").optional()).and(term("roasted"))));
+    }
+
+    @Test
+    void updates() {
+	index.put("beer:3", doc("Winter Lager", "Lager", "d", "7", "Spiced", "0,0"));
+	assertEquals(ids(), index.ids(term("summer")));
+	assertEquals(ids("beer:1", "beer:2", "beer:3"), index.ids(numeric("abv").gt(6)));
+	index.remove("beer:1");
+	assertEquals(2, index.search(wildcard()).size());
+	assertEquals(ids(), index.ids(tag("style").in("pale ale")));
+	index.clear();
+	assertEquals(ids(), index.ids(wildcard()));
+    }
+
+    @Test
+    void unsupported() {
+	assertThrows(UnsupportedOperationException.class, () -> index.ids(vector("v").knn(3, "vec")));
+	assertThrows(IllegalArgumentException.class, () -> index.ids(tag("unknown").in("x")));
+    }
+
+}
@@ -16,6 +16,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
 
 import com.redis.lettucemod.RedisModulesClient;
+import com.redis.lettucemod.RedisModulesConnectionGroup;
 import com.redis.lettucemod.RedisURIBuilder;
 import com.redis.lettucemod.api.StatefulRedisModulesConnection;
 import com.redis.lettucemod.cluster.RedisModulesClusterClient;
@@ -27,12 +28,13 @@ import io.lettuce.core.SocketOptions;
 import io.lettuce.core.TimeoutOptions;
 import io.lettuce.core.cluster.ClusterClientOptions;
 import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.codec.StringCodec;
 import io.lettuce.core.resource.ClientResources;
 import io.lettuce.core.resource.DefaultClientResources;
 import io.lettuce.core.support.ConnectionPoolSupport;
 
 @Configuration(proxyBeanMethods = false)
-@EnableConfigurationProperties(RedisProperties.class)
+@EnableConfigurationProperties({ RedisProperties.class, RedisModulesProperties.class })
 public class RedisModulesAutoConfiguration {
 
 	@Bean
@@ -132,4 +134,18 @@ public class RedisModulesAutoConfiguration {
 		return ConnectionPoolSupport.createGenericObjectPool(redisClient::connect, poolConfig);
 	}
 
+	/**
+	 * Shared connections for regular commands, enabled with
+	 * {@code lettucemod.shared.enabled=true}. The connection pool is still
+	 * available for transactions and blocking commands.
+	 */
+	@Bean(name = "redisConnectionGroup", destroyMethod = "close")
+	@ConditionalOnBean(AbstractRedisClient.class)
+	@ConditionalOnProperty(name = "lettucemod.shared.enabled", havingValue = "true")
+	RedisModulesConnectionGroup<String, String> redisConnectionGroup(RedisModulesProperties properties,
+			AbstractRedisClient client) {
+		RedisModulesProperties.Shared shared = properties.getShared();
+		return RedisModulesConnectionGroup.create(client, StringCodec.UTF8, shared.getSize(), shared.getSelection());
+	}
+
 }
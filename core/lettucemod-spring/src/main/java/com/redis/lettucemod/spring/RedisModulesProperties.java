@@ -0,0 +1,53 @@
+package com.redis.lettucemod.spring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.redis.lettucemod.RedisModulesConnectionGroup;
+import com.redis.lettucemod.RedisModulesConnectionGroup.Selection;
+
+@ConfigurationProperties(prefix = "lettucemod")
+public class RedisModulesProperties {
+
+	private final Shared shared = new Shared();
+
+	public Shared getShared() {
+		return shared;
+	}
+
+	/**
+	 * Shared multiplexed connections, used instead of borrowing from the pool for
+	 * regular commands.
+	 */
+	public static class Shared {
+
+		private boolean enabled;
+		private int size = RedisModulesConnectionGroup.DEFAULT_SIZE;
+		private Selection selection = RedisModulesConnectionGroup.DEFAULT_SELECTION;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public void setSize(int size) {
+			this.size = size;
+		}
+
+		public Selection getSelection() {
+			return selection;
+		}
+
+		public void setSelection(Selection selection) {
+			this.selection = selection;
+		}
+
+	}
+
+}
@@ -12,6 +12,8 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import com.redis.lettucemod.RedisModulesClient;
+import com.redis.lettucemod.RedisModulesConnectionGroup;
+import com.redis.lettucemod.RedisModulesConnectionGroup.Selection;
 import com.redis.lettucemod.RedisModulesUtils;
 import com.redis.lettucemod.api.StatefulRedisModulesConnection;
 import com.redis.lettucemod.cluster.RedisModulesClusterClient;
@@ -59,4 +61,21 @@ class AutoConfigurationTests {
 		});
 	}
 
+	@Test
+	void sharedConnections() {
+		this.contextRunner.withPropertyValues("lettucemod.shared.enabled:true", "lettucemod.shared.size:3",
+				"lettucemod.shared.selection:least-outstanding").run((context) -> {
+					assertThat(context).hasSingleBean(RedisModulesConnectionGroup.class);
+					RedisModulesConnectionGroup<?, ?> group = context.getBean(RedisModulesConnectionGroup.class);
+					Assertions.assertEquals(3, group.getConnections().size());
+					Assertions.assertEquals(Selection.LEAST_OUTSTANDING, group.getSelection());
+					Assertions.assertEquals("PONG", group.connection().sync().ping());
+				});
+	}
+
+	@Test
+	void sharedConnectionsDisabled() {
+		this.contextRunner.run((context) -> assertThat(context).doesNotHaveBean(RedisModulesConnectionGroup.class));
+	}
+
 }
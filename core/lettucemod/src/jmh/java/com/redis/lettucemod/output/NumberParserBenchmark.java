@@ -0,0 +1,55 @@
+package com.redis.lettucemod.output;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceStrings;
+
+/**
+ * Compares {@link NumberParser} with decoding reply bytes into a
+ * {@link String} and parsing it, as outputs did before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberParserBenchmark {
+
+	// Sample values, scores and quantiles as the modules reply them
+	@Param({ "42", "1700000000000", "3.14159", "-0.000123", "1.5e-7" })
+	private String value;
+
+	private ByteBuffer bytes;
+
+	@Setup
+	public void setup() {
+		bytes = ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Benchmark
+	public double numberParser() {
+		return NumberParser.parseDouble(bytes);
+	}
+
+	@Benchmark
+	public double decodeString() {
+		return LettuceStrings.toDouble(StringCodec.ASCII.decodeValue(bytes.duplicate()));
+	}
+
+}
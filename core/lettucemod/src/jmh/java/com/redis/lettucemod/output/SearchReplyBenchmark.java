@@ -0,0 +1,140 @@
+package com.redis.lettucemod.output;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redis.lettucemod.search.SearchResults;
+
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.protocol.RedisStateMachine;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Decodes the same {@code FT.SEARCH ... WITHSCORES} reply, in its RESP2 array
+ * and RESP3 map form, from wire bytes into {@link SearchResults}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchReplyBenchmark {
+
+	@Param({ "10", "100" })
+	private int documents;
+
+	@Param({ "5" })
+	private int fields;
+
+	private ByteBuf resp2;
+	private ByteBuf resp3;
+	private RedisStateMachine resp2Decoder;
+	private RedisStateMachine resp3Decoder;
+
+	@Setup
+	public void setup() {
+		resp2 = Unpooled.wrappedBuffer(resp2Reply().getBytes(StandardCharsets.UTF_8));
+		resp3 = Unpooled.wrappedBuffer(resp3Reply().getBytes(StandardCharsets.UTF_8));
+		resp2Decoder = new RedisStateMachine(ByteBufAllocator.DEFAULT);
+		resp3Decoder = new RedisStateMachine(ByteBufAllocator.DEFAULT);
+		resp3Decoder.setProtocolVersion(ProtocolVersion.RESP3);
+	}
+
+	@TearDown
+	public void tearDown() {
+		resp2Decoder.close();
+		resp3Decoder.close();
+	}
+
+	@Benchmark
+	public SearchResults<String, String> resp2() {
+		return decode(resp2Decoder, resp2);
+	}
+
+	@Benchmark
+	public SearchResults<String, String> resp3() {
+		return decode(resp3Decoder, resp3);
+	}
+
+	private SearchResults<String, String> decode(RedisStateMachine decoder, ByteBuf reply) {
+		SearchOutput<String, String> output = new SearchOutput<>(StringCodec.UTF8, true, false, false);
+		reply.readerIndex(0);
+		if (!decoder.decode(reply, output)) {
+			throw new IllegalStateException("Incomplete reply");
+		}
+		return output.get();
+	}
+
+	private String resp2Reply() {
+		StringBuilder reply = new StringBuilder();
+		reply.append('*').append(1 + documents * 3).append("\r\n");
+		reply.append(':').append(documents).append("\r\n");
+		for (int document = 0; document < documents; document++) {
+			bulk(reply, "doc:" + document);
+			bulk(reply, String.valueOf(score(document)));
+			reply.append('*').append(fields * 2).append("\r\n");
+			for (int field = 0; field < fields; field++) {
+				bulk(reply, "field" + field);
+				bulk(reply, "value" + document + ":" + field);
+			}
+		}
+		return reply.toString();
+	}
+
+	private String resp3Reply() {
+		StringBuilder reply = new StringBuilder();
+		reply.append("%5\r\n");
+		bulk(reply, "attributes");
+		reply.append("*0\r\n");
+		bulk(reply, "format");
+		bulk(reply, "STRING");
+		bulk(reply, "results");
+		reply.append('*').append(documents).append("\r\n");
+		for (int document = 0; document < documents; document++) {
+			reply.append("%4\r\n");
+			bulk(reply, "id");
+			bulk(reply, "doc:" + document);
+			bulk(reply, "score");
+			reply.append(',').append(score(document)).append("\r\n");
+			bulk(reply, "extra_attributes");
+			reply.append('%').append(fields).append("\r\n");
+			for (int field = 0; field < fields; field++) {
+				bulk(reply, "field" + field);
+				bulk(reply, "value" + document + ":" + field);
+			}
+			bulk(reply, "values");
+			reply.append("*0\r\n");
+		}
+		bulk(reply, "total_results");
+		reply.append(':').append(documents).append("\r\n");
+		bulk(reply, "warning");
+		reply.append("*0\r\n");
+		return reply.toString();
+	}
+
+	private static double score(int document) {
+		return 1d / (document + 1);
+	}
+
+	private static void bulk(StringBuilder reply, String value) {
+		reply.append('$').append(value.length()).append("\r\n").append(value).append("\r\n");
+	}
+
+}
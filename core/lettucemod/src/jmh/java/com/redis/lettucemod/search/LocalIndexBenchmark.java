@@ -0,0 +1,127 @@
+package com.redis.lettucemod.search;
+
+import static com.redis.query.Query.numeric;
+import static com.redis.query.Query.tag;
+import static com.redis.query.Query.text;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redis.lettucemod.RedisModulesClient;
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.sync.RedisModulesCommands;
+import com.redis.query.local.LocalIndex;
+import com.redis.search.query.filter.Condition;
+
+/**
+ * Evaluates the same conditions against a {@link LocalIndex} and with
+ * {@code FT.SEARCH} against an index of the same hashes. Needs a Redis server
+ * with RediSearch, by default on localhost, e.g.
+ * {@code -PjmhArgs="LocalIndexBenchmark -p uri=redis://host:6379"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalIndexBenchmark {
+
+	private static final String INDEX = "benchmark:local-index";
+
+	private static final String PREFIX = "benchmark:local-index:";
+
+	private static final String[] STYLES = { "Lager", "Pale Ale", "Stout", "Porter", "Wheat" };
+
+	@Param({ "redis://localhost:6379" })
+	private String uri;
+
+	@Param({ "1000", "10000" })
+	private int documents;
+
+	@Param({ "tag", "range", "text" })
+	private String query;
+
+	private RedisModulesClient client;
+	private StatefulRedisModulesConnection<String, String> connection;
+	private LocalIndex<Map<String, String>> index;
+	private Condition condition;
+	private String queryString;
+	private SearchOptions<String, String> options;
+
+	@Setup(Level.Trial)
+	public void setup() throws InterruptedException {
+		client = RedisModulesClient.create(uri);
+		connection = client.connect();
+		RedisModulesCommands<String, String> sync = connection.sync();
+		if (sync.ftList().contains(INDEX)) {
+			sync.ftDropindexDeleteDocs(INDEX);
+		}
+		sync.ftCreate(INDEX, CreateOptions.<String, String>builder().prefix(PREFIX).build(),
+				Field.tag("style").build(), Field.numeric("abv").build(), Field.text("name").build());
+		index = LocalIndex.builder().tag("style").numeric("abv").text("name").build();
+		for (int id = 0; id < documents; id++) {
+			Map<String, String> document = new HashMap<>();
+			document.put("style", STYLES[id % STYLES.length]);
+			document.put("abv", String.valueOf(3 + id % 100 / 10d));
+			document.put("name", "Beer " + id + " " + STYLES[id % STYLES.length]);
+			sync.hset(PREFIX + id, document);
+			index.put(PREFIX + id, document);
+		}
+		while (RedisModulesUtils.indexInfo(sync.ftInfo(INDEX)).getNumDocs() < documents) {
+			Thread.sleep(10);
+		}
+		condition = condition(query);
+		queryString = condition.getQuery();
+		// Returns every match, as the local index does
+		options = SearchOptions.<String, String>builder().limit(0, documents).build();
+	}
+
+	private static Condition condition(String query) {
+		switch (query) {
+		case "tag":
+			return tag("style").in("Stout");
+		case "range":
+			return tag("style").in("Lager", "Wheat").and(numeric("abv").between(5, 7));
+		case "text":
+			return text("name").term("porter");
+		default:
+			throw new IllegalArgumentException("Unknown query: " + query);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		connection.sync().ftDropindexDeleteDocs(INDEX);
+		connection.close();
+		client.shutdown();
+	}
+
+	@Benchmark
+	public List<Map<String, String>> localIndex() {
+		return index.search(condition);
+	}
+
+	@Benchmark
+	public SearchResults<String, String> ftSearch() {
+		return connection.sync().ftSearch(INDEX, queryString, options);
+	}
+
+}
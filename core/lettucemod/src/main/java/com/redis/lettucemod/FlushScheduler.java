@@ -0,0 +1,125 @@
+package com.redis.lettucemod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Lifecycle of a client-side buffer flushed to Redis in the background: runs
+ * its periodic and triggered tasks on a scheduler, either supplied or owned,
+ * and optionally closes it from a JVM shutdown hook.
+ */
+public class FlushScheduler {
+
+	private final ScheduledExecutorService scheduler;
+	private final boolean ownScheduler;
+	private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+	private final Thread shutdownHook;
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	/**
+	 *
+	 * @param builder builder holding the scheduler and shutdown hook options
+	 * @param name    name of the owned scheduler thread
+	 * @param close   closes the buffer, called by the shutdown hook
+	 */
+	public FlushScheduler(Builder<?> builder, String name, Runnable close) {
+		this.ownScheduler = builder.scheduler == null;
+		this.scheduler = ownScheduler ? Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		}) : builder.scheduler;
+		if (builder.shutdownHook) {
+			this.shutdownHook = new Thread(close, name + "-shutdown");
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+		} else {
+			this.shutdownHook = null;
+		}
+	}
+
+	public synchronized void schedule(Runnable task, Duration initialDelay, Duration period) {
+		tasks.add(scheduler.scheduleAtFixedRate(task, initialDelay.toNanos(), period.toNanos(),
+				TimeUnit.NANOSECONDS));
+	}
+
+	public void execute(Runnable task) {
+		scheduler.execute(task);
+	}
+
+	/**
+	 *
+	 * @param message the exception message
+	 * @throws IllegalStateException if this scheduler is closed
+	 */
+	public void assertOpen(String message) {
+		LettuceAssert.assertState(!closed.get(), message);
+	}
+
+	/**
+	 * Cancels scheduled tasks, shuts down the owned scheduler and removes the
+	 * shutdown hook.
+	 *
+	 * @return false if this scheduler was already closed
+	 */
+	public synchronized boolean close() {
+		if (!closed.compareAndSet(false, true)) {
+			return false;
+		}
+		tasks.forEach(task -> task.cancel(false));
+		if (ownScheduler) {
+			scheduler.shutdown();
+		}
+		if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// JVM is shutting down
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static class Builder<B extends Builder<B>> {
+
+		private ScheduledExecutorService scheduler;
+		private boolean shutdownHook;
+
+		/**
+		 *
+		 * @param scheduler executor running the flushes. It is not shut down on
+		 *                  close. By default a daemon thread owned by the buffer is
+		 *                  used.
+		 * @return this builder
+		 */
+		public B scheduler(ScheduledExecutorService scheduler) {
+			this.scheduler = scheduler;
+			return (B) this;
+		}
+
+		/**
+		 * Registers a JVM shutdown hook that closes the buffer, flushing what it
+		 * holds.
+		 *
+		 * @return this builder
+		 */
+		public B shutdownHook() {
+			return shutdownHook(true);
+		}
+
+		public B shutdownHook(boolean shutdownHook) {
+			this.shutdownHook = shutdownHook;
+			return (B) this;
+		}
+
+	}
+
+}
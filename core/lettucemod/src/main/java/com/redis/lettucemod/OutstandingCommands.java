@@ -0,0 +1,33 @@
+package com.redis.lettucemod;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.lettuce.core.protocol.CompleteableCommand;
+import io.lettuce.core.protocol.RedisCommand;
+
+/**
+ * Counts the commands that were dispatched on a connection and have not
+ * completed yet.
+ */
+public class OutstandingCommands {
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * Increments the count until the given command completes, successfully or
+	 * not. Commands that cannot notify of their completion are not counted.
+	 *
+	 * @param command the dispatched command
+	 */
+	public void track(RedisCommand<?, ?, ?> command) {
+		if (command instanceof CompleteableCommand) {
+			count.incrementAndGet();
+			((CompleteableCommand<?>) command).onComplete((result, error) -> count.decrementAndGet());
+		}
+	}
+
+	public int get() {
+		return count.get();
+	}
+
+}
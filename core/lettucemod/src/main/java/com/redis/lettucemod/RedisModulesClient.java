@@ -3,6 +3,7 @@ package com.redis.lettucemod;
 import java.time.Duration;
 
 import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.protocol.RedisModulesReadOnlyCommands;
 
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.RedisChannelWriter;
@@ -47,6 +48,12 @@ import io.lettuce.core.resource.ClientResources;
  */
 public class RedisModulesClient extends RedisClient {
 
+	/**
+	 * Protocol version of module clients unless configured otherwise. Module
+	 * command outputs read both RESP2 and RESP3 replies, so clients can be switched
+	 * to RESP3 with {@link #defaultClientOptions(ClientOptions.Builder, ProtocolVersion)}
+	 * or {@link RedisModulesClientBuilder#protocolVersion(ProtocolVersion)}.
+	 */
 	public static final ProtocolVersion DEFAULT_PROTOCOL_VERSION = ProtocolVersion.RESP2;
 
 	public static final ClientOptions DEFAULT_CLIENT_OPTIONS = defaultClientOptions(ClientOptions.builder()).build();
@@ -57,7 +64,13 @@ public class RedisModulesClient extends RedisClient {
 	}
 
 	public static <B extends ClientOptions.Builder> B defaultClientOptions(B builder) {
-		builder.protocolVersion(DEFAULT_PROTOCOL_VERSION);
+		return defaultClientOptions(builder, DEFAULT_PROTOCOL_VERSION);
+	}
+
+	public static <B extends ClientOptions.Builder> B defaultClientOptions(B builder,
+			ProtocolVersion protocolVersion) {
+		builder.protocolVersion(protocolVersion);
+		builder.readOnlyCommands(RedisModulesReadOnlyCommands.asPredicate());
 		return builder;
 	}
 
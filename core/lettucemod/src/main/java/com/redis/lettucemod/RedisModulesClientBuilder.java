@@ -6,6 +6,7 @@ import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
 import io.lettuce.core.resource.ClientResources;
 
 public class RedisModulesClientBuilder {
@@ -14,8 +15,10 @@ public class RedisModulesClientBuilder {
 	private boolean cluster;
 	private ClientOptions options;
 	private ClientResources resources;
+	private ProtocolVersion protocolVersion;
 
 	public AbstractRedisClient build() {
+		ClientOptions options = options();
 		if (cluster) {
 			RedisModulesClusterClient client = resources == null ? RedisModulesClusterClient.create(uri)
 					: RedisModulesClusterClient.create(resources, uri);
@@ -32,6 +35,22 @@ public class RedisModulesClientBuilder {
 		return client;
 	}
 
+	private ClientOptions options() {
+		if (protocolVersion == null) {
+			return options;
+		}
+		if (options == null) {
+			if (cluster) {
+				return RedisModulesClient.defaultClientOptions(ClusterClientOptions.builder(), protocolVersion).build();
+			}
+			return RedisModulesClient.defaultClientOptions(ClientOptions.builder(), protocolVersion).build();
+		}
+		if (options instanceof ClusterClientOptions) {
+			return ((ClusterClientOptions) options).mutate().protocolVersion(protocolVersion).build();
+		}
+		return options.mutate().protocolVersion(protocolVersion).build();
+	}
+
 	public RedisModulesClientBuilder uri(RedisURI uri) {
 		this.uri = uri;
 		return this;
@@ -52,4 +71,15 @@ public class RedisModulesClientBuilder {
 		return this;
 	}
 
+	/**
+	 *
+	 * @param protocolVersion protocol version overriding the one of the client
+	 *                        options, e.g. {@link ProtocolVersion#RESP3}
+	 * @return this builder
+	 */
+	public RedisModulesClientBuilder protocolVersion(ProtocolVersion protocolVersion) {
+		this.protocolVersion = protocolVersion;
+		return this;
+	}
+
 }
@@ -0,0 +1,150 @@
+package com.redis.lettucemod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.cluster.StatefulRedisModulesClusterConnectionImpl;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Fixed set of connections shared by all callers. Lettuce connections are
+ * thread-safe and multiplex concurrent commands, so a few shared connections
+ * can replace a pool without borrow/return overhead and with far fewer
+ * sockets.
+ * <p>
+ * Connections handed out by {@link #connection()} must not be used for
+ * transactions, blocking commands or to disable auto-flush since those change
+ * the state of the connection for every other caller. Use a dedicated or pooled
+ * connection for these.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class RedisModulesConnectionGroup<K, V> implements AutoCloseable {
+
+	public static final int DEFAULT_SIZE = 2;
+
+	public static final Selection DEFAULT_SELECTION = Selection.ROUND_ROBIN;
+
+	public enum Selection {
+
+		/**
+		 * Connections are used in turn.
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * The connection with the fewest commands awaiting a reply is used.
+		 */
+		LEAST_OUTSTANDING
+
+	}
+
+	private final List<StatefulRedisModulesConnection<K, V>> connections;
+	private final Selection selection;
+	private final AtomicInteger next = new AtomicInteger();
+
+	private RedisModulesConnectionGroup(List<StatefulRedisModulesConnection<K, V>> connections, Selection selection) {
+		this.connections = connections;
+		this.selection = selection;
+	}
+
+	public static RedisModulesConnectionGroup<String, String> create(AbstractRedisClient client) {
+		return create(client, StringCodec.UTF8);
+	}
+
+	public static <K, V> RedisModulesConnectionGroup<K, V> create(AbstractRedisClient client, RedisCodec<K, V> codec) {
+		return create(client, codec, DEFAULT_SIZE, DEFAULT_SELECTION);
+	}
+
+	public static <K, V> RedisModulesConnectionGroup<K, V> create(AbstractRedisClient client, RedisCodec<K, V> codec,
+			int size, Selection selection) {
+		return create(() -> RedisModulesUtils.connection(client, codec), size, selection);
+	}
+
+	public static <K, V> RedisModulesConnectionGroup<K, V> create(
+			Supplier<? extends StatefulRedisModulesConnection<K, V>> supplier, int size, Selection selection) {
+		LettuceAssert.notNull(supplier, "Connection supplier must not be null");
+		LettuceAssert.isTrue(size > 0, "Size must be greater than 0");
+		LettuceAssert.notNull(selection, "Selection must not be null");
+		List<StatefulRedisModulesConnection<K, V>> connections = new ArrayList<>(size);
+		try {
+			for (int index = 0; index < size; index++) {
+				StatefulRedisModulesConnection<K, V> connection = supplier.get();
+				trackOutstandingCommands(connection);
+				connections.add(connection);
+			}
+		} catch (RuntimeException e) {
+			connections.forEach(StatefulRedisModulesConnection::close);
+			throw e;
+		}
+		return new RedisModulesConnectionGroup<>(Collections.unmodifiableList(connections), selection);
+	}
+
+	private static void trackOutstandingCommands(StatefulRedisModulesConnection<?, ?> connection) {
+		if (connection instanceof StatefulRedisModulesConnectionImpl) {
+			((StatefulRedisModulesConnectionImpl<?, ?>) connection).trackOutstandingCommands();
+		} else if (connection instanceof StatefulRedisModulesClusterConnectionImpl) {
+			((StatefulRedisModulesClusterConnectionImpl<?, ?>) connection).trackOutstandingCommands();
+		}
+	}
+
+	/**
+	 *
+	 * @return one of the shared connections, chosen according to this group's
+	 *         {@link Selection}
+	 */
+	public StatefulRedisModulesConnection<K, V> connection() {
+		int start = Math.floorMod(next.getAndIncrement(), connections.size());
+		if (selection == Selection.ROUND_ROBIN) {
+			return connections.get(start);
+		}
+		// Start from a rotating index so that ties are spread across connections
+		StatefulRedisModulesConnection<K, V> leastLoaded = connections.get(start);
+		int leastOutstanding = leastLoaded.getOutstandingCommands();
+		for (int offset = 1; offset < connections.size() && leastOutstanding > 0; offset++) {
+			StatefulRedisModulesConnection<K, V> connection = connections.get((start + offset) % connections.size());
+			int outstanding = connection.getOutstandingCommands();
+			if (outstanding < leastOutstanding) {
+				leastLoaded = connection;
+				leastOutstanding = outstanding;
+			}
+		}
+		return leastLoaded;
+	}
+
+	public List<StatefulRedisModulesConnection<K, V>> getConnections() {
+		return connections;
+	}
+
+	public Selection getSelection() {
+		return selection;
+	}
+
+	/**
+	 *
+	 * @return number of commands awaiting a reply across all connections of this
+	 *         group
+	 */
+	public int getOutstandingCommands() {
+		int outstanding = 0;
+		for (StatefulRedisModulesConnection<K, V> connection : connections) {
+			outstanding += connection.getOutstandingCommands();
+		}
+		return outstanding;
+	}
+
+	@Override
+	public void close() {
+		connections.forEach(StatefulRedisModulesConnection::close);
+	}
+
+}
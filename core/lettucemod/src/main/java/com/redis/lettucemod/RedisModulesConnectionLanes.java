@@ -0,0 +1,208 @@
+package com.redis.lettucemod;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.redis.lettucemod.RedisModulesConnectionGroup.Selection;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.protocol.SearchCommandType;
+import com.redis.lettucemod.protocol.TimeSeriesCommandType;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.protocol.RedisCommand;
+
+/**
+ * Routes commands to separate lanes of shared connections based on their type,
+ * so that slow commands like {@code FT.AGGREGATE} or {@code TS.MRANGE} do not
+ * hold up fast ones like {@code TS.ADD} or {@code BF.EXISTS} queued behind them
+ * on the same socket.
+ * <p>
+ * A command type is routed to the lane registered for that exact type, then to
+ * the lane registered for its {@link ProtocolKeyword} class (e.g.
+ * {@link SearchCommandType}), and otherwise to the default lane. Within a lane
+ * the connection with the fewest outstanding commands is used.
+ * <p>
+ * As with {@link RedisModulesConnectionGroup}, connections are shared and must
+ * not be used for transactions or blocking commands.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class RedisModulesConnectionLanes<K, V> implements AutoCloseable {
+
+	public static final String DEFAULT_LANE = "default";
+
+	public static final String HEAVY_LANE = "heavy";
+
+	private static final ProtocolKeyword[] HEAVY_TYPES = { SearchCommandType.SEARCH, SearchCommandType.AGGREGATE,
+			SearchCommandType.CURSOR, TimeSeriesCommandType.MRANGE, TimeSeriesCommandType.MREVRANGE };
+
+	private final Map<String, RedisModulesConnectionGroup<K, V>> lanes;
+	private final Map<ProtocolKeyword, RedisModulesConnectionGroup<K, V>> typeRoutes;
+	private final Map<Class<?>, RedisModulesConnectionGroup<K, V>> classRoutes;
+	private final RedisModulesConnectionGroup<K, V> defaultLane;
+
+	private RedisModulesConnectionLanes(Builder<K, V> builder, Map<String, RedisModulesConnectionGroup<K, V>> lanes) {
+		this.lanes = Collections.unmodifiableMap(lanes);
+		this.typeRoutes = new HashMap<>();
+		builder.typeRoutes.forEach((type, lane) -> typeRoutes.put(type, lanes.get(lane)));
+		this.classRoutes = new HashMap<>();
+		builder.classRoutes.forEach((type, lane) -> classRoutes.put(type, lanes.get(lane)));
+		this.defaultLane = lanes.get(DEFAULT_LANE);
+	}
+
+	/**
+	 *
+	 * @param type the type of the command to be sent
+	 * @return the least loaded connection of the lane the given command type is
+	 *         routed to
+	 */
+	public StatefulRedisModulesConnection<K, V> connection(ProtocolKeyword type) {
+		return lane(type).connection();
+	}
+
+	/**
+	 * Dispatches the given command on a connection of the lane its type is routed
+	 * to.
+	 *
+	 * @param <T>     Command output type.
+	 * @param command the command to dispatch
+	 * @return the dispatched command
+	 */
+	public <T> RedisCommand<K, V, T> dispatch(RedisCommand<K, V, T> command) {
+		return connection(command.getType()).dispatch(command);
+	}
+
+	public RedisModulesConnectionGroup<K, V> lane(ProtocolKeyword type) {
+		RedisModulesConnectionGroup<K, V> lane = typeRoutes.get(type);
+		if (lane != null) {
+			return lane;
+		}
+		lane = classRoutes.get(keywordClass(type));
+		if (lane != null) {
+			return lane;
+		}
+		return defaultLane;
+	}
+
+	private static Class<?> keywordClass(ProtocolKeyword type) {
+		if (type instanceof Enum) {
+			return ((Enum<?>) type).getDeclaringClass();
+		}
+		return type.getClass();
+	}
+
+	public RedisModulesConnectionGroup<K, V> lane(String name) {
+		RedisModulesConnectionGroup<K, V> lane = lanes.get(name);
+		LettuceAssert.notNull(lane, "Unknown lane: " + name);
+		return lane;
+	}
+
+	public Set<String> getLaneNames() {
+		return lanes.keySet();
+	}
+
+	/**
+	 *
+	 * @param name the lane name
+	 * @return number of commands awaiting a reply on the connections of the given
+	 *         lane
+	 */
+	public int getOutstandingCommands(String name) {
+		return lane(name).getOutstandingCommands();
+	}
+
+	@Override
+	public void close() {
+		lanes.values().forEach(RedisModulesConnectionGroup::close);
+	}
+
+	public static Builder<String, String> builder(AbstractRedisClient client) {
+		return builder(client, StringCodec.UTF8);
+	}
+
+	public static <K, V> Builder<K, V> builder(AbstractRedisClient client, RedisCodec<K, V> codec) {
+		return new Builder<>(client, codec);
+	}
+
+	public static class Builder<K, V> {
+
+		private final AbstractRedisClient client;
+		private final RedisCodec<K, V> codec;
+		private final Map<String, Integer> lanes = new LinkedHashMap<>();
+		private final Map<ProtocolKeyword, String> typeRoutes = new HashMap<>();
+		private final Map<Class<?>, String> classRoutes = new HashMap<>();
+
+		private Builder(AbstractRedisClient client, RedisCodec<K, V> codec) {
+			LettuceAssert.notNull(client, "Client must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			this.client = client;
+			this.codec = codec;
+			this.lanes.put(DEFAULT_LANE, RedisModulesConnectionGroup.DEFAULT_SIZE);
+		}
+
+		/**
+		 * Declares a lane or changes the number of connections of an existing one,
+		 * including the {@value RedisModulesConnectionLanes#DEFAULT_LANE} lane.
+		 *
+		 * @param name name of the lane
+		 * @param size number of connections in the lane
+		 * @return this builder
+		 */
+		public Builder<K, V> lane(String name, int size) {
+			LettuceAssert.notNull(name, "Lane name must not be null");
+			LettuceAssert.isTrue(size > 0, "Size must be greater than 0");
+			lanes.put(name, size);
+			return this;
+		}
+
+		/**
+		 * Declares the {@value RedisModulesConnectionLanes#HEAVY_LANE} lane and routes
+		 * search, aggregate, cursor and multi-range commands to it.
+		 *
+		 * @param size number of connections in the lane
+		 * @return this builder
+		 */
+		public Builder<K, V> heavyLane(int size) {
+			return lane(HEAVY_LANE, size).route(HEAVY_LANE, HEAVY_TYPES);
+		}
+
+		public Builder<K, V> route(String lane, ProtocolKeyword... types) {
+			Arrays.stream(types).forEach(t -> typeRoutes.put(t, lane));
+			return this;
+		}
+
+		public Builder<K, V> route(String lane, Class<? extends ProtocolKeyword> type) {
+			classRoutes.put(type, lane);
+			return this;
+		}
+
+		public RedisModulesConnectionLanes<K, V> build() {
+			typeRoutes.values().forEach(this::assertLane);
+			classRoutes.values().forEach(this::assertLane);
+			Map<String, RedisModulesConnectionGroup<K, V>> groups = new LinkedHashMap<>();
+			try {
+				lanes.forEach((name, size) -> groups.put(name,
+						RedisModulesConnectionGroup.create(client, codec, size, Selection.LEAST_OUTSTANDING)));
+			} catch (RuntimeException e) {
+				groups.values().forEach(RedisModulesConnectionGroup::close);
+				throw e;
+			}
+			return new RedisModulesConnectionLanes<>(this, groups);
+		}
+
+		private void assertLane(String lane) {
+			LettuceAssert.isTrue(lanes.containsKey(lane), "Unknown lane: " + lane);
+		}
+
+	}
+
+}
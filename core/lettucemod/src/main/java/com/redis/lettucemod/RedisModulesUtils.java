@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
@@ -36,6 +37,9 @@ import com.redis.lettucemod.search.TextField;
 import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.ReadFrom;
 import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandInterruptedException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisException;
 import io.lettuce.core.RedisFuture;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.codec.StringCodec;
@@ -129,6 +133,10 @@ public class RedisModulesUtils {
 		indexInfo.setOffsetBitsPerRecordAvg(getDouble(map.get("offset_bits_per_record_avg")));
 		indexInfo.setGcStats((List<Object>) map.get("gc_stats"));
 		indexInfo.setCursorStats((List<Object>) map.get("cursor_stats"));
+		Long indexing = toLong(map, "indexing");
+		indexInfo.setIndexing(indexing == null ? null : indexing != 0);
+		indexInfo.setPercentIndexed(getDouble(map.get("percent_indexed")));
+		indexInfo.setHashIndexingFailures(toLong(map, "hash_indexing_failures"));
 		return indexInfo;
 	}
 
@@ -268,8 +276,44 @@ public class RedisModulesUtils {
 		return getLong(map.get(key));
 	}
 
+	/**
+	 * Escapes every non-alphanumeric character of the given tag value with a
+	 * backslash. Returns the value itself when nothing needs to be escaped.
+	 * 
+	 * @param value the tag value to escape
+	 * @return escaped tag value
+	 */
 	public static String escapeTag(String value) {
-		return value.replaceAll("([^a-zA-Z0-9])", "\\\\$1");
+		int length = value.length();
+		int index = 0;
+		while (index < length && isAlphanumeric(value.charAt(index))) {
+			index++;
+		}
+		if (index == length) {
+			return value;
+		}
+		StringBuilder builder = new StringBuilder(length + 16);
+		builder.append(value, 0, index);
+		int start = index;
+		for (; index < length; index++) {
+			char c = value.charAt(index);
+			if (isAlphanumeric(c)) {
+				continue;
+			}
+			builder.append(value, start, index).append('\\');
+			start = index;
+			if (Character.isHighSurrogate(c) && index + 1 < length
+					&& Character.isLowSurrogate(value.charAt(index + 1))) {
+				// Escape the code point once, not each of its surrogates
+				index++;
+			}
+		}
+		builder.append(value, start, length);
+		return builder.toString();
+	}
+
+	private static boolean isAlphanumeric(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
 	}
 
 	public static String toString(InputStream inputStream, Charset charset) throws IOException {
@@ -362,4 +406,51 @@ public class RedisModulesUtils {
 		return items;
 	}
 
+	/**
+	 * Waits for all futures like {@link #getAll(Duration, Iterable)} and throws
+	 * the exceptions of synchronous commands on failure.
+	 *
+	 * @param timeout maximum time to wait for all futures, negative to wait
+	 *                without limit
+	 * @param futures the futures to wait for
+	 * @return results of the futures, in order
+	 */
+	public static <T> List<T> awaitAll(Duration timeout, Iterable<RedisFuture<T>> futures) {
+		try {
+			return getAll(timeout, futures);
+		} catch (TimeoutException | InterruptedException | ExecutionException e) {
+			throw commandException(e);
+		}
+	}
+
+	/**
+	 * Waits for a future and throws the exceptions of synchronous commands on
+	 * failure.
+	 *
+	 * @param timeout maximum time to wait, negative to wait without limit
+	 * @param future  the future to wait for
+	 * @return result of the future
+	 */
+	public static <T> T await(Duration timeout, Future<T> future) {
+		try {
+			if (timeout.isNegative()) {
+				return future.get();
+			}
+			return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException | InterruptedException | ExecutionException e) {
+			throw commandException(e);
+		}
+	}
+
+	private static RedisException commandException(Exception e) {
+		if (e instanceof TimeoutException) {
+			return new RedisCommandTimeoutException(e.getMessage());
+		}
+		if (e instanceof InterruptedException) {
+			Thread.currentThread().interrupt();
+			return new RedisCommandInterruptedException(e);
+		}
+		return new RedisCommandExecutionException(e.getCause());
+	}
+
 }
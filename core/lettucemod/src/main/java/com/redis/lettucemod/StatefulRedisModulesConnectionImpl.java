@@ -1,6 +1,7 @@
 package com.redis.lettucemod;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.function.Supplier;
 
 import com.redis.lettucemod.api.StatefulRedisModulesConnection;
@@ -16,6 +17,7 @@ import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.json.JsonParser;
 import io.lettuce.core.protocol.ConnectionWatchdog;
 import io.lettuce.core.protocol.PushHandler;
+import io.lettuce.core.protocol.RedisCommand;
 
 /**
  * A thread-safe connection to a Redis server. Multiple threads may share one
@@ -31,6 +33,8 @@ import io.lettuce.core.protocol.PushHandler;
 public class StatefulRedisModulesConnectionImpl<K, V> extends StatefulRedisConnectionImpl<K, V>
 		implements StatefulRedisModulesConnection<K, V> {
 
+	private volatile OutstandingCommands outstandingCommands;
+
 	/**
 	 * Initialize a new connection.
 	 *
@@ -102,4 +106,39 @@ public class StatefulRedisModulesConnectionImpl<K, V> extends StatefulRedisConne
 		return (RedisModulesReactiveCommands<K, V>) super.reactive();
 	}
 
+	/**
+	 * Starts counting the commands dispatched on this connection that have not
+	 * completed yet, e.g. for {@link RedisModulesConnectionGroup} to select the
+	 * least loaded connection. Commands are not counted by default.
+	 */
+	public void trackOutstandingCommands() {
+		if (outstandingCommands == null) {
+			outstandingCommands = new OutstandingCommands();
+		}
+	}
+
+	@Override
+	public <T> RedisCommand<K, V, T> dispatch(RedisCommand<K, V, T> command) {
+		OutstandingCommands tracker = outstandingCommands;
+		if (tracker != null) {
+			tracker.track(command);
+		}
+		return super.dispatch(command);
+	}
+
+	@Override
+	public Collection<RedisCommand<K, V, ?>> dispatch(Collection<? extends RedisCommand<K, V, ?>> commands) {
+		OutstandingCommands tracker = outstandingCommands;
+		if (tracker != null) {
+			commands.forEach(tracker::track);
+		}
+		return super.dispatch(commands);
+	}
+
+	@Override
+	public int getOutstandingCommands() {
+		OutstandingCommands tracker = outstandingCommands;
+		return tracker == null ? 0 : tracker.get();
+	}
+
 }
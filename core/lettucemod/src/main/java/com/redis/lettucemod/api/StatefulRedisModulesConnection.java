@@ -12,4 +12,14 @@ public interface StatefulRedisModulesConnection<K, V> extends StatefulRedisConne
 	RedisModulesAsyncCommands<K, V> async();
 
 	RedisModulesReactiveCommands<K, V> reactive();
+
+	/**
+	 *
+	 * @return number of commands dispatched on this connection that have not
+	 *         completed yet, or 0 if they are not tracked. Connections of a
+	 *         {@link com.redis.lettucemod.RedisModulesConnectionGroup} track them.
+	 */
+	default int getOutstandingCommands() {
+		return 0;
+	}
 }
@@ -0,0 +1,42 @@
+package com.redis.lettucemod.bloom;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.lettuce.core.RedisCommandExecutionException;
+
+/**
+ * Thrown when some items of a batch could not be recorded because the filter
+ * they were added to is full. The other items of the batch were processed and
+ * their results are available from {@link #getResults()}.
+ */
+@SuppressWarnings("serial")
+public class FilterFullException extends RedisCommandExecutionException {
+
+	private final transient List<Boolean> results;
+	private final transient List<Integer> unrecorded;
+
+	public FilterFullException(String message, List<Boolean> results, List<Integer> unrecorded) {
+		super(message);
+		this.results = Collections.unmodifiableList(results);
+		this.unrecorded = Collections.unmodifiableList(unrecorded);
+	}
+
+	/**
+	 *
+	 * @return for each item of the batch, the result it would have had without
+	 *         the error, or null if the item was not recorded
+	 */
+	public List<Boolean> getResults() {
+		return results;
+	}
+
+	/**
+	 *
+	 * @return positions in the batch of the items that were not recorded
+	 */
+	public List<Integer> getUnrecorded() {
+		return unrecorded;
+	}
+
+}
@@ -0,0 +1,404 @@
+package com.redis.lettucemod.bloom;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.redis.lettucemod.FlushScheduler;
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisBloomAsyncCommands;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.Value;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * Heavy-hitter detection in front of a {@code TOPK} sketch shared by many
+ * nodes. Each node counts items in a local space-saving sketch holding a fixed
+ * number of candidates and flushes the increments of its candidates every
+ * flush period with batched {@code TOPK.INCRBY} commands, instead of sending
+ * one command per event.
+ * <p>
+ * The global top-k list is fetched with {@code TOPK.LIST WITHCOUNT} every
+ * refresh period and kept as a snapshot, so {@link #getTopK()} is a memory
+ * read. Items evicted from the local sketch before a flush are not heavy
+ * hitters on this node and their pending increments are dropped. The
+ * {@code TOPK} key must have been created with {@code TOPK.RESERVE}.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class HeavyHitters<K, V> implements AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 1000;
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	public static final Duration DEFAULT_FLUSH_PERIOD = Duration.ofSeconds(1);
+
+	public static final Duration DEFAULT_REFRESH_PERIOD = Duration.ofSeconds(1);
+
+	private static final InternalLogger log = InternalLoggerFactory.getInstance(HeavyHitters.class);
+
+	private final StatefulRedisModulesConnection<K, V> connection;
+	private final RedisCodec<K, V> codec;
+	private final K key;
+	private final int batchSize;
+	private final Sketch<V> sketch;
+	private final FlushScheduler flushScheduler;
+	private final AtomicLong failedFlushes = new AtomicLong();
+	private volatile List<KeyValue<String, Long>> topK = Collections.emptyList();
+
+	private HeavyHitters(Builder<K, V> builder) {
+		this.connection = builder.connection;
+		this.codec = builder.codec;
+		this.key = builder.key;
+		this.batchSize = builder.batchSize;
+		this.sketch = new Sketch<>(builder.capacity);
+		this.flushScheduler = new FlushScheduler(builder, "lettucemod-heavy-hitters", this::close);
+		flushScheduler.schedule(this::scheduledFlush, builder.flushPeriod, builder.flushPeriod);
+		flushScheduler.schedule(this::scheduledRefresh, Duration.ZERO, builder.refreshPeriod);
+	}
+
+	public void add(V item) {
+		add(item, 1);
+	}
+
+	/**
+	 * Counts an item in the local sketch. If the sketch is full and the item is
+	 * not a candidate, it replaces the candidate with the lowest count.
+	 *
+	 * @param item      the item to count
+	 * @param increment the number of occurrences
+	 */
+	public void add(V item, long increment) {
+		flushScheduler.assertOpen("Heavy hitters are closed");
+		LettuceAssert.isTrue(increment > 0, "Increment must be greater than 0");
+		ByteBuffer id = codec.encodeValue(item);
+		synchronized (sketch) {
+			sketch.add(id, item, increment);
+		}
+	}
+
+	/**
+	 *
+	 * @return global top-k items and their counts, by descending count, as of the
+	 *         last refresh
+	 */
+	public List<KeyValue<String, Long>> getTopK() {
+		return topK;
+	}
+
+	/**
+	 *
+	 * @return local candidates and their estimated counts, by descending count
+	 */
+	public List<LongScoredValue<V>> getCandidates() {
+		synchronized (sketch) {
+			return sketch.candidates();
+		}
+	}
+
+	/**
+	 *
+	 * @return number of {@code TOPK.INCRBY} commands that failed since creation
+	 */
+	public long getFailedFlushes() {
+		return failedFlushes.get();
+	}
+
+	private void scheduledFlush() {
+		try {
+			flushAsync();
+		} catch (RuntimeException e) {
+			log.warn("Could not flush increments", e);
+		}
+	}
+
+	private void scheduledRefresh() {
+		try {
+			refreshAsync();
+		} catch (RuntimeException e) {
+			log.warn("Could not refresh top-k list", e);
+		}
+	}
+
+	/**
+	 * Sends the pending increments of local candidates with {@code TOPK.INCRBY}
+	 * commands of at most the batch size.
+	 *
+	 * @return a future completing when all commands have completed
+	 */
+	@SuppressWarnings("unchecked")
+	public CompletableFuture<Void> flushAsync() {
+		List<LongScoredValue<V>> increments;
+		synchronized (sketch) {
+			increments = sketch.drain();
+		}
+		RedisBloomAsyncCommands<K, V> async = connection.async();
+		List<CompletableFuture<List<Value<V>>>> futures = new ArrayList<>();
+		for (int from = 0; from < increments.size(); from += batchSize) {
+			List<LongScoredValue<V>> batch = increments.subList(from, Math.min(from + batchSize, increments.size()));
+			futures.add(async.topKIncrBy(key, batch.toArray(new LongScoredValue[0])).toCompletableFuture()
+					.whenComplete((r, e) -> {
+						if (e != null) {
+							failedFlushes.incrementAndGet();
+							log.warn("Could not flush {} increments for key {}", batch.size(), key, e);
+						}
+					}));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+
+	/**
+	 * Fetches the global top-k list and replaces the snapshot returned by
+	 * {@link #getTopK()}.
+	 *
+	 * @return a future completing with the new snapshot
+	 */
+	public CompletableFuture<List<KeyValue<String, Long>>> refreshAsync() {
+		return connection.async().topKListWithScores(key).toCompletableFuture().thenApply(list -> {
+			List<KeyValue<String, Long>> snapshot = Collections.unmodifiableList(list);
+			topK = snapshot;
+			return snapshot;
+		});
+	}
+
+	/**
+	 * Flushes pending increments and waits for the commands to complete.
+	 */
+	public void flush() {
+		RedisModulesUtils.await(connection.getTimeout(), flushAsync());
+	}
+
+	/**
+	 * Fetches the global top-k list and waits for the snapshot to be replaced.
+	 *
+	 * @return the new snapshot
+	 */
+	public List<KeyValue<String, Long>> refresh() {
+		return RedisModulesUtils.await(connection.getTimeout(), refreshAsync());
+	}
+
+	/**
+	 * Stops scheduled flushes and refreshes and flushes pending increments.
+	 */
+	@Override
+	public void close() {
+		if (flushScheduler.close()) {
+			flush();
+		}
+	}
+
+	/**
+	 * Space-saving sketch whose candidates are kept in a binary min-heap ordered
+	 * by count, so counting an item and replacing the candidate with the lowest
+	 * count take logarithmic time. Counts and pending increments are held in
+	 * primitive arrays indexed by candidate slot.
+	 */
+	private static class Sketch<V> {
+
+		private final Map<ByteBuffer, Integer> slots;
+		private final ByteBuffer[] ids;
+		private final Object[] items;
+		private final long[] counts;
+		private final long[] pending;
+		// Slots ordered as a min-heap by count, and the heap position of each slot
+		private final int[] heap;
+		private final int[] positions;
+		private int size;
+
+		Sketch(int capacity) {
+			this.slots = new HashMap<>(capacity * 2);
+			this.ids = new ByteBuffer[capacity];
+			this.items = new Object[capacity];
+			this.counts = new long[capacity];
+			this.pending = new long[capacity];
+			this.heap = new int[capacity];
+			this.positions = new int[capacity];
+		}
+
+		void add(ByteBuffer id, V item, long increment) {
+			Integer slot = slots.get(id);
+			if (slot != null) {
+				increment(slot, increment);
+				return;
+			}
+			if (size < counts.length) {
+				slot = size;
+				heap[size] = slot;
+				positions[slot] = size;
+				size++;
+				counts[slot] = increment;
+				pending[slot] = increment;
+				siftUp(positions[slot]);
+			} else {
+				// Replace the candidate with the lowest count, whose count becomes the
+				// error bound of the new candidate
+				slot = heap[0];
+				slots.remove(ids[slot]);
+				pending[slot] = 0;
+				increment(slot, increment);
+			}
+			slots.put(id, slot);
+			ids[slot] = id;
+			items[slot] = item;
+		}
+
+		private void increment(int slot, long increment) {
+			counts[slot] += increment;
+			pending[slot] += increment;
+			siftDown(positions[slot]);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<LongScoredValue<V>> drain() {
+			List<LongScoredValue<V>> increments = new ArrayList<>();
+			for (int slot = 0; slot < size; slot++) {
+				if (pending[slot] > 0) {
+					increments.add(LongScoredValue.just(pending[slot], (V) items[slot]));
+					pending[slot] = 0;
+				}
+			}
+			return increments;
+		}
+
+		@SuppressWarnings("unchecked")
+		List<LongScoredValue<V>> candidates() {
+			List<LongScoredValue<V>> candidates = new ArrayList<>(size);
+			for (int slot = 0; slot < size; slot++) {
+				candidates.add(LongScoredValue.just(counts[slot], (V) items[slot]));
+			}
+			candidates.sort((c1, c2) -> Long.compare(c2.getScore(), c1.getScore()));
+			return candidates;
+		}
+
+		private void siftUp(int position) {
+			while (position > 0) {
+				int parent = (position - 1) / 2;
+				if (counts[heap[parent]] <= counts[heap[position]]) {
+					return;
+				}
+				swap(position, parent);
+				position = parent;
+			}
+		}
+
+		private void siftDown(int position) {
+			while (true) {
+				int smallest = position;
+				int left = 2 * position + 1;
+				int right = left + 1;
+				if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+					smallest = left;
+				}
+				if (right < size && counts[heap[right]] < counts[heap[smallest]]) {
+					smallest = right;
+				}
+				if (smallest == position) {
+					return;
+				}
+				swap(position, smallest);
+				position = smallest;
+			}
+		}
+
+		private void swap(int position1, int position2) {
+			int slot = heap[position1];
+			heap[position1] = heap[position2];
+			heap[position2] = slot;
+			positions[heap[position1]] = position1;
+			positions[heap[position2]] = position2;
+		}
+
+	}
+
+	public static Builder<String, String> builder(StatefulRedisModulesConnection<String, String> connection,
+			String key) {
+		return builder(connection, StringCodec.UTF8, key);
+	}
+
+	public static <K, V> Builder<K, V> builder(StatefulRedisModulesConnection<K, V> connection,
+			RedisCodec<K, V> codec, K key) {
+		return new Builder<>(connection, codec, key);
+	}
+
+	public static class Builder<K, V> extends FlushScheduler.Builder<Builder<K, V>> {
+
+		private final StatefulRedisModulesConnection<K, V> connection;
+		private final RedisCodec<K, V> codec;
+		private final K key;
+		private int capacity = DEFAULT_CAPACITY;
+		private int batchSize = DEFAULT_BATCH_SIZE;
+		private Duration flushPeriod = DEFAULT_FLUSH_PERIOD;
+		private Duration refreshPeriod = DEFAULT_REFRESH_PERIOD;
+
+		private Builder(StatefulRedisModulesConnection<K, V> connection, RedisCodec<K, V> codec, K key) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			LettuceAssert.notNull(key, "Key must not be null");
+			this.connection = connection;
+			this.codec = codec;
+			this.key = key;
+		}
+
+		/**
+		 *
+		 * @param capacity number of candidates tracked by the local sketch, typically
+		 *                 several times the k of the {@code TOPK} key
+		 * @return this builder
+		 */
+		public Builder<K, V> capacity(int capacity) {
+			LettuceAssert.isTrue(capacity > 0, "Capacity must be greater than 0");
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param batchSize maximum number of items per {@code TOPK.INCRBY} command
+		 * @return this builder
+		 */
+		public Builder<K, V> batchSize(int batchSize) {
+			LettuceAssert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		public Builder<K, V> flushPeriod(Duration flushPeriod) {
+			LettuceAssert.isTrue(flushPeriod != null && !flushPeriod.isNegative() && !flushPeriod.isZero(),
+					"Flush period must be positive");
+			this.flushPeriod = flushPeriod;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param refreshPeriod how often the global top-k list is fetched
+		 * @return this builder
+		 */
+		public Builder<K, V> refreshPeriod(Duration refreshPeriod) {
+			LettuceAssert.isTrue(refreshPeriod != null && !refreshPeriod.isNegative() && !refreshPeriod.isZero(),
+					"Refresh period must be positive");
+			this.refreshPeriod = refreshPeriod;
+			return this;
+		}
+
+		public HeavyHitters<K, V> build() {
+			return new HeavyHitters<>(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,499 @@
+package com.redis.lettucemod.bloom;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Bloom filter partitioned over a fixed number of non-scaling {@code BF} keys.
+ * Items are assigned to a shard by a hash of their encoded value, so shard keys
+ * spread over cluster slots and each filter keeps a predictable lookup cost
+ * instead of stacking sub-filters as a scaling filter does.
+ * <p>
+ * With a window, filters are bucketed by time: items are added to the filters
+ * of the current window and looked up in the filters of the last
+ * {@code generations} windows, and filters expire once they leave that range.
+ * Filters of a new window are sized from the number of items inserted into the
+ * previous window, so capacity follows the load.
+ * <p>
+ * Within a window, a shard whose filter reaches the fill threshold rotates to a
+ * new sub-filter, so a load above the expected capacity adds filters instead of
+ * failing once a non-scaling filter is full. Items are added to the last
+ * sub-filter of their shard and looked up in all of them. Sub-filters created by
+ * other clients are discovered by lookups and by the item count that
+ * {@code BF.CARD} returns with each insertion. A batch holding more items for a
+ * shard than the room left below its fill threshold can still fill a filter.
+ * <p>
+ * Lookups and insertions take a single pipelined round: one {@code BF.MEXISTS}
+ * or {@code BF.INSERT} per shard (and window) holding items of the batch.
+ *
+ * @param <V> Value type.
+ */
+public class PartitionedBloomFilter<V> {
+
+	public static final int DEFAULT_SHARDS = 16;
+
+	public static final long DEFAULT_CAPACITY = 1000000;
+
+	public static final double DEFAULT_ERROR_RATE = .001;
+
+	public static final int DEFAULT_GENERATIONS = 2;
+
+	public static final double DEFAULT_HEADROOM = 1.25;
+
+	public static final double DEFAULT_FILL_THRESHOLD = .9;
+
+	// Error of BF.INFO for a key that does not exist
+	private static final String NOT_FOUND = "not found";
+
+	private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+	private static final int FNV_PRIME = 0x01000193;
+
+	private final StatefulRedisModulesConnection<String, V> connection;
+	private final RedisCodec<String, V> codec;
+	private final String name;
+	private final int shards;
+	private final long shardCapacity;
+	private final double errorRate;
+	private final long window;
+	private final int generations;
+	private final double headroom;
+	private final double fillThreshold;
+	private final Map<Long, Generation> activeGenerations = new ConcurrentHashMap<>();
+	// Number of sub-filters known to exist for each shard of a window
+	private final Map<Long, AtomicIntegerArray> filterCounts = new ConcurrentHashMap<>();
+
+	private PartitionedBloomFilter(Builder<V> builder) {
+		this.connection = builder.connection;
+		this.codec = builder.codec;
+		this.name = builder.name;
+		this.shards = builder.shards;
+		this.shardCapacity = Math.max(1, builder.capacity / builder.shards);
+		this.errorRate = builder.errorRate;
+		this.window = builder.window == null ? 0 : builder.window.toMillis();
+		this.generations = builder.window == null ? 1 : builder.generations;
+		this.headroom = builder.headroom;
+		this.fillThreshold = builder.fillThreshold;
+	}
+
+	/**
+	 * Adds the given items to the filters of the current window.
+	 *
+	 * @param items items to add
+	 * @return for each item, true if it was added and false if it may already
+	 *         have been present
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Boolean> add(V... items) {
+		long id = currentGeneration();
+		Generation generation = generation(id);
+		AtomicIntegerArray filters = filters(id);
+		List<List<Integer>> positions = partition(items);
+		RedisModulesAsyncCommands<String, V> async = connection.async();
+		List<Integer> insertShards = new ArrayList<>();
+		List<Integer> insertFilters = new ArrayList<>();
+		List<RedisFuture<List<Boolean>>> insertFutures = new ArrayList<>();
+		List<RedisFuture<Long>> cardFutures = new ArrayList<>();
+		List<RedisFuture<List<Boolean>>> previousFutures = new ArrayList<>();
+		List<Integer> previousShards = new ArrayList<>();
+		for (int shard = 0; shard < shards; shard++) {
+			if (positions.get(shard).isEmpty()) {
+				continue;
+			}
+			V[] shardItems = items(items, positions.get(shard));
+			int filter = filters.get(shard) - 1;
+			// Items of previous sub-filters are present even if the last one adds them
+			for (int previous = 0; previous < filter; previous++) {
+				previousFutures.add(async.bfMExists(key(id, shard, previous), shardItems));
+				previousShards.add(shard);
+			}
+			String key = key(id, shard, filter);
+			insertFutures.add(async.bfInsert(key, generation.options, shardItems));
+			cardFutures.add(async.bfCard(key));
+			insertShards.add(shard);
+			insertFilters.add(filter);
+			int expiring = generation.expiring.get(shard);
+			if (window > 0 && expiring <= filter && generation.expiring.compareAndSet(shard, expiring, filter + 1)) {
+				async.pexpireat(key, (id + generations) * window);
+			}
+		}
+		Boolean[] added = new Boolean[items.length];
+		List<List<Boolean>> inserted = RedisModulesUtils.awaitAll(connection.getTimeout(), insertFutures);
+		List<Long> cards = RedisModulesUtils.awaitAll(connection.getTimeout(), cardFutures);
+		for (int index = 0; index < inserted.size(); index++) {
+			int shard = insertShards.get(index);
+			List<Integer> shardPositions = positions.get(shard);
+			for (int position = 0; position < shardPositions.size(); position++) {
+				added[shardPositions.get(position)] = inserted.get(index).get(position);
+			}
+			if (cards.get(index) >= generation.rotationThreshold) {
+				int filter = insertFilters.get(index);
+				filters.compareAndSet(shard, filter + 1, filter + 2);
+			}
+		}
+		List<List<Boolean>> previous = RedisModulesUtils.awaitAll(connection.getTimeout(), previousFutures);
+		for (int index = 0; index < previous.size(); index++) {
+			List<Integer> shardPositions = positions.get(previousShards.get(index));
+			for (int position = 0; position < shardPositions.size(); position++) {
+				if (Boolean.TRUE.equals(previous.get(index).get(position))) {
+					added[shardPositions.get(position)] = false;
+				}
+			}
+		}
+		return Arrays.asList(added);
+	}
+
+	/**
+	 * Looks up the given items in the filters of the active windows.
+	 *
+	 * @param items items to look up
+	 * @return for each item, true if it may have been added in one of the active
+	 *         windows and false if it was definitely not
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Boolean> exists(V... items) {
+		long current = currentGeneration();
+		List<List<Integer>> positions = partition(items);
+		Boolean[] exists = new Boolean[items.length];
+		Arrays.fill(exists, Boolean.FALSE);
+		// Sub-filters of each window and shard not looked up yet, from the first one
+		List<long[]> lookups = new ArrayList<>();
+		for (long id = current; id > current - generations; id--) {
+			for (int shard = 0; shard < shards; shard++) {
+				if (!positions.get(shard).isEmpty()) {
+					lookups.add(new long[] { id, shard, 0 });
+				}
+			}
+		}
+		RedisModulesAsyncCommands<String, V> async = connection.async();
+		while (!lookups.isEmpty()) {
+			List<RedisFuture<List<Boolean>>> futures = new ArrayList<>();
+			List<List<Integer>> futurePositions = new ArrayList<>();
+			List<RedisFuture<Long>> probes = new ArrayList<>();
+			List<int[]> probeFilters = new ArrayList<>();
+			for (long[] lookup : lookups) {
+				long id = lookup[0];
+				int shard = (int) lookup[1];
+				int count = filters(id).get(shard);
+				V[] shardItems = items(items, positions.get(shard));
+				for (int filter = (int) lookup[2]; filter < count; filter++) {
+					futures.add(async.bfMExists(key(id, shard, filter), shardItems));
+					futurePositions.add(positions.get(shard));
+				}
+				// Sub-filter rotated to by another client
+				probes.add(async.exists(key(id, shard, count)));
+				probeFilters.add(new int[] { shard, count });
+			}
+			List<List<Boolean>> results = RedisModulesUtils.awaitAll(connection.getTimeout(), futures);
+			for (int index = 0; index < results.size(); index++) {
+				List<Integer> shardPositions = futurePositions.get(index);
+				for (int position = 0; position < shardPositions.size(); position++) {
+					if (Boolean.TRUE.equals(results.get(index).get(position))) {
+						exists[shardPositions.get(position)] = true;
+					}
+				}
+			}
+			List<Long> probed = RedisModulesUtils.awaitAll(connection.getTimeout(), probes);
+			List<long[]> next = new ArrayList<>();
+			for (int index = 0; index < probed.size(); index++) {
+				if (probed.get(index) > 0) {
+					long id = lookups.get(index)[0];
+					int[] probe = probeFilters.get(index);
+					filters(id).accumulateAndGet(probe[0], probe[1] + 1, Math::max);
+					next.add(new long[] { id, probe[0], probe[1] });
+				}
+			}
+			lookups = next;
+		}
+		return Arrays.asList(exists);
+	}
+
+	/**
+	 *
+	 * @return highest ratio of inserted items to capacity among the filters
+	 *         items of the current window are added to
+	 */
+	public double fillRatio() {
+		RedisModulesAsyncCommands<String, V> async = connection.async();
+		List<RedisFuture<BloomFilterInfo>> futures = new ArrayList<>();
+		for (String key : currentKeys()) {
+			futures.add(async.bfInfo(key));
+		}
+		double ratio = 0;
+		for (RedisFuture<BloomFilterInfo> future : futures) {
+			BloomFilterInfo info = getIfExists(future);
+			if (info != null && info.getCapacity() > 0) {
+				ratio = Math.max(ratio, (double) info.getNumInserted() / info.getCapacity());
+			}
+		}
+		return ratio;
+	}
+
+	/**
+	 *
+	 * @return keys of the filters items of the current window are added to, one
+	 *         per shard
+	 */
+	public List<String> currentKeys() {
+		long id = currentGeneration();
+		AtomicIntegerArray filters = filters(id);
+		List<String> keys = new ArrayList<>(shards);
+		for (int shard = 0; shard < shards; shard++) {
+			keys.add(key(id, shard, filters.get(shard) - 1));
+		}
+		return keys;
+	}
+
+	private long currentGeneration() {
+		return window == 0 ? 0 : System.currentTimeMillis() / window;
+	}
+
+	private String key(long generation, int shard, int filter) {
+		String key = window == 0 ? name + ":" + shard : name + ":" + generation + ":" + shard;
+		if (filter == 0) {
+			return key;
+		}
+		return key + ":" + filter;
+	}
+
+	private Generation generation(long id) {
+		Generation generation = activeGenerations.get(id);
+		if (generation == null) {
+			activeGenerations.keySet().removeIf(g -> g <= id - generations);
+			filterCounts.keySet().removeIf(g -> g <= id - generations);
+			long capacity = capacity(id);
+			generation = new Generation(options(capacity), (long) Math.ceil(capacity * fillThreshold), shards);
+			Generation existing = activeGenerations.putIfAbsent(id, generation);
+			if (existing != null) {
+				return existing;
+			}
+		}
+		return generation;
+	}
+
+	private long capacity(long id) {
+		if (window == 0) {
+			return shardCapacity;
+		}
+		AtomicIntegerArray filters = filters(id - 1);
+		RedisModulesAsyncCommands<String, V> async = connection.async();
+		List<List<RedisFuture<Long>>> futures = new ArrayList<>();
+		for (int shard = 0; shard < shards; shard++) {
+			List<RedisFuture<Long>> shardFutures = new ArrayList<>();
+			for (int filter = 0; filter < filters.get(shard); filter++) {
+				shardFutures.add(async.bfInfo(key(id - 1, shard, filter), BloomFilterInfoType.ITEMS));
+			}
+			futures.add(shardFutures);
+		}
+		long items = 0;
+		for (List<RedisFuture<Long>> shardFutures : futures) {
+			long shardItems = 0;
+			for (RedisFuture<Long> future : shardFutures) {
+				Long filterItems = getIfExists(future);
+				if (filterItems != null) {
+					shardItems += filterItems;
+				}
+			}
+			items = Math.max(items, shardItems);
+		}
+		return Math.max(shardCapacity, (long) Math.ceil(items * headroom));
+	}
+
+	private AtomicIntegerArray filters(long id) {
+		return filterCounts.computeIfAbsent(id, g -> {
+			AtomicIntegerArray filters = new AtomicIntegerArray(shards);
+			for (int shard = 0; shard < shards; shard++) {
+				filters.set(shard, 1);
+			}
+			return filters;
+		});
+	}
+
+	private BloomFilterInsertOptions options(long capacity) {
+		return BloomFilterInsertOptions.builder().capacity(capacity).error(errorRate).nonScaling(true).build();
+	}
+
+	private List<List<Integer>> partition(V[] items) {
+		List<List<Integer>> positions = new ArrayList<>(shards);
+		for (int shard = 0; shard < shards; shard++) {
+			positions.add(new ArrayList<>());
+		}
+		for (int index = 0; index < items.length; index++) {
+			positions.get(shard(items[index])).add(index);
+		}
+		return positions;
+	}
+
+	private int shard(V item) {
+		ByteBuffer bytes = codec.encodeValue(item);
+		int hash = FNV_OFFSET_BASIS;
+		for (int index = bytes.position(); index < bytes.limit(); index++) {
+			hash ^= bytes.get(index) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return Math.floorMod(hash, shards);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V[] items(V[] items, List<Integer> positions) {
+		Object[] shardItems = new Object[positions.size()];
+		for (int index = 0; index < shardItems.length; index++) {
+			shardItems[index] = items[positions.get(index)];
+		}
+		return (V[]) shardItems;
+	}
+
+	private <T> T getIfExists(RedisFuture<T> future) {
+		try {
+			return RedisModulesUtils.await(connection.getTimeout(), future);
+		} catch (RedisCommandExecutionException e) {
+			Throwable error = e.getCause() == null ? e : e.getCause();
+			if (error.getMessage() != null && error.getMessage().endsWith(NOT_FOUND)) {
+				// Filter does not exist yet
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	private static class Generation {
+
+		private final BloomFilterInsertOptions options;
+		// Number of items above which a shard rotates to a new sub-filter
+		private final long rotationThreshold;
+		// Number of sub-filters of each shard whose expiry was set
+		private final AtomicIntegerArray expiring;
+
+		private Generation(BloomFilterInsertOptions options, long rotationThreshold, int shards) {
+			this.options = options;
+			this.rotationThreshold = rotationThreshold;
+			this.expiring = new AtomicIntegerArray(shards);
+		}
+
+	}
+
+	public static Builder<String> builder(StatefulRedisModulesConnection<String, String> connection, String name) {
+		return builder(connection, StringCodec.UTF8, name);
+	}
+
+	public static <V> Builder<V> builder(StatefulRedisModulesConnection<String, V> connection,
+			RedisCodec<String, V> codec, String name) {
+		return new Builder<>(connection, codec, name);
+	}
+
+	public static class Builder<V> {
+
+		private final StatefulRedisModulesConnection<String, V> connection;
+		private final RedisCodec<String, V> codec;
+		private final String name;
+		private int shards = DEFAULT_SHARDS;
+		private long capacity = DEFAULT_CAPACITY;
+		private double errorRate = DEFAULT_ERROR_RATE;
+		private Duration window;
+		private int generations = DEFAULT_GENERATIONS;
+		private double headroom = DEFAULT_HEADROOM;
+		private double fillThreshold = DEFAULT_FILL_THRESHOLD;
+
+		private Builder(StatefulRedisModulesConnection<String, V> connection, RedisCodec<String, V> codec,
+				String name) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			LettuceAssert.notEmpty(name, "Name must not be empty");
+			this.connection = connection;
+			this.codec = codec;
+			this.name = name;
+		}
+
+		public Builder<V> shards(int shards) {
+			LettuceAssert.isTrue(shards > 0, "Shards must be greater than 0");
+			this.shards = shards;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param capacity expected number of items, per window if any, spread over
+		 *                 the shards
+		 * @return this builder
+		 */
+		public Builder<V> capacity(long capacity) {
+			LettuceAssert.isTrue(capacity > 0, "Capacity must be greater than 0");
+			this.capacity = capacity;
+			return this;
+		}
+
+		public Builder<V> errorRate(double errorRate) {
+			LettuceAssert.isTrue(errorRate > 0 && errorRate < 1, "Error rate must be between 0 and 1");
+			this.errorRate = errorRate;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param window duration of the time buckets filters are rotated by
+		 * @return this builder
+		 */
+		public Builder<V> window(Duration window) {
+			LettuceAssert.isTrue(window != null && window.toMillis() > 0, "Window must be at least 1 millisecond");
+			this.window = window;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param generations number of windows items are looked up in, including the
+		 *                    current one
+		 * @return this builder
+		 */
+		public Builder<V> generations(int generations) {
+			LettuceAssert.isTrue(generations > 0, "Generations must be greater than 0");
+			this.generations = generations;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param headroom factor applied to the number of items of the previous
+		 *                 window to size the filters of a new window
+		 * @return this builder
+		 */
+		public Builder<V> headroom(double headroom) {
+			LettuceAssert.isTrue(headroom >= 1, "Headroom must be at least 1");
+			this.headroom = headroom;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param fillThreshold ratio of inserted items to capacity above which a
+		 *                      shard rotates to a new sub-filter
+		 * @return this builder
+		 */
+		public Builder<V> fillThreshold(double fillThreshold) {
+			LettuceAssert.isTrue(fillThreshold > 0 && fillThreshold <= 1, "Fill threshold must be between 0 and 1");
+			this.fillThreshold = fillThreshold;
+			return this;
+		}
+
+		public PartitionedBloomFilter<V> build() {
+			return new PartitionedBloomFilter<>(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,364 @@
+package com.redis.lettucemod.bloom;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.redis.lettucemod.FlushScheduler;
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
+
+import io.lettuce.core.internal.LettuceAssert;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * Quantile monitor for latency SLOs backed by one t-digest per key, e.g. per
+ * endpoint. Observations are buffered locally per key and, every interval,
+ * written to a staging digest private to the flush and merged into the key
+ * with {@code TDIGEST.MERGE}, one pipelined batch for all keys.
+ * <p>
+ * In the same interval the monitored quantiles, and the CDF at the monitored
+ * thresholds, are read for every key with one pipelined batch of
+ * {@code TDIGEST.QUANTILE} and {@code TDIGEST.CDF} commands and kept as
+ * snapshots, so {@link #getSnapshot(String)} never reads from Redis.
+ * Observations whose merge fails are lost.
+ */
+public class QuantileMonitor implements AutoCloseable {
+
+	public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+	public static final long DEFAULT_COMPRESSION = 100;
+
+	public static final int DEFAULT_BUFFER_SIZE = 10000;
+
+	private static final double[] DEFAULT_QUANTILES = { .5, .9, .99 };
+
+	private static final InternalLogger log = InternalLoggerFactory.getInstance(QuantileMonitor.class);
+
+	private final StatefulRedisModulesConnection<String, String> connection;
+	private final double[] quantiles;
+	private final double[] thresholds;
+	private final long compression;
+	private final TDigestMergeOptions mergeOptions;
+	private final int bufferSize;
+	private final String stagingSuffix = ":staging:" + UUID.randomUUID();
+	private final AtomicLong flushes = new AtomicLong();
+	private final FlushScheduler flushScheduler;
+	private final Set<String> keys = ConcurrentHashMap.newKeySet();
+	private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+	private final Map<String, QuantileSnapshot> snapshots = new ConcurrentHashMap<>();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final AtomicLong failedFlushes = new AtomicLong();
+
+	private QuantileMonitor(Builder builder) {
+		this.connection = builder.connection;
+		this.quantiles = builder.quantiles;
+		this.thresholds = builder.thresholds;
+		this.compression = builder.compression;
+		this.mergeOptions = TDigestMergeOptions.builder().compression(builder.compression).build();
+		this.bufferSize = builder.bufferSize;
+		this.keys.addAll(builder.keys);
+		this.flushScheduler = new FlushScheduler(builder, "lettucemod-quantile-monitor", this::close);
+		flushScheduler.schedule(this::scheduledUpdate, Duration.ZERO, builder.interval);
+	}
+
+	/**
+	 * Buffers an observation, e.g. a latency in milliseconds. A full buffer
+	 * triggers a flush without waiting for the next interval.
+	 *
+	 * @param key   the t-digest key
+	 * @param value the observed value
+	 */
+	public void record(String key, double value) {
+		flushScheduler.assertOpen("Monitor is closed");
+		if (!samples.containsKey(key)) {
+			keys.add(key);
+		}
+		int size = samples.computeIfAbsent(key, k -> new Samples()).add(value);
+		if (size >= bufferSize && flushRequested.compareAndSet(false, true)) {
+			flushScheduler.execute(this::scheduledFlush);
+		}
+	}
+
+	/**
+	 *
+	 * @param key the t-digest key
+	 * @return the last snapshot of the key, or null if none was taken yet
+	 */
+	public QuantileSnapshot getSnapshot(String key) {
+		return snapshots.get(key);
+	}
+
+	/**
+	 *
+	 * @return the last snapshot of every key
+	 */
+	public Map<String, QuantileSnapshot> getSnapshots() {
+		return Collections.unmodifiableMap(snapshots);
+	}
+
+	/**
+	 *
+	 * @return number of {@code TDIGEST.MERGE} commands that failed since creation
+	 */
+	public long getFailedFlushes() {
+		return failedFlushes.get();
+	}
+
+	private void scheduledUpdate() {
+		scheduledFlush();
+		try {
+			refreshAsync();
+		} catch (RuntimeException e) {
+			log.warn("Could not refresh quantiles", e);
+		}
+	}
+
+	private void scheduledFlush() {
+		flushRequested.set(false);
+		try {
+			flushAsync();
+		} catch (RuntimeException e) {
+			log.warn("Could not flush observations", e);
+		}
+	}
+
+	/**
+	 * Merges the buffered observations of every key into its t-digest. The
+	 * observations are added to a staging digest in the slot of the key, merged
+	 * and the staging digest deleted, all pipelined. Each flush uses its own
+	 * staging digests, so overlapping flushes do not merge or delete each other's
+	 * observations.
+	 *
+	 * @return a future completing when all merges have completed
+	 */
+	public CompletableFuture<Void> flushAsync() {
+		long flush = flushes.incrementAndGet();
+		RedisModulesAsyncCommands<String, String> async = connection.async();
+		List<CompletableFuture<String>> futures = new ArrayList<>();
+		for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+			double[] values = entry.getValue().drain();
+			if (values.length == 0) {
+				continue;
+			}
+			String key = entry.getKey();
+			String stagingKey = stagingKey(key, flush);
+			async.tDigestCreate(stagingKey, compression);
+			async.tDigestAdd(stagingKey, values);
+			futures.add(async.tDigestMerge(key, mergeOptions, stagingKey).toCompletableFuture()
+					.whenComplete((r, e) -> {
+						if (e != null) {
+							failedFlushes.incrementAndGet();
+							log.warn("Could not merge {} observations into key {}", values.length, key, e);
+						}
+					}));
+			async.unlink(stagingKey);
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+
+	/**
+	 * Reads the monitored quantiles and CDF values of every key and replaces
+	 * their snapshots.
+	 *
+	 * @return a future completing when all snapshots have been replaced
+	 */
+	public CompletableFuture<Void> refreshAsync() {
+		RedisModulesAsyncCommands<String, String> async = connection.async();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (String key : keys) {
+			CompletableFuture<List<Double>> quantileValues = async.tDigestQuantile(key, quantiles)
+					.toCompletableFuture();
+			CompletableFuture<List<Double>> cdfValues = thresholds.length == 0
+					? CompletableFuture.completedFuture(Collections.emptyList())
+					: async.tDigestCdf(key, thresholds).toCompletableFuture();
+			futures.add(quantileValues
+					.thenCombine(cdfValues, (q, c) -> new QuantileSnapshot(quantiles, q, thresholds, c))
+					.thenAccept(snapshot -> snapshots.put(key, snapshot)).whenComplete((r, e) -> {
+						if (e != null) {
+							// Key has no digest yet unless the error is transient
+							log.debug("Could not read quantiles of key {}", key, e);
+						}
+					}));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+
+	/**
+	 * Merges buffered observations and waits for the commands to complete.
+	 */
+	public void flush() {
+		RedisModulesUtils.await(connection.getTimeout(), flushAsync());
+	}
+
+	/**
+	 * Replaces the snapshots of every key and waits for the commands to complete.
+	 */
+	public void refresh() {
+		RedisModulesUtils.await(connection.getTimeout(), refreshAsync());
+	}
+
+	/**
+	 * Staging keys share the hash tag of the key, or the key itself as hash tag,
+	 * so that merges do not cross slots.
+	 */
+	private String stagingKey(String key, long flush) {
+		String suffix = stagingSuffix + ":" + flush;
+		int start = key.indexOf('{');
+		if (start >= 0) {
+			int end = key.indexOf('}', start + 1);
+			if (end > start + 1) {
+				return key + suffix;
+			}
+		}
+		return "{" + key + "}" + suffix;
+	}
+
+	/**
+	 * Stops scheduled updates and merges buffered observations.
+	 */
+	@Override
+	public void close() {
+		if (flushScheduler.close()) {
+			flush();
+		}
+	}
+
+	private static class Samples {
+
+		private static final double[] EMPTY = new double[0];
+
+		private double[] values = new double[16];
+		private int size;
+
+		synchronized int add(double value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+			return size;
+		}
+
+		synchronized double[] drain() {
+			if (size == 0) {
+				return EMPTY;
+			}
+			double[] drained = Arrays.copyOf(values, size);
+			size = 0;
+			return drained;
+		}
+
+	}
+
+	public static Builder builder(StatefulRedisModulesConnection<String, String> connection) {
+		return new Builder(connection);
+	}
+
+	public static class Builder extends FlushScheduler.Builder<Builder> {
+
+		private final StatefulRedisModulesConnection<String, String> connection;
+		private final Set<String> keys = new LinkedHashSet<>();
+		private double[] quantiles = DEFAULT_QUANTILES;
+		private double[] thresholds = new double[0];
+		private Duration interval = DEFAULT_INTERVAL;
+		private long compression = DEFAULT_COMPRESSION;
+		private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+		private Builder(StatefulRedisModulesConnection<String, String> connection) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			this.connection = connection;
+		}
+
+		/**
+		 *
+		 * @param keys keys to take snapshots of even if no observation is recorded
+		 *             for them, e.g. on dashboard nodes
+		 * @return this builder
+		 */
+		public Builder keys(String... keys) {
+			LettuceAssert.noNullElements(keys, "Keys must not be null");
+			this.keys.addAll(Arrays.asList(keys));
+			return this;
+		}
+
+		/**
+		 *
+		 * @param quantiles quantiles to take snapshots of, between 0 and 1
+		 * @return this builder
+		 */
+		public Builder quantiles(double... quantiles) {
+			LettuceAssert.isTrue(quantiles != null && quantiles.length > 0, "At least one quantile is required");
+			for (double quantile : quantiles) {
+				LettuceAssert.isTrue(quantile >= 0 && quantile <= 1, "Quantiles must be between 0 and 1");
+			}
+			this.quantiles = quantiles.clone();
+			return this;
+		}
+
+		/**
+		 *
+		 * @param thresholds values, e.g. latency targets, at which to take snapshots
+		 *                   of the CDF
+		 * @return this builder
+		 */
+		public Builder thresholds(double... thresholds) {
+			LettuceAssert.notNull(thresholds, "Thresholds must not be null");
+			this.thresholds = thresholds.clone();
+			return this;
+		}
+
+		/**
+		 *
+		 * @param interval how often observations are merged and snapshots taken
+		 * @return this builder
+		 */
+		public Builder interval(Duration interval) {
+			LettuceAssert.isTrue(interval != null && !interval.isNegative() && !interval.isZero(),
+					"Interval must be positive");
+			this.interval = interval;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param compression compression of the staging digests and of the digests
+		 *                    created by merges
+		 * @return this builder
+		 */
+		public Builder compression(long compression) {
+			LettuceAssert.isTrue(compression > 0, "Compression must be greater than 0");
+			this.compression = compression;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param bufferSize number of buffered observations of a key above which a
+		 *                   flush is triggered without waiting for the next interval
+		 * @return this builder
+		 */
+		public Builder bufferSize(int bufferSize) {
+			LettuceAssert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
+			this.bufferSize = bufferSize;
+			return this;
+		}
+
+		public QuantileMonitor build() {
+			return new QuantileMonitor(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.redis.lettucemod.bloom;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quantiles and cumulative distribution values of a t-digest, as read by one
+ * {@code TDIGEST.QUANTILE} and one {@code TDIGEST.CDF} command.
+ */
+public class QuantileSnapshot {
+
+	private final Map<Double, Double> quantiles;
+	private final Map<Double, Double> cdf;
+	private final long timestamp;
+
+	public QuantileSnapshot(double[] quantiles, List<Double> quantileValues, double[] thresholds,
+			List<Double> cdfValues) {
+		this.quantiles = map(quantiles, quantileValues);
+		this.cdf = map(thresholds, cdfValues);
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	private static Map<Double, Double> map(double[] keys, List<Double> values) {
+		Map<Double, Double> map = new LinkedHashMap<>();
+		for (int index = 0; index < keys.length && index < values.size(); index++) {
+			map.put(keys[index], values.get(index));
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 *
+	 * @return estimated value of each quantile
+	 */
+	public Map<Double, Double> getQuantiles() {
+		return quantiles;
+	}
+
+	/**
+	 *
+	 * @param quantile a quantile of the monitor, e.g. 0.99
+	 * @return the estimated value of the quantile, or null if it is not monitored
+	 */
+	public Double getQuantile(double quantile) {
+		return quantiles.get(quantile);
+	}
+
+	/**
+	 *
+	 * @return estimated fraction of observations less than or equal to each
+	 *         threshold
+	 */
+	public Map<Double, Double> getCdf() {
+		return cdf;
+	}
+
+	/**
+	 *
+	 * @param threshold a threshold of the monitor, e.g. a latency target
+	 * @return the estimated fraction of observations less than or equal to the
+	 *         threshold, or null if it is not monitored
+	 */
+	public Double getCdf(double threshold) {
+		return cdf.get(threshold);
+	}
+
+	/**
+	 *
+	 * @return time in milliseconds at which the snapshot was taken
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+}
@@ -0,0 +1,272 @@
+package com.redis.lettucemod.bloom;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Sliding-window deduplication with one Cuckoo filter per time bucket. The
+ * window is split into buckets; an item is a duplicate if it is in the filter
+ * of the current bucket or of one of the previous buckets covering the window.
+ * <p>
+ * {@link #deduplicate(Object...)} looks items up in every active bucket with
+ * one pipelined round of {@code CF.MEXISTS}, then adds the remaining ones to
+ * the current bucket with a single {@code CF.INSERTNX}, which also settles
+ * races between clients adding the same item. Expired buckets are dropped as a
+ * whole when the current bucket changes and expire on their own otherwise, so
+ * items need no individual expiry.
+ *
+ * @param <V> Value type.
+ */
+public class WindowedDeduplicator<V> {
+
+	public static final Duration DEFAULT_WINDOW = Duration.ofHours(24);
+
+	public static final int DEFAULT_BUCKETS = 24;
+
+	public static final long DEFAULT_CAPACITY = 1000000;
+
+	// CF.INSERTNX reply for an item that was already in the filter
+	private static final long EXISTS = 0;
+
+	// CF.INSERTNX reply for an item that could not be added to a full filter
+	private static final long FULL = -1;
+
+	private static final long NO_BUCKET = Long.MIN_VALUE;
+
+	private final StatefulRedisModulesConnection<String, V> connection;
+	private final RedisCodec<String, V> codec;
+	private final String name;
+	private final long bucketDuration;
+	private final int buckets;
+	private final CuckooFilterInsertOptions insertOptions;
+	private final AtomicLong currentBucket = new AtomicLong(NO_BUCKET);
+	private final AtomicLong expiringBucket = new AtomicLong(NO_BUCKET);
+
+	private WindowedDeduplicator(Builder<V> builder) {
+		this.connection = builder.connection;
+		this.codec = builder.codec;
+		this.name = builder.name;
+		this.buckets = builder.buckets;
+		this.bucketDuration = Math.max(1, builder.window.toMillis() / builder.buckets);
+		this.insertOptions = CuckooFilterInsertOptions.builder().capacity(builder.capacity).build();
+	}
+
+	/**
+	 * Records the given items and tells which ones were not seen within the
+	 * window. Repeated items of the same batch are duplicates of their first
+	 * occurrence.
+	 *
+	 * @param items items to deduplicate
+	 * @return for each item, true if it was not seen within the window
+	 * @throws FilterFullException if the filter of the current bucket is full.
+	 *                             All other items are recorded and the exception
+	 *                             tells which ones were not.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Boolean> deduplicate(V... items) {
+		long bucket = rotate();
+		Boolean[] unique = lookup(bucket, items);
+		// Position of the first occurrence of each new item in the batch
+		Map<ByteBuffer, Integer> batch = new HashMap<>();
+		int[] first = new int[items.length];
+		List<Integer> positions = new ArrayList<>();
+		for (int index = 0; index < items.length; index++) {
+			first[index] = index;
+			if (unique[index]) {
+				Integer previous = batch.putIfAbsent(codec.encodeValue(items[index]), index);
+				if (previous == null) {
+					positions.add(index);
+				} else {
+					unique[index] = false;
+					first[index] = previous;
+				}
+			}
+		}
+		if (!positions.isEmpty()) {
+			Object[] newItems = new Object[positions.size()];
+			for (int index = 0; index < newItems.length; index++) {
+				newItems[index] = items[positions.get(index)];
+			}
+			RedisModulesAsyncCommands<String, V> async = connection.async();
+			List<RedisFuture<List<Long>>> futures = new ArrayList<>();
+			futures.add(async.cfInsertNx(key(bucket), insertOptions, (V[]) newItems));
+			long expiring = expiringBucket.get();
+			if (expiring != bucket && expiringBucket.compareAndSet(expiring, bucket)) {
+				async.pexpireat(key(bucket), (bucket + buckets + 1) * bucketDuration);
+			}
+			List<Long> inserted = RedisModulesUtils.awaitAll(connection.getTimeout(), futures).get(0);
+			boolean[] full = new boolean[items.length];
+			for (int index = 0; index < inserted.size(); index++) {
+				long reply = inserted.get(index);
+				if (reply <= FULL) {
+					full[positions.get(index)] = true;
+				} else if (reply == EXISTS) {
+					unique[positions.get(index)] = false;
+				}
+			}
+			List<Integer> unrecorded = new ArrayList<>();
+			for (int index = 0; index < items.length; index++) {
+				if (full[first[index]]) {
+					// The item would be reported as unique again
+					unique[index] = null;
+					unrecorded.add(index);
+				}
+			}
+			if (!unrecorded.isEmpty()) {
+				throw new FilterFullException("Cuckoo filter " + key(bucket)
+						+ " is full, increase the capacity or the number of buckets", Arrays.asList(unique), unrecorded);
+			}
+		}
+		return Arrays.asList(unique);
+	}
+
+	/**
+	 * Looks up the given items without recording them.
+	 *
+	 * @param items items to look up
+	 * @return for each item, true if it was seen within the window
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Boolean> contains(V... items) {
+		Boolean[] unique = lookup(rotate(), items);
+		Boolean[] seen = new Boolean[items.length];
+		for (int index = 0; index < items.length; index++) {
+			seen[index] = !unique[index];
+		}
+		return Arrays.asList(seen);
+	}
+
+	private Boolean[] lookup(long bucket, V[] items) {
+		Boolean[] unique = new Boolean[items.length];
+		Arrays.fill(unique, Boolean.TRUE);
+		if (items.length == 0) {
+			return unique;
+		}
+		RedisModulesAsyncCommands<String, V> async = connection.async();
+		List<RedisFuture<List<Boolean>>> futures = new ArrayList<>();
+		for (long id = bucket; id >= bucket - buckets; id--) {
+			futures.add(async.cfMExists(key(id), items));
+		}
+		for (List<Boolean> exists : RedisModulesUtils.awaitAll(connection.getTimeout(), futures)) {
+			for (int index = 0; index < items.length; index++) {
+				if (Boolean.TRUE.equals(exists.get(index))) {
+					unique[index] = false;
+				}
+			}
+		}
+		return unique;
+	}
+
+	/**
+	 * Deletes the filters of buckets that left the window since the last call.
+	 *
+	 * @return the current bucket
+	 */
+	private long rotate() {
+		long bucket = System.currentTimeMillis() / bucketDuration;
+		long previous = currentBucket.get();
+		if (previous != bucket && currentBucket.compareAndSet(previous, bucket) && previous != NO_BUCKET) {
+			long from = Math.max(previous - buckets, bucket - 2L * buckets - 1);
+			List<String> expired = new ArrayList<>();
+			for (long id = from; id < bucket - buckets; id++) {
+				expired.add(key(id));
+			}
+			if (!expired.isEmpty()) {
+				connection.async().unlink(expired.toArray(new String[0]));
+			}
+		}
+		return bucket;
+	}
+
+	/**
+	 *
+	 * @return key of the filter of the current bucket
+	 */
+	public String currentKey() {
+		return key(System.currentTimeMillis() / bucketDuration);
+	}
+
+	private String key(long bucket) {
+		return name + ":" + bucket;
+	}
+
+	public static Builder<String> builder(StatefulRedisModulesConnection<String, String> connection, String name) {
+		return builder(connection, StringCodec.UTF8, name);
+	}
+
+	public static <V> Builder<V> builder(StatefulRedisModulesConnection<String, V> connection,
+			RedisCodec<String, V> codec, String name) {
+		return new Builder<>(connection, codec, name);
+	}
+
+	public static class Builder<V> {
+
+		private final StatefulRedisModulesConnection<String, V> connection;
+		private final RedisCodec<String, V> codec;
+		private final String name;
+		private Duration window = DEFAULT_WINDOW;
+		private int buckets = DEFAULT_BUCKETS;
+		private long capacity = DEFAULT_CAPACITY;
+
+		private Builder(StatefulRedisModulesConnection<String, V> connection, RedisCodec<String, V> codec,
+				String name) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			LettuceAssert.notEmpty(name, "Name must not be empty");
+			this.connection = connection;
+			this.codec = codec;
+			this.name = name;
+		}
+
+		public Builder<V> window(Duration window) {
+			LettuceAssert.isTrue(window != null && window.toMillis() > 0, "Window must be at least 1 millisecond");
+			this.window = window;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param buckets number of buckets the window is split into. More buckets
+		 *                make the window more precise at the cost of one more
+		 *                lookup per bucket.
+		 * @return this builder
+		 */
+		public Builder<V> buckets(int buckets) {
+			LettuceAssert.isTrue(buckets > 0, "Buckets must be greater than 0");
+			this.buckets = buckets;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param capacity expected number of items per bucket
+		 * @return this builder
+		 */
+		public Builder<V> capacity(long capacity) {
+			LettuceAssert.isTrue(capacity > 0, "Capacity must be greater than 0");
+			this.capacity = capacity;
+			return this;
+		}
+
+		public WindowedDeduplicator<V> build() {
+			return new WindowedDeduplicator<>(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.redis.lettucemod.cluster;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.lettuce.core.RedisFuture;
+
+/**
+ * {@link RedisFuture} completed from a {@link CompletionStage}, for results
+ * combined from several cluster nodes.
+ *
+ * @param <T> Result type.
+ */
+class CompletableRedisFuture<T> extends CompletableFuture<T> implements RedisFuture<T> {
+
+	private volatile String error;
+
+	static <T> RedisFuture<T> of(CompletionStage<T> stage) {
+		CompletableRedisFuture<T> future = new CompletableRedisFuture<>();
+		stage.whenComplete((result, throwable) -> {
+			if (throwable == null) {
+				future.complete(result);
+			} else {
+				future.completeExceptionally(throwable);
+			}
+		});
+		return future;
+	}
+
+	@Override
+	public boolean completeExceptionally(Throwable ex) {
+		Throwable cause = ex;
+		while (cause instanceof CompletionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		error = cause.getMessage();
+		return super.completeExceptionally(cause);
+	}
+
+	@Override
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		try {
+			get(timeout, unit);
+			return true;
+		} catch (ExecutionException e) {
+			return true;
+		} catch (TimeoutException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.redis.lettucemod.cluster;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.redis.lettucemod.cluster.api.StatefulRedisModulesClusterConnection;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.models.role.RedisNodeDescription;
+
+/**
+ * Picks the node to run a keyless read-only command on. Commands without a key
+ * have no slot, so Lettuce always sends them to the default node regardless of
+ * the connection's {@link ReadFrom}.
+ * <p>
+ * Candidates are limited to the shard of the default node, i.e. its upstream
+ * and the replicas of that upstream, because on an OSS cluster each shard only
+ * indexes the keys of its own slots: sending {@code FT.SEARCH} to another
+ * shard would return different results.
+ */
+class ReadFromNodes {
+
+	private ReadFromNodes() {
+	}
+
+	/**
+	 *
+	 * @param connection the cluster connection
+	 * @return id of the node selected by the connection's {@link ReadFrom} among
+	 *         the nodes of the default node's shard, or null if the default node
+	 *         should be used
+	 */
+	static String select(StatefulRedisModulesClusterConnection<?, ?> connection) {
+		ReadFrom readFrom = connection.getReadFrom();
+		if (readFrom == null || isUpstream(readFrom)
+				|| !(connection instanceof StatefulRedisModulesClusterConnectionImpl)) {
+			return null;
+		}
+		String defaultNodeId = ((StatefulRedisModulesClusterConnectionImpl<?, ?>) connection).getDefaultNodeId();
+		if (defaultNodeId == null) {
+			return null;
+		}
+		RedisClusterNode defaultNode = connection.getPartitions().getPartitionByNodeId(defaultNodeId);
+		if (defaultNode == null) {
+			return null;
+		}
+		String upstreamId = defaultNode.getSlaveOf() == null ? defaultNodeId : defaultNode.getSlaveOf();
+		List<RedisNodeDescription> nodes = new ArrayList<>();
+		for (RedisClusterNode node : connection.getPartitions()) {
+			if ((upstreamId.equals(node.getNodeId()) || upstreamId.equals(node.getSlaveOf()))
+					&& !node.is(RedisClusterNode.NodeFlag.FAIL) && !node.is(RedisClusterNode.NodeFlag.EVENTUAL_FAIL)) {
+				nodes.add(node);
+			}
+		}
+		List<RedisNodeDescription> candidates = readFrom.select(new ReadFrom.Nodes() {
+
+			@Override
+			public List<RedisNodeDescription> getNodes() {
+				return nodes;
+			}
+
+			@Override
+			public Iterator<RedisNodeDescription> iterator() {
+				return nodes.iterator();
+			}
+
+		});
+		if (candidates.isEmpty()) {
+			return null;
+		}
+		if (readFrom.isOrderSensitive()) {
+			return ((RedisClusterNode) candidates.get(0)).getNodeId();
+		}
+		return ((RedisClusterNode) candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()))).getNodeId();
+	}
+
+	/**
+	 * {@link ReadFrom#MASTER} is a separate instance with the same behavior as
+	 * {@link ReadFrom#UPSTREAM}.
+	 */
+	@SuppressWarnings("deprecation")
+	private static boolean isUpstream(ReadFrom readFrom) {
+		return readFrom == ReadFrom.UPSTREAM || readFrom == ReadFrom.MASTER;
+	}
+
+}
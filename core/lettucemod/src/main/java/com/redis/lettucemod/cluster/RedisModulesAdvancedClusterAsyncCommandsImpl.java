@@ -1,8 +1,21 @@
 package com.redis.lettucemod.cluster;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import com.redis.lettucemod.RedisModulesAsyncCommandsImpl;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
 import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
 import com.redis.lettucemod.bloom.BloomFilterInfo;
 import com.redis.lettucemod.bloom.BloomFilterInfoType;
@@ -32,31 +45,41 @@ import com.redis.lettucemod.timeseries.AlterOptions;
 import com.redis.lettucemod.timeseries.CreateOptions;
 import com.redis.lettucemod.timeseries.CreateRuleOptions;
 import com.redis.lettucemod.timeseries.GetResult;
+import com.redis.lettucemod.timeseries.GroupByReducer;
 import com.redis.lettucemod.timeseries.IncrbyOptions;
 import com.redis.lettucemod.timeseries.KeySample;
+import com.redis.lettucemod.timeseries.Labels;
 import com.redis.lettucemod.timeseries.MGetOptions;
 import com.redis.lettucemod.timeseries.MRangeOptions;
+import com.redis.lettucemod.timeseries.MRangeOptions.GroupBy;
 import com.redis.lettucemod.timeseries.RangeOptions;
 import com.redis.lettucemod.timeseries.RangeResult;
 import com.redis.lettucemod.timeseries.Sample;
 import com.redis.lettucemod.timeseries.TimeRange;
 
 import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisCommandExecutionException;
 import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RestoreArgs;
 import io.lettuce.core.Value;
 import io.lettuce.core.cluster.MultiNodeExecution;
 import io.lettuce.core.cluster.RedisAdvancedClusterAsyncCommandsImpl;
+import io.lettuce.core.cluster.SlotHash;
 import io.lettuce.core.codec.RedisCodec;
 
 @SuppressWarnings("unchecked")
 public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdvancedClusterAsyncCommandsImpl<K, V>
 		implements RedisModulesAdvancedClusterAsyncCommands<K, V> {
 
+	private static final Duration MERGE_TTL = Duration.ofMinutes(1);
+
+	private final RedisCodec<K, V> codec;
 	private final RedisModulesAsyncCommandsImpl<K, V> delegate;
 
 	public RedisModulesAdvancedClusterAsyncCommandsImpl(StatefulRedisModulesClusterConnection<K, V> connection,
 			RedisCodec<K, V> codec) {
 		super(connection, codec);
+		this.codec = codec;
 		this.delegate = new RedisModulesAsyncCommandsImpl<>(connection, codec);
 	}
 
@@ -75,6 +98,20 @@ public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdv
 		return (StatefulRedisModulesClusterConnection<K, V>) super.getStatefulConnection();
 	}
 
+	/**
+	 * Keyless read-only commands have no slot to be routed by, so they are sent to
+	 * the node of the default node's shard selected by the connection's
+	 * {@link io.lettuce.core.ReadFrom} if any. Cursor-based aggregations are not
+	 * routed this way because cursors only exist on the node that created them.
+	 */
+	private RedisModulesAsyncCommands<K, V> readCommands() {
+		String nodeId = ReadFromNodes.select(getStatefulConnection());
+		if (nodeId == null) {
+			return delegate;
+		}
+		return ((StatefulRedisModulesConnection<K, V>) getStatefulConnection().getConnection(nodeId)).async();
+	}
+
 	@Override
 	public RedisFuture<String> ftCreate(K index, Field<K>... fields) {
 		return ftCreate(index, null, fields);
@@ -135,22 +172,22 @@ public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdv
 
 	@Override
 	public RedisFuture<SearchResults<K, V>> ftSearch(K index, V query) {
-		return delegate.ftSearch(index, query);
+		return readCommands().ftSearch(index, query);
 	}
 
 	@Override
 	public RedisFuture<SearchResults<K, V>> ftSearch(K index, V query, SearchOptions<K, V> options) {
-		return delegate.ftSearch(index, query, options);
+		return readCommands().ftSearch(index, query, options);
 	}
 
 	@Override
 	public RedisFuture<AggregateResults<K>> ftAggregate(K index, V query) {
-		return delegate.ftAggregate(index, query);
+		return readCommands().ftAggregate(index, query);
 	}
 
 	@Override
 	public RedisFuture<AggregateResults<K>> ftAggregate(K index, V query, AggregateOptions<K, V> options) {
-		return delegate.ftAggregate(index, query, options);
+		return readCommands().ftAggregate(index, query, options);
 	}
 
 	@Override
@@ -308,22 +345,92 @@ public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdv
 
 	@Override
 	public RedisFuture<List<RangeResult<K, V>>> tsMrange(TimeRange range) {
-		return delegate.tsMrange(range);
+		return fanOut(commands -> commands.tsMrange(range), RangeResult::getKey);
 	}
 
 	@Override
 	public RedisFuture<List<RangeResult<K, V>>> tsMrange(TimeRange range, MRangeOptions<K, V> options) {
-		return delegate.tsMrange(range, options);
+		return mrange(range, options, false);
 	}
 
 	@Override
 	public RedisFuture<List<RangeResult<K, V>>> tsMrevrange(TimeRange range) {
-		return delegate.tsMrevrange(range);
+		return fanOut(commands -> commands.tsMrevrange(range), RangeResult::getKey);
 	}
 
 	@Override
 	public RedisFuture<List<RangeResult<K, V>>> tsMrevrange(TimeRange range, MRangeOptions<K, V> options) {
-		return delegate.tsMrevrange(range, options);
+		return mrange(range, options, true);
+	}
+
+	/**
+	 * Series matching the filters can live on any shard so the command is sent to
+	 * every upstream node. Grouping is done on the client since each node only
+	 * sees part of every group: nodes are queried without {@code GROUPBY} but with
+	 * the group label.
+	 */
+	private RedisFuture<List<RangeResult<K, V>>> mrange(TimeRange range, MRangeOptions<K, V> options,
+			boolean reverse) {
+		if (options == null || !options.getGroupBy().isPresent()) {
+			return fanOut(commands -> reverse ? commands.tsMrevrange(range, options)
+					: commands.tsMrange(range, options), RangeResult::getKey);
+		}
+		GroupBy<K> groupBy = options.getGroupBy().get();
+		MRangeOptions<K, V> nodeOptions = new MRangeOptions<>(options);
+		nodeOptions.setGroupBy(Optional.empty());
+		nodeOptions.setLabels(Optional.of(withLabel(options.getLabels(), groupBy.getLabel())));
+		RedisFuture<List<RangeResult<K, V>>> results = fanOut(
+				commands -> reverse ? commands.tsMrevrange(range, nodeOptions) : commands.tsMrange(range, nodeOptions),
+				RangeResult::getKey);
+		GroupByReducer<K, V> reducer = new GroupByReducer<>(codec);
+		// Reduce off the event loop thread completing the fan-out
+		return CompletableRedisFuture.of(results.thenApplyAsync(
+				r -> reducer.reduce(r, groupBy, reverse, options.getLabels().isPresent()), reducer.getPool()));
+	}
+
+	private Labels<K> withLabel(Optional<Labels<K>> labels, K label) {
+		if (!labels.isPresent()) {
+			return Labels.of(label);
+		}
+		List<K> names = labels.get().getNames();
+		if (names.isEmpty()) {
+			// WITHLABELS
+			return labels.get();
+		}
+		ByteBuffer encodedLabel = codec.encodeKey(label);
+		for (K name : names) {
+			if (codec.encodeKey(name).equals(encodedLabel)) {
+				return labels.get();
+			}
+		}
+		List<K> selectedLabels = new ArrayList<>(names);
+		selectedLabels.add(label);
+		return new Labels<>(selectedLabels);
+	}
+
+	/**
+	 * Sends a multi-key read to every upstream node and concatenates the results.
+	 * Results are deduplicated by key in case a node answers for more than its own
+	 * slots, e.g. a Redis Enterprise proxy.
+	 */
+	private <T> RedisFuture<List<T>> fanOut(Function<RedisModulesAsyncCommands<K, V>, RedisFuture<List<T>>> function,
+			Function<T, K> key) {
+		Map<String, CompletableFuture<List<T>>> executions = executeOnUpstream(
+				commands -> function.apply((RedisModulesAsyncCommands<K, V>) commands));
+		CompletableFuture<List<T>> results = CompletableFuture
+				.allOf(executions.values().toArray(new CompletableFuture[0])).thenApply(v -> {
+					Set<ByteBuffer> keys = new HashSet<>();
+					List<T> list = new ArrayList<>();
+					for (CompletableFuture<List<T>> execution : executions.values()) {
+						for (T result : execution.join()) {
+							if (keys.add(codec.encodeKey(key.apply(result)))) {
+								list.add(result);
+							}
+						}
+					}
+					return list;
+				});
+		return CompletableRedisFuture.of(results);
 	}
 
 	@Override
@@ -333,17 +440,17 @@ public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdv
 
 	@Override
 	public RedisFuture<List<GetResult<K, V>>> tsMget(MGetOptions<K, V> options) {
-		return delegate.tsMget(options);
+		return fanOut(commands -> commands.tsMget(options), GetResult::getKey);
 	}
 
 	@Override
 	public RedisFuture<List<GetResult<K, V>>> tsMget(V... filters) {
-		return delegate.tsMget(filters);
+		return fanOut(commands -> commands.tsMget(filters), GetResult::getKey);
 	}
 
 	@Override
 	public RedisFuture<List<GetResult<K, V>>> tsMgetWithLabels(V... filters) {
-		return delegate.tsMgetWithLabels(filters);
+		return fanOut(commands -> commands.tsMgetWithLabels(filters), GetResult::getKey);
 	}
 
 	@Override
@@ -513,12 +620,22 @@ public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdv
 
 	@Override
 	public RedisFuture<String> cmsMerge(K destKey, K... keys) {
-		return delegate.cmsMerge(destKey, keys);
+		return merge(destKey, Arrays.asList(keys), sources -> delegate.cmsMerge(destKey, toArray(sources)));
 	}
 
 	@Override
 	public RedisFuture<String> cmsMerge(K destKey, LongScoredValue<K>... sourceKeyWeights) {
-		return delegate.cmsMerge(destKey, sourceKeyWeights);
+		List<K> keys = new ArrayList<>(sourceKeyWeights.length);
+		for (LongScoredValue<K> weight : sourceKeyWeights) {
+			keys.add(weight.getValue());
+		}
+		return merge(destKey, keys, sources -> {
+			LongScoredValue<K>[] weights = new LongScoredValue[sources.size()];
+			for (int index = 0; index < weights.length; index++) {
+				weights[index] = LongScoredValue.just(sourceKeyWeights[index].getScore(), sources.get(index));
+			}
+			return delegate.cmsMerge(destKey, weights);
+		});
 	}
 
 	@Override
@@ -608,12 +725,85 @@ public class RedisModulesAdvancedClusterAsyncCommandsImpl<K, V> extends RedisAdv
 
 	@Override
 	public RedisFuture<String> tDigestMerge(K destinationKey, K... sourceKeys) {
-		return delegate.tDigestMerge(destinationKey, sourceKeys);
+		return merge(destinationKey, Arrays.asList(sourceKeys),
+				sources -> delegate.tDigestMerge(destinationKey, toArray(sources)));
 	}
 
 	@Override
 	public RedisFuture<String> tDigestMerge(K destinationKey, TDigestMergeOptions options, K... sourceKeys) {
-		return delegate.tDigestMerge(destinationKey, options, sourceKeys);
+		return merge(destinationKey, Arrays.asList(sourceKeys),
+				sources -> delegate.tDigestMerge(destinationKey, options, toArray(sources)));
+	}
+
+	private K[] toArray(List<K> keys) {
+		return keys.toArray((K[]) new Object[0]);
+	}
+
+	/**
+	 * Merge commands require all keys in the same slot. Sources hashing to another
+	 * slot than the destination are copied next to it with {@code DUMP} and
+	 * {@code RESTORE} under temporary keys sharing the destination hash tag, merged,
+	 * and deleted afterwards.
+	 */
+	private RedisFuture<String> merge(K destination, List<K> sources,
+			Function<List<K>, RedisFuture<String>> mergeFunction) {
+		ByteBuffer encodedDestination = codec.encodeKey(destination);
+		int slot = SlotHash.getSlot(encodedDestination);
+		List<K> mergeSources = new ArrayList<>(sources);
+		List<K> tempKeys = new ArrayList<>();
+		List<CompletableFuture<String>> copies = new ArrayList<>();
+		String prefix = "merge:" + UUID.randomUUID() + ":";
+		if (SlotHash.getSlot(codec.encodeKey(tempKey(encodedDestination, prefix))) != slot) {
+			// Destination hash tag cannot be reproduced, let the server decide
+			return mergeFunction.apply(sources);
+		}
+		for (int index = 0; index < sources.size(); index++) {
+			K source = sources.get(index);
+			if (SlotHash.getSlot(codec.encodeKey(source)) == slot) {
+				continue;
+			}
+			K tempKey = tempKey(encodedDestination, prefix + index);
+			tempKeys.add(tempKey);
+			mergeSources.set(index, tempKey);
+			copies.add(dump(source).toCompletableFuture().thenCompose(dump -> {
+				if (dump == null) {
+					throw new RedisCommandExecutionException("ERR no such key: " + source);
+				}
+				return restore(tempKey, dump, RestoreArgs.Builder.ttl(MERGE_TTL.toMillis()));
+			}));
+		}
+		if (tempKeys.isEmpty()) {
+			return mergeFunction.apply(sources);
+		}
+		CompletableFuture<String> result = CompletableFuture.allOf(copies.toArray(new CompletableFuture[0]))
+				.thenCompose(v -> mergeFunction.apply(mergeSources));
+		return CompletableRedisFuture.of(result.whenComplete((r, e) -> del(toArray(tempKeys))));
+	}
+
+	private K tempKey(ByteBuffer destination, String suffix) {
+		byte[] tag = hashTag(destination);
+		byte[] suffixBytes = suffix.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer key = ByteBuffer.allocate(tag.length + suffixBytes.length + 3);
+		key.put((byte) '{').put(tag).put((byte) '}').put((byte) ':').put(suffixBytes);
+		key.flip();
+		return codec.decodeKey(key);
+	}
+
+	private static byte[] hashTag(ByteBuffer key) {
+		byte[] bytes = new byte[key.remaining()];
+		key.duplicate().get(bytes);
+		int start = -1;
+		for (int index = 0; index < bytes.length; index++) {
+			if (start < 0 && bytes[index] == '{') {
+				start = index;
+			} else if (start >= 0 && bytes[index] == '}') {
+				if (index > start + 1) {
+					return Arrays.copyOfRange(bytes, start + 1, index);
+				}
+				break;
+			}
+		}
+		return bytes;
 	}
 
 	@Override
@@ -1,10 +1,12 @@
 package com.redis.lettucemod.cluster;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import org.reactivestreams.Publisher;
 
 import com.redis.lettucemod.RedisModulesReactiveCommandsImpl;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
 import com.redis.lettucemod.api.reactive.RedisModulesReactiveCommands;
 import com.redis.lettucemod.bloom.BloomFilterInfo;
 import com.redis.lettucemod.bloom.BloomFilterInfoType;
@@ -19,6 +21,7 @@ import com.redis.lettucemod.bloom.TDigestInfo;
 import com.redis.lettucemod.bloom.TDigestMergeOptions;
 import com.redis.lettucemod.bloom.TopKInfo;
 import com.redis.lettucemod.cluster.api.StatefulRedisModulesClusterConnection;
+import com.redis.lettucemod.cluster.api.async.RedisModulesAdvancedClusterAsyncCommands;
 import com.redis.lettucemod.cluster.api.reactive.RedisModulesAdvancedClusterReactiveCommands;
 import com.redis.lettucemod.search.AggregateOptions;
 import com.redis.lettucemod.search.AggregateResults;
@@ -44,6 +47,7 @@ import com.redis.lettucemod.timeseries.Sample;
 import com.redis.lettucemod.timeseries.TimeRange;
 
 import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.Value;
 import io.lettuce.core.cluster.RedisAdvancedClusterReactiveCommandsImpl;
 import io.lettuce.core.codec.RedisCodec;
@@ -77,6 +81,31 @@ public class RedisModulesAdvancedClusterReactiveCommandsImpl<K, V> extends
 		return (StatefulRedisModulesClusterConnection<K, V>) super.getStatefulConnection();
 	}
 
+	/**
+	 * Commands that fan out to several nodes or chain several commands are
+	 * implemented once in the asynchronous API.
+	 */
+	private <T> Mono<T> fromAsync(Function<RedisModulesAdvancedClusterAsyncCommands<K, V>, RedisFuture<T>> function) {
+		return Mono.defer(() -> Mono.fromCompletionStage(function.apply(getStatefulConnection().async())));
+	}
+
+	/**
+	 * Keyless read-only commands have no slot to be routed by, so they are sent to
+	 * the node of the default node's shard selected by the connection's
+	 * {@link io.lettuce.core.ReadFrom} if any. Cursor-based aggregations are not
+	 * routed this way because cursors only exist on the node that created them.
+	 */
+	private Mono<RedisModulesReactiveCommands<K, V>> readCommands() {
+		return Mono.defer(() -> {
+			String nodeId = ReadFromNodes.select(getStatefulConnection());
+			if (nodeId == null) {
+				return Mono.<RedisModulesReactiveCommands<K, V>>just(delegate);
+			}
+			return Mono.fromCompletionStage(getStatefulConnection().getConnectionAsync(nodeId))
+					.map(c -> ((StatefulRedisModulesConnection<K, V>) c).reactive());
+		});
+	}
+
 	@Override
 	public Mono<String> ftCreate(K index, Field<K>... fields) {
 		return ftCreate(index, null, fields);
@@ -143,22 +172,22 @@ public class RedisModulesAdvancedClusterReactiveCommandsImpl<K, V> extends
 
 	@Override
 	public Mono<SearchResults<K, V>> ftSearch(K index, V query) {
-		return delegate.ftSearch(index, query);
+		return readCommands().flatMap(c -> c.ftSearch(index, query));
 	}
 
 	@Override
 	public Mono<SearchResults<K, V>> ftSearch(K index, V query, SearchOptions<K, V> options) {
-		return delegate.ftSearch(index, query, options);
+		return readCommands().flatMap(c -> c.ftSearch(index, query, options));
 	}
 
 	@Override
 	public Mono<AggregateResults<K>> ftAggregate(K index, V query) {
-		return delegate.ftAggregate(index, query);
+		return readCommands().flatMap(c -> c.ftAggregate(index, query));
 	}
 
 	@Override
 	public Mono<AggregateResults<K>> ftAggregate(K index, V query, AggregateOptions<K, V> options) {
-		return delegate.ftAggregate(index, query, options);
+		return readCommands().flatMap(c -> c.ftAggregate(index, query, options));
 	}
 
 	@Override
@@ -323,12 +352,12 @@ public class RedisModulesAdvancedClusterReactiveCommandsImpl<K, V> extends
 
 	@Override
 	public Mono<String> tDigestMerge(K destinationKey, K... sourceKeys) {
-		return delegate.tDigestMerge(destinationKey, sourceKeys);
+		return fromAsync(commands -> commands.tDigestMerge(destinationKey, sourceKeys));
 	}
 
 	@Override
 	public Mono<String> tDigestMerge(K destinationKey, TDigestMergeOptions options, K... sourceKeys) {
-		return delegate.tDigestMerge(destinationKey, options, sourceKeys);
+		return fromAsync(commands -> commands.tDigestMerge(destinationKey, options, sourceKeys));
 	}
 
 	@Override
@@ -438,22 +467,22 @@ public class RedisModulesAdvancedClusterReactiveCommandsImpl<K, V> extends
 
 	@Override
 	public Flux<RangeResult<K, V>> tsMrange(TimeRange range) {
-		return delegate.tsMrange(range);
+		return fromAsync(commands -> commands.tsMrange(range)).flatMapIterable(l -> l);
 	}
 
 	@Override
 	public Flux<RangeResult<K, V>> tsMrange(TimeRange range, MRangeOptions<K, V> options) {
-		return delegate.tsMrange(range, options);
+		return fromAsync(commands -> commands.tsMrange(range, options)).flatMapIterable(l -> l);
 	}
 
 	@Override
 	public Flux<RangeResult<K, V>> tsMrevrange(TimeRange range) {
-		return delegate.tsMrevrange(range);
+		return fromAsync(commands -> commands.tsMrevrange(range)).flatMapIterable(l -> l);
 	}
 
 	@Override
 	public Flux<RangeResult<K, V>> tsMrevrange(TimeRange range, MRangeOptions<K, V> options) {
-		return delegate.tsMrevrange(range, options);
+		return fromAsync(commands -> commands.tsMrevrange(range, options)).flatMapIterable(l -> l);
 	}
 
 	@Override
@@ -463,17 +492,17 @@ public class RedisModulesAdvancedClusterReactiveCommandsImpl<K, V> extends
 
 	@Override
 	public Flux<GetResult<K, V>> tsMget(MGetOptions<K, V> options) {
-		return delegate.tsMget(options);
+		return fromAsync(commands -> commands.tsMget(options)).flatMapIterable(l -> l);
 	}
 
 	@Override
 	public Flux<GetResult<K, V>> tsMget(V... filters) {
-		return delegate.tsMget(filters);
+		return fromAsync(commands -> commands.tsMget(filters)).flatMapIterable(l -> l);
 	}
 
 	@Override
 	public Flux<GetResult<K, V>> tsMgetWithLabels(V... filters) {
-		return delegate.tsMgetWithLabels(filters);
+		return fromAsync(commands -> commands.tsMgetWithLabels(filters)).flatMapIterable(l -> l);
 	}
 
 	@Override
@@ -643,12 +672,12 @@ public class RedisModulesAdvancedClusterReactiveCommandsImpl<K, V> extends
 
 	@Override
 	public Mono<String> cmsMerge(K destKey, K... keys) {
-		return delegate.cmsMerge(destKey, keys);
+		return fromAsync(commands -> commands.cmsMerge(destKey, keys));
 	}
 
 	@Override
 	public Mono<String> cmsMerge(K destKey, LongScoredValue<K>... sourceKeyWeights) {
-		return delegate.cmsMerge(destKey, sourceKeyWeights);
+		return fromAsync(commands -> commands.cmsMerge(destKey, sourceKeyWeights));
 	}
 
 	@Override
@@ -1,8 +1,11 @@
 package com.redis.lettucemod.cluster;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
+import com.redis.lettucemod.OutstandingCommands;
 import com.redis.lettucemod.cluster.api.StatefulRedisModulesClusterConnection;
 import com.redis.lettucemod.cluster.api.async.RedisModulesAdvancedClusterAsyncCommands;
 import com.redis.lettucemod.cluster.api.reactive.RedisModulesAdvancedClusterReactiveCommands;
@@ -14,10 +17,15 @@ import io.lettuce.core.cluster.ClusterPushHandler;
 import io.lettuce.core.cluster.StatefulRedisClusterConnectionImpl;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.json.JsonParser;
+import io.lettuce.core.protocol.RedisCommand;
 
 public class StatefulRedisModulesClusterConnectionImpl<K, V> extends StatefulRedisClusterConnectionImpl<K, V>
 		implements StatefulRedisModulesClusterConnection<K, V> {
 
+	private volatile OutstandingCommands outstandingCommands;
+	private volatile String defaultNodeId;
+	private final AtomicBoolean defaultNodeIdRequested = new AtomicBoolean();
+
 	/**
 	 * Initialize a new connection.
 	 *
@@ -81,4 +89,60 @@ public class StatefulRedisModulesClusterConnectionImpl<K, V> extends StatefulRed
 		return false;
 	}
 
+	/**
+	 * Starts counting the commands dispatched on this connection that have not
+	 * completed yet, e.g. for
+	 * {@link com.redis.lettucemod.RedisModulesConnectionGroup} to select the least
+	 * loaded connection. Commands are not counted by default.
+	 */
+	public void trackOutstandingCommands() {
+		if (outstandingCommands == null) {
+			outstandingCommands = new OutstandingCommands();
+		}
+	}
+
+	@Override
+	public <T> RedisCommand<K, V, T> dispatch(RedisCommand<K, V, T> command) {
+		OutstandingCommands tracker = outstandingCommands;
+		if (tracker != null) {
+			tracker.track(command);
+		}
+		return super.dispatch(command);
+	}
+
+	@Override
+	public Collection<RedisCommand<K, V, ?>> dispatch(Collection<? extends RedisCommand<K, V, ?>> commands) {
+		OutstandingCommands tracker = outstandingCommands;
+		if (tracker != null) {
+			commands.forEach(tracker::track);
+		}
+		return super.dispatch(commands);
+	}
+
+	/**
+	 * Keyless commands are sent to the node the default connection is open on,
+	 * whose id is looked up once with {@code CLUSTER MYID}.
+	 *
+	 * @return id of the node keyless commands are sent to, or null until it is
+	 *         known
+	 */
+	String getDefaultNodeId() {
+		if (defaultNodeId == null && defaultNodeIdRequested.compareAndSet(false, true)) {
+			async().clusterMyId().whenComplete((id, e) -> {
+				if (e == null) {
+					defaultNodeId = id;
+				} else {
+					defaultNodeIdRequested.set(false);
+				}
+			});
+		}
+		return defaultNodeId;
+	}
+
+	@Override
+	public int getOutstandingCommands() {
+		OutstandingCommands tracker = outstandingCommands;
+		return tracker == null ? 0 : tracker.get();
+	}
+
 }
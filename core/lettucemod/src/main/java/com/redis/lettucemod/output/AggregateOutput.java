@@ -11,6 +11,7 @@ public class AggregateOutput<K, V, R extends AggregateResults<K>> extends Comman
 
     private final AggregateResultOutput<K, V> nested;
     protected int mapCount = -1;
+    protected SearchReply reply;
 
     public AggregateOutput(RedisCodec<K, V> codec, R results) {
         super(codec, results);
@@ -19,11 +20,26 @@ public class AggregateOutput<K, V, R extends AggregateResults<K>> extends Comman
 
     @Override
     public void set(ByteBuffer bytes) {
+        if (reply != null) {
+            reply.set(bytes);
+            return;
+        }
         nested.set(bytes);
     }
 
+    @Override
+    public void set(double number) {
+        if (reply != null) {
+            reply.set(number);
+        }
+    }
+
     @Override
     public void complete(int depth) {
+        if (reply != null) {
+            reply.complete(depth);
+            return;
+        }
         if (nested.isComplete()) {
             output.add(nested.getAndClear());
         }
@@ -31,11 +47,19 @@ public class AggregateOutput<K, V, R extends AggregateResults<K>> extends Comman
 
     @Override
     public void set(long integer) {
+        if (reply != null) {
+            reply.set(integer);
+            return;
+        }
         output.setCount(integer);
     }
 
     @Override
     public void multi(int count) {
+        if (reply != null) {
+            reply.multi(count, false);
+            return;
+        }
         if (mapCount == -1) {
             mapCount = count - 1;
         } else {
@@ -43,4 +67,65 @@ public class AggregateOutput<K, V, R extends AggregateResults<K>> extends Comman
         }
     }
 
+    @Override
+    public void multiMap(int count) {
+        if (reply == null) {
+            // RESP3 reply
+            reply = new SearchReply(new ReplyHandler(), replyDepth());
+        }
+        reply.multi(count, true);
+    }
+
+    /**
+     * 
+     * @return depth at which the RESP3 reply map starts
+     */
+    protected int replyDepth() {
+        return 0;
+    }
+
+    private class ReplyHandler implements SearchReply.Handler {
+
+        @Override
+        public void result() {
+            // Results without attributes are empty rows
+        }
+
+        @Override
+        public void field(String name, ByteBuffer value) {
+            // Aggregate rows only have attributes
+        }
+
+        @Override
+        public void score(double score) {
+            // Aggregate rows only have attributes
+        }
+
+        @Override
+        public void attributes(int count) {
+            nested.multi(count);
+        }
+
+        @Override
+        public void attribute(ByteBuffer bytes) {
+            nested.set(bytes);
+        }
+
+        @Override
+        public void attributeList(int count) {
+            nested.multi(count);
+        }
+
+        @Override
+        public void resultComplete() {
+            output.add(nested.getAndClear());
+        }
+
+        @Override
+        public void totalResults(long count) {
+            output.setCount(count);
+        }
+
+    }
+
 }
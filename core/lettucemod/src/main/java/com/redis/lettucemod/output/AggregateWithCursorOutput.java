@@ -14,7 +14,7 @@ public class AggregateWithCursorOutput<K, V> extends AggregateOutput<K, V, Aggre
 
 	@Override
 	public void set(long integer) {
-		if (mapCount == output.size()) {
+		if (reply == null ? mapCount == output.size() : reply.isComplete()) {
 			output.setCursor(integer);
 		} else {
 			super.set(integer);
@@ -30,4 +30,10 @@ public class AggregateWithCursorOutput<K, V> extends AggregateOutput<K, V, Aggre
 		}
 	}
 
+	@Override
+	protected int replyDepth() {
+		// RESP3 reply map is followed by the cursor id
+		return 1;
+	}
+
 }
@@ -11,7 +11,6 @@ import com.redis.lettucemod.timeseries.Sample;
 import io.lettuce.core.KeyValue;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.internal.LettuceAssert;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 import io.lettuce.core.output.ListSubscriber;
 import io.lettuce.core.output.StreamingOutput;
@@ -21,12 +20,13 @@ public class GetOutput<K, V> extends CommandOutput<K, V, List<GetResult<K, V>>>
 
 	private boolean initialized;
 	private Subscriber<GetResult<K, V>> subscriber;
-	private boolean skipKeyReset;
+	private int depth;
+	private boolean inLabels;
+	private boolean inSample;
 	private K key;
 	private K labelKey;
 	private List<KeyValue<K, V>> labels;
 	private Sample sample;
-	private boolean labelsComplete;
 
 	public GetOutput(RedisCodec<K, V> codec) {
 		super(codec, Collections.emptyList());
@@ -35,27 +35,25 @@ public class GetOutput<K, V> extends CommandOutput<K, V, List<GetResult<K, V>>>
 
 	@Override
 	public void set(ByteBuffer bytes) {
-		if (key == null) {
-			if (bytes == null) {
-				return;
-			}
-			key = codec.decodeKey(bytes);
-			skipKeyReset = true;
-			return;
-		}
-		if (labelsComplete) {
-			sampleValue(bytes == null ? null : LettuceStrings.toDouble(decodeString(bytes)));
+		if (inSample) {
+			sampleValue(bytes == null ? null : NumberParser.parseDouble(bytes));
 			return;
 		}
-		if (labelKey == null) {
-			if (bytes == null) {
+		if (inLabels) {
+			if (labelKey == null) {
+				if (bytes != null) {
+					labelKey = codec.decodeKey(bytes);
+				}
 				return;
 			}
-			labelKey = codec.decodeKey(bytes);
+			labels.add(KeyValue.just(labelKey, bytes == null ? null : codec.decodeValue(bytes)));
+			labelKey = null;
 			return;
 		}
-		labels.add(KeyValue.just(labelKey, bytes == null ? null : codec.decodeValue(bytes)));
-		labelKey = null;
+		// RESP3: map key, RESP2: first element of the series array
+		if (key == null && bytes != null) {
+			key = codec.decodeKey(bytes);
+		}
 	}
 
 	@Override
@@ -70,55 +68,55 @@ public class GetOutput<K, V> extends CommandOutput<K, V, List<GetResult<K, V>>>
 	}
 
 	private void sampleValue(Double value) {
-		sample.setValue(value);
-		GetResult<K, V> result = new GetResult<>();
-		result.setKey(key);
-		result.setLabels(labels);
-		result.setSample(sample);
-		onResult(result);
+		if (sample != null) {
+			sample.setValue(value);
+		}
 	}
 
 	@Override
 	public void multi(int count) {
-		if (key != null && labels == null) {
-			labels = new ArrayList<>();
-		}
+		enter(count);
+	}
+
+	@Override
+	public void multiMap(int count) {
+		enter(count);
+	}
+
+	private void enter(int count) {
 		if (!initialized) {
 			output = OutputFactory.newList(count);
 			initialized = true;
+		} else if (depth == 2) {
+			// RESP2: [key, labels, sample], RESP3: [labels, sample]
+			if (labels == null) {
+				labels = new ArrayList<>();
+				inLabels = true;
+			} else {
+				inSample = true;
+			}
 		}
+		depth++;
 	}
 
 	@Override
 	public void complete(int depth) {
-		if (depth == 2 && labels != null) {
-			if (labelsComplete) {
-				// no samples, add result
-				GetResult<K, V> result = new GetResult<>();
-				result.setKey(key);
-				result.setLabels(labels);
-				onResult(result);
-			} else {
-				labelsComplete = true;
-			}
-			return;
-		}
-		// RESP2/RESP3 compat
-		if (depth == 2 && skipKeyReset) {
-			skipKeyReset = false;
-		}
-		if (depth == 1) {
-			if (skipKeyReset) {
-				skipKeyReset = false;
-			} else {
-				key = null;
-			}
+		if (depth == 2 && this.depth > 2) {
+			inLabels = false;
+			inSample = false;
+		} else if (depth == 1 && this.depth == 2) {
+			seriesComplete();
 		}
+		this.depth = depth;
 	}
 
-	private void onResult(GetResult<K, V> result) {
+	private void seriesComplete() {
+		GetResult<K, V> result = new GetResult<>();
+		result.setKey(key);
+		result.setLabels(labels);
+		result.setSample(sample);
 		subscriber.onNext(output, result);
-		labelsComplete = false;
+		key = null;
 		labelKey = null;
 		labels = null;
 		sample = null;
@@ -0,0 +1,208 @@
+package com.redis.lettucemod.output;
+
+import java.nio.ByteBuffer;
+
+import com.redis.lettucemod.search.DocumentMapper;
+import com.redis.lettucemod.search.DocumentMapper.Property;
+import com.redis.lettucemod.search.MappedSearchResults;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.CommandOutput;
+
+/**
+ * {@code FT.SEARCH} output that maps documents to objects while the reply is
+ * decoded, without building intermediate {@link com.redis.lettucemod.search.Document}
+ * maps or decoding field names.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @param <T> Object type.
+ */
+public class MappedSearchOutput<K, V, T> extends CommandOutput<K, V, MappedSearchResults<T>> {
+
+	private final DocumentMapper<T> mapper;
+	private final boolean withScores;
+	private final boolean withSortKeys;
+	private final boolean withPayloads;
+	private boolean sortKeySet = false;
+	private boolean scoreSet = false;
+	private boolean payloadSet = false;
+	private boolean content = false;
+	private boolean fieldName = true;
+	private Property property;
+	private T current;
+	private SearchReply reply;
+
+	public MappedSearchOutput(RedisCodec<K, V> codec, DocumentMapper<T> mapper, boolean withScores,
+			boolean withSortKeys, boolean withPayloads) {
+		super(codec, new MappedSearchResults<>());
+		this.mapper = mapper;
+		this.withScores = withScores;
+		this.withSortKeys = withSortKeys;
+		this.withPayloads = withPayloads;
+	}
+
+	@Override
+	public void set(ByteBuffer bytes) {
+		if (reply != null) {
+			reply.set(bytes);
+			return;
+		}
+		if (content) {
+			if (fieldName) {
+				property = bytes == null ? null : mapper.property(bytes);
+			} else if (property != null && bytes != null) {
+				mapper.set(current, property, bytes);
+			}
+			fieldName = !fieldName;
+			return;
+		}
+		if (current == null) {
+			current = mapper.newInstance();
+			if (bytes != null) {
+				mapper.setId(current, bytes);
+			}
+			return;
+		}
+		if (withScores && !scoreSet) {
+			if (bytes != null) {
+				mapper.setScore(current, NumberParser.parseDouble(bytes));
+			}
+			scoreSet = true;
+			return;
+		}
+		if (withPayloads && !payloadSet) {
+			payloadSet = true;
+			return;
+		}
+		if (withSortKeys && !sortKeySet) {
+			sortKeySet = true;
+			return;
+		}
+		if (bytes == null) {
+			// Document expired between indexing and reply
+			startNewDocument();
+		}
+	}
+
+	@Override
+	public void set(long integer) {
+		if (reply != null) {
+			reply.set(integer);
+			return;
+		}
+		output.setCount(integer);
+	}
+
+	@Override
+	public void set(double number) {
+		if (reply != null) {
+			reply.set(number);
+			return;
+		}
+		if (withScores && !scoreSet) {
+			mapper.setScore(current, number);
+			scoreSet = true;
+		}
+	}
+
+	@Override
+	public void multi(int count) {
+		if (reply != null) {
+			reply.multi(count, false);
+			return;
+		}
+		if (current != null) {
+			content = true;
+			fieldName = true;
+		}
+	}
+
+	@Override
+	public void multiMap(int count) {
+		if (reply == null) {
+			// RESP3 reply
+			reply = new SearchReply(new ReplyHandler(), 0);
+		}
+		reply.multi(count, true);
+	}
+
+	@Override
+	public void complete(int depth) {
+		if (reply != null) {
+			reply.complete(depth);
+			return;
+		}
+		if (content && depth == 1) {
+			output.add(current);
+			startNewDocument();
+		}
+	}
+
+	private void startNewDocument() {
+		current = null;
+		content = false;
+		property = null;
+		payloadSet = false;
+		scoreSet = false;
+		sortKeySet = false;
+	}
+
+	@Override
+	public boolean hasError() {
+		return super.hasError() && !getError().startsWith("Success");
+	}
+
+	private class ReplyHandler implements SearchReply.Handler {
+
+		@Override
+		public void result() {
+			current = mapper.newInstance();
+		}
+
+		@Override
+		public void field(String name, ByteBuffer value) {
+			if ("id".equals(name) && value != null) {
+				mapper.setId(current, value);
+			}
+		}
+
+		@Override
+		public void score(double score) {
+			mapper.setScore(current, score);
+		}
+
+		@Override
+		public void attributes(int count) {
+			fieldName = true;
+		}
+
+		@Override
+		public void attribute(ByteBuffer bytes) {
+			if (fieldName) {
+				property = bytes == null ? null : mapper.property(bytes);
+			} else if (property != null && bytes != null) {
+				mapper.set(current, property, bytes);
+			}
+			fieldName = !fieldName;
+		}
+
+		@Override
+		public void attributeList(int count) {
+			// Properties are mapped from scalar values
+		}
+
+		@Override
+		public void resultComplete() {
+			output.add(current);
+			startNewDocument();
+		}
+
+		@Override
+		public void totalResults(long count) {
+			output.setCount(count);
+		}
+
+	}
+
+}
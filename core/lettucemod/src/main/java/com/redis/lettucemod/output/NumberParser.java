@@ -0,0 +1,116 @@
+package com.redis.lettucemod.output;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers from reply bytes without decoding them into a {@link String}
+ * first. Plain integers and decimals take a fast path; anything else, e.g.
+ * exponents, {@code inf} or {@code nan}, falls back to {@link String} parsing.
+ * The position of the given buffers is not changed.
+ */
+public final class NumberParser {
+
+	// Largest integer mantissa that doubles represent exactly
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	// Powers of ten that doubles represent exactly
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private NumberParser() {
+	}
+
+	public static long parseLong(ByteBuffer bytes) {
+		int position = bytes.position();
+		int limit = bytes.limit();
+		if (position == limit) {
+			throw new NumberFormatException("Empty number");
+		}
+		boolean negative = false;
+		byte first = bytes.get(position);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			position++;
+		}
+		// 18 digits cannot overflow
+		if (position == limit || limit - position > 18) {
+			return Long.parseLong(string(bytes));
+		}
+		long value = 0;
+		for (int index = position; index < limit; index++) {
+			int digit = bytes.get(index) - '0';
+			if (digit < 0 || digit > 9) {
+				return Long.parseLong(string(bytes));
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	public static double parseDouble(ByteBuffer bytes) {
+		int position = bytes.position();
+		int limit = bytes.limit();
+		boolean negative = false;
+		if (position < limit) {
+			byte first = bytes.get(position);
+			if (first == '-' || first == '+') {
+				negative = first == '-';
+				position++;
+			}
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for (int index = position; index < limit; index++) {
+			byte b = bytes.get(index);
+			if (b == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+				continue;
+			}
+			int digit = b - '0';
+			if (digit < 0 || digit > 9) {
+				return parseDoubleSlow(bytes);
+			}
+			mantissa = mantissa * 10 + digit;
+			digits++;
+			if (mantissa >= MAX_EXACT_MANTISSA) {
+				return parseDoubleSlow(bytes);
+			}
+			if (fractionDigits >= 0) {
+				fractionDigits++;
+			}
+		}
+		if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+			return parseDoubleSlow(bytes);
+		}
+		// Exact mantissa and power of ten so the division is correctly rounded
+		double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+		return negative ? -value : value;
+	}
+
+	private static double parseDoubleSlow(ByteBuffer bytes) {
+		String string = string(bytes);
+		switch (string.toLowerCase()) {
+		case "inf":
+		case "+inf":
+		case "infinity":
+		case "+infinity":
+			return Double.POSITIVE_INFINITY;
+		case "-inf":
+		case "-infinity":
+			return Double.NEGATIVE_INFINITY;
+		case "nan":
+		case "-nan":
+		case "+nan":
+			return Double.NaN;
+		default:
+			return Double.parseDouble(string);
+		}
+	}
+
+	private static String string(ByteBuffer bytes) {
+		return StandardCharsets.US_ASCII.decode(bytes.duplicate()).toString();
+	}
+
+}
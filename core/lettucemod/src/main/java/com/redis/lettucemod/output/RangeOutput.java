@@ -12,7 +12,6 @@ import com.redis.lettucemod.timeseries.Sample;
 
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.internal.LettuceAssert;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 import io.lettuce.core.output.ListSubscriber;
 import io.lettuce.core.output.StreamingOutput;
@@ -20,16 +19,20 @@ import io.lettuce.core.output.StreamingOutput;
 public class RangeOutput<K, V> extends CommandOutput<K, V, List<RangeResult<K, V>>>
 		implements StreamingOutput<RangeResult<K, V>> {
 
+	private enum Section {
+		NONE, LABELS, METADATA, SAMPLES
+	}
+
 	private Subscriber<RangeResult<K, V>> subscriber;
+	private boolean initialized;
+	private boolean resp3;
+	private int depth;
+	private Section section = Section.NONE;
 	private K key;
 	private K labelKey;
 	private Map<K, V> labels;
 	private long timestamp;
 	private List<Sample> samples;
-	private boolean initialized;
-	private boolean skipKeyReset;
-	private boolean keyComplete;
-	private boolean labelsComplete;
 
 	public RangeOutput(RedisCodec<K, V> codec) {
 		super(codec, Collections.emptyList());
@@ -38,34 +41,29 @@ public class RangeOutput<K, V> extends CommandOutput<K, V, List<RangeResult<K, V
 
 	@Override
 	public void set(ByteBuffer bytes) {
-
-		if (key == null) {
-			if (bytes == null) {
-				return;
-			}
-			key = codec.decodeKey(bytes);
-			skipKeyReset = true;
-			return;
-		}
-
-		if (labelsComplete) {
-			sampleValue(bytes == null ? null : LettuceStrings.toDouble(decodeString(bytes)));
-			return;
-		}
-
-		if (labelKey == null) {
-			if (labels == null) {
-				labels = new LinkedHashMap<>();
+		switch (section) {
+		case LABELS:
+			if (labelKey == null) {
+				if (bytes != null) {
+					labelKey = codec.decodeKey(bytes);
+				}
+			} else {
+				labels.put(labelKey, bytes == null ? null : codec.decodeValue(bytes));
+				labelKey = null;
 			}
-			if (bytes == null) {
-				return;
+			break;
+		case SAMPLES:
+			sampleValue(bytes == null ? null : NumberParser.parseDouble(bytes));
+			break;
+		case METADATA:
+			break;
+		default:
+			// RESP3: map key, RESP2: first element of the series array
+			if (key == null && bytes != null) {
+				key = codec.decodeKey(bytes);
 			}
-			labelKey = codec.decodeKey(bytes);
-			return;
+			break;
 		}
-
-		labels.put(labelKey, bytes == null ? null : codec.decodeValue(bytes));
-		labelKey = null;
 	}
 
 	@Override
@@ -75,13 +73,12 @@ public class RangeOutput<K, V> extends CommandOutput<K, V, List<RangeResult<K, V
 
 	@Override
 	public void set(double number) {
-		sampleValue(number);
+		if (section == Section.SAMPLES) {
+			sampleValue(number);
+		}
 	}
 
 	private void sampleValue(Double value) {
-		if (samples == null) {
-			samples = new ArrayList<>();
-		}
 		if (value != null) {
 			samples.add(Sample.of(timestamp, value));
 		}
@@ -90,50 +87,54 @@ public class RangeOutput<K, V> extends CommandOutput<K, V, List<RangeResult<K, V
 
 	@Override
 	public void multi(int count) {
+		enter(count, false);
+	}
+
+	@Override
+	public void multiMap(int count) {
+		enter(count, true);
+	}
+
+	private void enter(int count, boolean map) {
 		if (!initialized) {
 			output = OutputFactory.newList(count);
 			initialized = true;
+			resp3 = map;
+		} else if (depth == 2) {
+			// RESP2: [key, labels, samples], RESP3: [labels, metadata..., samples]
+			if (labels == null) {
+				labels = new LinkedHashMap<>();
+				section = Section.LABELS;
+			} else if (resp3 && map) {
+				section = Section.METADATA;
+			} else {
+				samples = new ArrayList<>();
+				section = Section.SAMPLES;
+			}
 		}
+		depth++;
 	}
 
 	@Override
 	public void complete(int depth) {
-		if (depth == 2) {
-			if (keyComplete) {
-				if (labelsComplete) {
-					labelsComplete();
-				} else {
-					labelsComplete = true;
-				}
-			} else {
-				keyComplete = true;
-			}
-		} else {
-			if (depth == 1) {
-				if (skipKeyReset) {
-					skipKeyReset = false;
-				} else {
-					key = null;
-					keyComplete = false;
-				}
-			}
+		if (depth == 2 && this.depth > 2) {
+			section = Section.NONE;
+		} else if (depth == 1 && this.depth == 2) {
+			seriesComplete();
 		}
+		this.depth = depth;
 	}
 
-	private void labelsComplete() {
+	private void seriesComplete() {
 		RangeResult<K, V> result = new RangeResult<>();
 		result.setKey(key);
 		result.setLabels(labels == null ? Collections.emptyMap() : labels);
 		result.setSamples(samples == null ? Collections.emptyList() : samples);
 		subscriber.onNext(output, result);
-		labelsComplete = false;
+		key = null;
 		labelKey = null;
 		labels = null;
 		samples = null;
-		// RESP2/RESP3 compat
-		if (skipKeyReset) {
-			skipKeyReset = false;
-		}
 	}
 
 	@Override
@@ -2,7 +2,6 @@ package com.redis.lettucemod.output;
 
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.internal.LettuceAssert;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 import io.lettuce.core.output.ListSubscriber;
 import io.lettuce.core.output.StreamingOutput;
@@ -28,7 +27,7 @@ public class SampleListOutput<K, V> extends CommandOutput<K, V, List<Sample>> im
 
     @Override
     public void set(ByteBuffer bytes) {
-        double value = LettuceStrings.toDouble(decodeString(bytes));
+        double value = NumberParser.parseDouble(bytes);
         set(value);
     }
 
@@ -5,7 +5,6 @@ import java.nio.ByteBuffer;
 import com.redis.lettucemod.timeseries.Sample;
 
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 
 public class SampleOutput<K, V> extends CommandOutput<K, V, Sample> {
@@ -16,7 +15,7 @@ public class SampleOutput<K, V> extends CommandOutput<K, V, Sample> {
 
 	@Override
 	public void set(ByteBuffer bytes) {
-		output.setValue(LettuceStrings.toDouble(decodeString(bytes)));
+		output.setValue(NumberParser.parseDouble(bytes));
 	}
 
 	@Override
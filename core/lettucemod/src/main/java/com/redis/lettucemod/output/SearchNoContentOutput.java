@@ -1,7 +1,6 @@
 package com.redis.lettucemod.output;
 
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 
 import java.nio.ByteBuffer;
@@ -13,6 +12,7 @@ public class SearchNoContentOutput<K, V> extends CommandOutput<K, V, SearchResul
 
     private Document<K, V> current;
     private final boolean withScores;
+    private SearchReply reply;
 
     public SearchNoContentOutput(RedisCodec<K, V> codec, boolean withScores) {
         super(codec, new SearchResults<>());
@@ -21,6 +21,10 @@ public class SearchNoContentOutput<K, V> extends CommandOutput<K, V, SearchResul
 
     @Override
     public void set(ByteBuffer bytes) {
+        if (reply != null) {
+            reply.set(bytes);
+            return;
+        }
         if (current == null) {
             current = new Document<>();
             if (bytes != null) {
@@ -32,7 +36,7 @@ public class SearchNoContentOutput<K, V> extends CommandOutput<K, V, SearchResul
             }
         } else {
             if (withScores) {
-                current.setScore(LettuceStrings.toDouble(decodeString(bytes)));
+                current.setScore(NumberParser.parseDouble(bytes));
             }
             current = null;
         }
@@ -40,15 +44,93 @@ public class SearchNoContentOutput<K, V> extends CommandOutput<K, V, SearchResul
 
     @Override
     public void set(long integer) {
+        if (reply != null) {
+            reply.set(integer);
+            return;
+        }
         output.setCount(integer);
     }
 
     @Override
     public void set(double number) {
+        if (reply != null) {
+            reply.set(number);
+            return;
+        }
         if (withScores) {
             current.setScore(number);
         }
         current = null;
     }
 
+    @Override
+    public void multi(int count) {
+        if (reply != null) {
+            reply.multi(count, false);
+        }
+    }
+
+    @Override
+    public void multiMap(int count) {
+        if (reply == null) {
+            // RESP3 reply
+            reply = new SearchReply(new ReplyHandler(), 0);
+        }
+        reply.multi(count, true);
+    }
+
+    @Override
+    public void complete(int depth) {
+        if (reply != null) {
+            reply.complete(depth);
+        }
+    }
+
+    private class ReplyHandler implements SearchReply.Handler {
+
+        @Override
+        public void result() {
+            current = new Document<>();
+        }
+
+        @Override
+        public void field(String name, ByteBuffer value) {
+            if ("id".equals(name) && value != null) {
+                current.setId(codec.decodeKey(value));
+            }
+        }
+
+        @Override
+        public void score(double score) {
+            current.setScore(score);
+        }
+
+        @Override
+        public void attributes(int count) {
+            // NOCONTENT
+        }
+
+        @Override
+        public void attribute(ByteBuffer bytes) {
+            // NOCONTENT
+        }
+
+        @Override
+        public void attributeList(int count) {
+            // NOCONTENT
+        }
+
+        @Override
+        public void resultComplete() {
+            output.add(current);
+            current = null;
+        }
+
+        @Override
+        public void totalResults(long count) {
+            output.setCount(count);
+        }
+
+    }
+
 }
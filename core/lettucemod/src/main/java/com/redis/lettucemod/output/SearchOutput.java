@@ -6,7 +6,6 @@ import com.redis.lettucemod.search.Document;
 import com.redis.lettucemod.search.SearchResults;
 
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 import io.lettuce.core.output.MapOutput;
 
@@ -20,6 +19,7 @@ public class SearchOutput<K, V> extends CommandOutput<K, V, SearchResults<K, V>>
 	private boolean payloadSet = false;
 	private MapOutput<K, V> contentOutput;
 	private Document<K, V> currentDocument;
+	private SearchReply reply;
 
 	public SearchOutput(RedisCodec<K, V> codec) {
 		this(codec, false, false, false);
@@ -34,6 +34,10 @@ public class SearchOutput<K, V> extends CommandOutput<K, V, SearchResults<K, V>>
 
 	@Override
 	public void set(ByteBuffer bytes) {
+		if (reply != null) {
+			reply.set(bytes);
+			return;
+		}
 		if (currentDocument == null) {
 			currentDocument = new Document<>();
 			if (bytes != null) {
@@ -43,7 +47,7 @@ public class SearchOutput<K, V> extends CommandOutput<K, V, SearchResults<K, V>>
 		}
 		if (withScores && !scoreSet) {
 			if (bytes != null) {
-				currentDocument.setScore(LettuceStrings.toDouble(decodeString(bytes)));
+				currentDocument.setScore(NumberParser.parseDouble(bytes));
 			}
 			scoreSet = true;
 			return;
@@ -73,11 +77,19 @@ public class SearchOutput<K, V> extends CommandOutput<K, V, SearchResults<K, V>>
 
 	@Override
 	public void set(long integer) {
+		if (reply != null) {
+			reply.set(integer);
+			return;
+		}
 		output.setCount(integer);
 	}
 
 	@Override
 	public void set(double number) {
+		if (reply != null) {
+			reply.set(number);
+			return;
+		}
 		if (withScores && !scoreSet) {
 			currentDocument.setScore(number);
 			scoreSet = true;
@@ -86,6 +98,10 @@ public class SearchOutput<K, V> extends CommandOutput<K, V, SearchResults<K, V>>
 
 	@Override
 	public void complete(int depth) {
+		if (reply != null) {
+			reply.complete(depth);
+			return;
+		}
 		if (contentOutput != null && depth == 1) {
 			currentDocument.putAll(contentOutput.get());
 			output.add(currentDocument);
@@ -103,14 +119,92 @@ public class SearchOutput<K, V> extends CommandOutput<K, V, SearchResults<K, V>>
 
 	@Override
 	public void multi(int count) {
+		if (reply != null) {
+			reply.multi(count, false);
+			return;
+		}
 		if (currentDocument != null) {
 			contentOutput = new MapOutput<>(codec);
 			contentOutput.multi(count);
 		}
 	}
 
+	@Override
+	public void multiMap(int count) {
+		if (reply == null) {
+			// RESP3 reply
+			reply = new SearchReply(new ReplyHandler(), 0);
+		}
+		reply.multi(count, true);
+	}
+
 	@Override
 	public boolean hasError() {
 		return super.hasError() && !getError().startsWith("Success");
 	}
+
+	private class ReplyHandler implements SearchReply.Handler {
+
+		@Override
+		public void result() {
+			currentDocument = new Document<>();
+		}
+
+		@Override
+		public void field(String name, ByteBuffer value) {
+			if (value == null) {
+				return;
+			}
+			switch (name) {
+			case "id":
+				currentDocument.setId(codec.decodeKey(value));
+				break;
+			case "payload":
+				currentDocument.setPayload(codec.decodeValue(value));
+				break;
+			case "sortkey":
+				currentDocument.setSortKey(codec.decodeValue(value));
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void score(double score) {
+			currentDocument.setScore(score);
+		}
+
+		@Override
+		public void attributes(int count) {
+			contentOutput = new MapOutput<>(codec);
+			contentOutput.multi(count);
+		}
+
+		@Override
+		public void attribute(ByteBuffer bytes) {
+			contentOutput.set(bytes);
+		}
+
+		@Override
+		public void attributeList(int count) {
+			// Document values are scalars
+		}
+
+		@Override
+		public void resultComplete() {
+			if (contentOutput != null) {
+				currentDocument.putAll(contentOutput.get());
+			}
+			output.add(currentDocument);
+			startNewDocument();
+		}
+
+		@Override
+		public void totalResults(long count) {
+			output.setCount(count);
+		}
+
+	}
+
 }
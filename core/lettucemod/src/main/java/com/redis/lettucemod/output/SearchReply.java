@@ -0,0 +1,180 @@
+package com.redis.lettucemod.output;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Follows the RESP3 reply of {@code FT.SEARCH}, {@code FT.AGGREGATE} and
+ * {@code FT.CURSOR READ}, which is a map of the form:
+ *
+ * <pre>
+ * {attributes: [], format: STRING, warning: [], total_results: n,
+ *  results: [{id: .., score: .., payload: .., sortkey: .., extra_attributes: {name: value, ..}, values: []}, ..]}
+ * </pre>
+ *
+ * Outputs forward the frames they receive once the reply map started and get
+ * called back with the parts they are interested in. Field names and values of
+ * {@code extra_attributes} are passed on flattened, in the same order as RESP2
+ * document content.
+ */
+class SearchReply {
+
+	private static final String RESULTS = "results";
+	private static final String TOTAL_RESULTS = "total_results";
+	private static final String EXTRA_ATTRIBUTES = "extra_attributes";
+	private static final String SCORE = "score";
+	private static final int MAX_DEPTH = 32;
+
+	interface Handler {
+
+		void result();
+
+		/**
+		 *
+		 * @param name  result field name, e.g. {@code id}, {@code payload} or
+		 *              {@code sortkey}
+		 * @param value field value, may be null
+		 */
+		void field(String name, ByteBuffer value);
+
+		void score(double score);
+
+		/**
+		 *
+		 * @param count number of field names and values
+		 */
+		void attributes(int count);
+
+		void attribute(ByteBuffer bytes);
+
+		/**
+		 *
+		 * @param count number of elements of an array attribute value
+		 */
+		void attributeList(int count);
+
+		void resultComplete();
+
+		void totalResults(long count);
+
+	}
+
+	private final Handler handler;
+	private final int base;
+	private final boolean[] maps = new boolean[MAX_DEPTH];
+	private final int[] elements = new int[MAX_DEPTH];
+	private int depth;
+	private String replyKey;
+	private String resultKey;
+
+	/**
+	 *
+	 * @param handler receives the parts of the reply
+	 * @param depth   depth at which the reply map starts, e.g. 1 when the map is
+	 *                nested in a cursor reply
+	 */
+	SearchReply(Handler handler, int depth) {
+		this.handler = handler;
+		this.base = depth;
+		this.depth = depth;
+	}
+
+	/**
+	 *
+	 * @return true if the reply map has been read entirely
+	 */
+	boolean isComplete() {
+		return depth == base && elements[base] > 0;
+	}
+
+	void multi(int count, boolean map) {
+		int parent = depth;
+		depth++;
+		maps[depth] = map;
+		elements[depth] = 0;
+		if (isResults() && parent == base + 2) {
+			handler.result();
+		} else if (isAttributes() && parent == base + 3) {
+			handler.attributes(map ? count * 2 : count);
+		} else if (isAttributes() && parent > base + 3) {
+			handler.attributeList(map ? count * 2 : count);
+		}
+	}
+
+	void set(ByteBuffer bytes) {
+		if (isKey()) {
+			if (depth == base + 1) {
+				replyKey = string(bytes);
+				return;
+			}
+			if (isResults() && depth == base + 3) {
+				resultKey = string(bytes);
+				return;
+			}
+		}
+		if (isAttributes() && depth > base + 3) {
+			handler.attribute(bytes);
+			return;
+		}
+		if (isResults() && depth == base + 3) {
+			if (SCORE.equals(resultKey)) {
+				if (bytes != null) {
+					handler.score(NumberParser.parseDouble(bytes));
+				}
+			} else {
+				handler.field(resultKey, bytes);
+			}
+		}
+	}
+
+	void set(long integer) {
+		if (depth == base + 1 && !isKey() && TOTAL_RESULTS.equals(replyKey)) {
+			handler.totalResults(integer);
+			return;
+		}
+		if (isAttributes() && depth > base + 3) {
+			handler.attribute(bytes(String.valueOf(integer)));
+		}
+	}
+
+	void set(double number) {
+		if (isResults() && depth == base + 3 && SCORE.equals(resultKey)) {
+			handler.score(number);
+			return;
+		}
+		if (isAttributes() && depth > base + 3) {
+			handler.attribute(bytes(String.valueOf(number)));
+		}
+	}
+
+	void complete(int depth) {
+		boolean resultComplete = isResults() && depth == base + 2 && this.depth == base + 3;
+		this.depth = depth;
+		elements[depth]++;
+		if (resultComplete) {
+			handler.resultComplete();
+			resultKey = null;
+		}
+	}
+
+	private boolean isKey() {
+		return maps[depth] && elements[depth] % 2 == 0;
+	}
+
+	private boolean isResults() {
+		return depth > base + 1 && RESULTS.equals(replyKey);
+	}
+
+	private boolean isAttributes() {
+		return depth > base + 2 && isResults() && EXTRA_ATTRIBUTES.equals(resultKey);
+	}
+
+	private static String string(ByteBuffer bytes) {
+		return bytes == null ? null : StandardCharsets.US_ASCII.decode(bytes.duplicate()).toString();
+	}
+
+	private static ByteBuffer bytes(String string) {
+		return ByteBuffer.wrap(string.getBytes(StandardCharsets.US_ASCII));
+	}
+
+}
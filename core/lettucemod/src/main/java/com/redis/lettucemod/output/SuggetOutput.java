@@ -1,7 +1,6 @@
 package com.redis.lettucemod.output;
 
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 
 import java.nio.ByteBuffer;
@@ -44,7 +43,7 @@ public class SuggetOutput<K, V> extends CommandOutput<K, V, List<Suggestion<V>>>
 			return;
 		}
 		if (withScores && !scoreSet) {
-			current.setScore(LettuceStrings.toDouble(decodeString(bytes)));
+			current.setScore(NumberParser.parseDouble(bytes));
 			scoreSet = true;
 			if (!withPayloads) {
 				current = null;
@@ -1,7 +1,6 @@
 package com.redis.lettucemod.output;
 
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 
 import java.nio.ByteBuffer;
@@ -19,7 +18,7 @@ public class TDigestDoubleListOutput<K,V> extends CommandOutput<K, V, List<Doubl
         if(bytes == null){
             output.add(null);
         } else{
-            output.add(LettuceStrings.toDouble(decodeString(bytes)));
+            output.add(NumberParser.parseDouble(bytes));
         }
     }
 
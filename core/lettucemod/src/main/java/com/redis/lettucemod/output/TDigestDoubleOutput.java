@@ -1,7 +1,6 @@
 package com.redis.lettucemod.output;
 
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.internal.LettuceStrings;
 import io.lettuce.core.output.CommandOutput;
 
 import java.nio.ByteBuffer;
@@ -16,7 +15,7 @@ public class TDigestDoubleOutput<K,V> extends CommandOutput<K,V,Double> {
         if(bytes == null){
             output = null;
         } else{
-            output = LettuceStrings.toDouble(decodeString(bytes));
+            output = NumberParser.parseDouble(bytes);
         }
     }
 
@@ -19,6 +19,12 @@ public class TDigestInfoOutput<K, V> extends CommandOutput<K, V, TDigestInfo> {
 		field = decodeString(buffer);
 	}
 
+	@Override
+	public void set(double number) {
+		// RESP3 weights
+		set((long) number);
+	}
+
 	@Override
 	public void set(long integer) {
 		switch (field) {
@@ -17,14 +17,19 @@ public class TopKInfoOutput<K, V> extends CommandOutput<K, V, TopKInfo> {
 
 	@Override
 	public void set(ByteBuffer buffer) {
-		String str = decodeString(buffer);
 		if (field != null && field.equals("decay") && !decaySet) {
-			output.setDecay(Double.parseDouble(str));
+			output.setDecay(NumberParser.parseDouble(buffer));
 		} else {
-			field = str;
+			field = decodeString(buffer);
 		}
 	}
 
+	@Override
+	public void set(double number) {
+		// RESP3 decay
+		output.setDecay(number);
+	}
+
 	@Override
 	public void set(long integer) {
 		switch (field) {
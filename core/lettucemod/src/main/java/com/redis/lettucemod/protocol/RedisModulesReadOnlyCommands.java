@@ -0,0 +1,58 @@
+package com.redis.lettucemod.protocol;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.lettuce.core.ReadOnlyCommands;
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+/**
+ * Module commands that do not modify data. Redis Cluster connections route
+ * these according to their {@link io.lettuce.core.ReadFrom} setting, like
+ * Lettuce does for the read-only core commands.
+ */
+public class RedisModulesReadOnlyCommands {
+
+	private static final Set<ProtocolKeyword> READ_ONLY_COMMANDS = Collections.unmodifiableSet(new HashSet<>(
+			Arrays.asList(SearchCommandType.SEARCH, SearchCommandType.AGGREGATE, SearchCommandType.INFO,
+					SearchCommandType.SUGGET, SearchCommandType.SUGLEN, SearchCommandType.LIST,
+					SearchCommandType.TAGVALS, SearchCommandType.DICTDUMP, TimeSeriesCommandType.RANGE,
+					TimeSeriesCommandType.REVRANGE, TimeSeriesCommandType.MRANGE, TimeSeriesCommandType.MREVRANGE,
+					TimeSeriesCommandType.GET, TimeSeriesCommandType.MGET, TimeSeriesCommandType.INFO,
+					TimeSeriesCommandType.QUERYINDEX, BloomFilterCommandType.CARD, BloomFilterCommandType.EXISTS,
+					BloomFilterCommandType.INFO, BloomFilterCommandType.MEXISTS, CuckooFilterCommandType.COUNT,
+					CuckooFilterCommandType.EXISTS, CuckooFilterCommandType.INFO, CuckooFilterCommandType.MEXISTS,
+					CountMinSketchCommandType.INFO, CountMinSketchCommandType.QUERY, TopKCommandType.INFO,
+					TopKCommandType.LIST, TopKCommandType.QUERY, TDigestCommandType.BYRANK,
+					TDigestCommandType.BYREVRANK, TDigestCommandType.CDF, TDigestCommandType.INFO,
+					TDigestCommandType.MAX, TDigestCommandType.MIN, TDigestCommandType.QUANTILE,
+					TDigestCommandType.RANK, TDigestCommandType.REVRANK, TDigestCommandType.TRIMMED_MEAN)));
+
+	private RedisModulesReadOnlyCommands() {
+	}
+
+	/**
+	 *
+	 * @param command the command type
+	 * @return true if the given command is a read-only module or core command
+	 */
+	public static boolean isReadOnlyCommand(ProtocolKeyword command) {
+		return READ_ONLY_COMMANDS.contains(command) || ReadOnlyCommands.isReadOnlyCommand(command);
+	}
+
+	public static Set<ProtocolKeyword> getReadOnlyCommands() {
+		return READ_ONLY_COMMANDS;
+	}
+
+	/**
+	 *
+	 * @return a predicate for
+	 *         {@link io.lettuce.core.ClientOptions.Builder#readOnlyCommands(ReadOnlyCommands.ReadOnlyPredicate)}
+	 */
+	public static ReadOnlyCommands.ReadOnlyPredicate asPredicate() {
+		return RedisModulesReadOnlyCommands::isReadOnlyCommand;
+	}
+
+}
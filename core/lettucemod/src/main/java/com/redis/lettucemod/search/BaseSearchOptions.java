@@ -31,6 +31,14 @@ public class BaseSearchOptions<K, V> implements RediSearchArgument<K, V> {
 		this.dialect = builder.dialect;
 	}
 
+	protected BaseSearchOptions(BaseSearchOptions<K, V> options) {
+		this.verbatim = options.verbatim;
+		this.timeout = options.timeout;
+		this.limit = options.limit;
+		this.params = new ArrayList<>(options.params);
+		this.dialect = options.dialect;
+	}
+
 	public Optional<Duration> getTimeout() {
 		return timeout;
 	}
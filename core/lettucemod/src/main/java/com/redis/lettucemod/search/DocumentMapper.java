@@ -0,0 +1,532 @@
+package com.redis.lettucemod.search;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.output.MappedSearchOutput;
+import com.redis.lettucemod.output.NumberParser;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+import io.lettuce.core.protocol.Command;
+
+/**
+ * Maps {@code FT.SEARCH} results of hash documents to objects of a given class
+ * while the reply is decoded. Setters, or fields when there is no setter, are
+ * resolved once into {@link MethodHandle}s when the mapper is built, so no
+ * reflection happens per document. Numeric values are parsed straight from the
+ * reply bytes into primitive properties, and values of collection or array
+ * properties are split on the tag separator of the matching {@link TagField}.
+ * <p>
+ * Index fields are matched to properties of the same name, ignoring case and
+ * underscores, unless mapped explicitly with
+ * {@link Builder#property(String, String)}. Fields without a matching property
+ * are ignored. Supported property types are primitives and their wrappers,
+ * {@link String}, enums, {@link GeoLocation}, and {@link String} arrays, lists,
+ * sets and collections.
+ *
+ * @param <T> Object type.
+ */
+public class DocumentMapper<T> {
+
+	private static final char DEFAULT_TAG_SEPARATOR = ',';
+
+	private final Class<T> type;
+	private final MethodHandle constructor;
+	private final Map<ByteBuffer, Property> properties;
+	private final Property id;
+	private final MethodHandle score;
+
+	private DocumentMapper(Builder<T> builder) {
+		this.type = builder.type;
+		this.constructor = constructor(type);
+		this.properties = new HashMap<>();
+		Map<String, java.lang.reflect.Field> javaFields = javaFields(type);
+		for (Field<String> field : builder.fields) {
+			String name = builder.mappings.getOrDefault(field.getName(), field.getName());
+			java.lang.reflect.Field javaField = javaField(javaFields, name);
+			if (javaField == null) {
+				continue;
+			}
+			Property property = property(javaField, separator(field));
+			properties.put(key(field.getName()), property);
+			field.getAs().ifPresent(as -> properties.put(key(as), property));
+		}
+		if (builder.fields.isEmpty()) {
+			for (java.lang.reflect.Field javaField : javaFields.values()) {
+				properties.put(key(javaField.getName()), property(javaField, DEFAULT_TAG_SEPARATOR));
+			}
+		}
+		this.id = builder.id == null ? null : property(requiredJavaField(javaFields, builder.id), DEFAULT_TAG_SEPARATOR);
+		this.score = builder.score == null ? null
+				: setter(requiredJavaField(javaFields, builder.score)).asType(
+						MethodType.methodType(void.class, Object.class, double.class));
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T newInstance() {
+		try {
+			return (T) (Object) constructor.invokeExact();
+		} catch (Throwable e) {
+			throw new RedisException("Could not instantiate " + type.getName(), e);
+		}
+	}
+
+	/**
+	 *
+	 * @param name field name as returned in the reply
+	 * @return the property the given field is mapped to, or null if the field is
+	 *         not mapped
+	 */
+	public Property property(ByteBuffer name) {
+		return properties.get(name);
+	}
+
+	public void set(T object, Property property, ByteBuffer value) {
+		try {
+			property.set(object, value);
+		} catch (Throwable e) {
+			throw new RedisException("Could not set property " + property.name + " of " + type.getName(), e);
+		}
+	}
+
+	public void setId(T object, ByteBuffer value) {
+		if (id != null) {
+			set(object, id, value);
+		}
+	}
+
+	public void setScore(T object, double value) {
+		if (score == null) {
+			return;
+		}
+		try {
+			score.invokeExact((Object) object, value);
+		} catch (Throwable e) {
+			throw new RedisException("Could not set score of " + type.getName(), e);
+		}
+	}
+
+	public MappedSearchResults<T> search(StatefulRedisModulesConnection<String, String> connection, String index,
+			String query) {
+		return search(connection, index, query, new SearchOptions<>());
+	}
+
+	public MappedSearchResults<T> search(StatefulRedisModulesConnection<String, String> connection, String index,
+			String query, SearchOptions<String, String> options) {
+		return LettuceFutures.awaitOrCancel(searchAsync(connection, index, query, options),
+				connection.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	public RedisFuture<MappedSearchResults<T>> searchAsync(StatefulRedisModulesConnection<String, String> connection,
+			String index, String query, SearchOptions<String, String> options) {
+		LettuceAssert.isTrue(!options.isNoContent(), "NOCONTENT is not supported");
+		MappedSearchOutput<String, String, T> output = new MappedSearchOutput<>(StringCodec.UTF8, this,
+				options.isWithScores(), options.isWithSortKeys(), options.isWithPayloads());
+		Command<String, String, MappedSearchResults<T>> command = new SearchCommandBuilder<>(StringCodec.UTF8)
+				.search(index, query, options, output);
+		return connection.async().dispatch(command.getType(), command.getOutput(), command.getArgs());
+	}
+
+	private static ByteBuffer key(String name) {
+		return ByteBuffer.wrap(name.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static char separator(Field<String> field) {
+		if (field instanceof TagField) {
+			return ((TagField<String>) field).getSeparator().orElse(DEFAULT_TAG_SEPARATOR);
+		}
+		return DEFAULT_TAG_SEPARATOR;
+	}
+
+	private static MethodHandle constructor(Class<?> type) {
+		try {
+			Constructor<?> constructor = type.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(constructor)
+					.asType(MethodType.methodType(Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(type.getName() + " must have a no-arg constructor", e);
+		}
+	}
+
+	private static Map<String, java.lang.reflect.Field> javaFields(Class<?> type) {
+		Map<String, java.lang.reflect.Field> fields = new LinkedHashMap<>();
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			for (java.lang.reflect.Field field : current.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+					fields.putIfAbsent(field.getName(), field);
+				}
+			}
+		}
+		return fields;
+	}
+
+	private static java.lang.reflect.Field javaField(Map<String, java.lang.reflect.Field> fields, String name) {
+		java.lang.reflect.Field field = fields.get(name);
+		if (field != null) {
+			return field;
+		}
+		String normalized = normalize(name);
+		for (java.lang.reflect.Field candidate : fields.values()) {
+			if (normalize(candidate.getName()).equals(normalized)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private static java.lang.reflect.Field requiredJavaField(Map<String, java.lang.reflect.Field> fields,
+			String name) {
+		java.lang.reflect.Field field = fields.get(name);
+		LettuceAssert.notNull(field, "No such property: " + name);
+		return field;
+	}
+
+	private static String normalize(String name) {
+		return name.replace("_", "").toLowerCase();
+	}
+
+	/**
+	 *
+	 * @return a handle setting the given field through its setter if there is
+	 *         one, directly otherwise
+	 */
+	private static MethodHandle setter(java.lang.reflect.Field field) {
+		String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+		try {
+			try {
+				Method method = field.getDeclaringClass().getDeclaredMethod(name, field.getType());
+				method.setAccessible(true);
+				return MethodHandles.lookup().unreflect(method);
+			} catch (NoSuchMethodException e) {
+				field.setAccessible(true);
+				return MethodHandles.lookup().unreflectSetter(field);
+			}
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Property " + field.getName() + " is not accessible", e);
+		}
+	}
+
+	private static Property property(java.lang.reflect.Field field, char separator) {
+		MethodHandle setter = setter(field);
+		String name = field.getName();
+		Class<?> type = field.getType();
+		if (type == double.class) {
+			return new DoubleProperty(name, setter);
+		}
+		if (type == long.class) {
+			return new LongProperty(name, setter);
+		}
+		if (type == int.class) {
+			return new IntProperty(name, setter);
+		}
+		if (type == float.class) {
+			return new FloatProperty(name, setter);
+		}
+		if (type == boolean.class) {
+			return new BooleanProperty(name, setter);
+		}
+		return new ObjectProperty(name, setter, converter(field, separator));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Function<ByteBuffer, Object> converter(java.lang.reflect.Field field, char separator) {
+		Class<?> type = field.getType();
+		if (type == String.class) {
+			return DocumentMapper::string;
+		}
+		if (type == Double.class) {
+			return NumberParser::parseDouble;
+		}
+		if (type == Long.class) {
+			return NumberParser::parseLong;
+		}
+		if (type == Integer.class) {
+			return v -> Math.toIntExact(NumberParser.parseLong(v));
+		}
+		if (type == Float.class) {
+			return v -> (float) NumberParser.parseDouble(v);
+		}
+		if (type == Boolean.class) {
+			return DocumentMapper::parseBoolean;
+		}
+		if (type.isEnum()) {
+			return v -> Enum.valueOf((Class) type, string(v));
+		}
+		if (type == GeoLocation.class) {
+			return v -> GeoLocation.of(string(v));
+		}
+		if (type == String[].class) {
+			return v -> split(v, separator).toArray(new String[0]);
+		}
+		if (type == List.class || type == Collection.class) {
+			assertStringElements(field);
+			return v -> split(v, separator);
+		}
+		if (type == Set.class) {
+			assertStringElements(field);
+			return v -> new LinkedHashSet<>(split(v, separator));
+		}
+		throw new IllegalArgumentException("Unsupported type " + type.getName() + " for property " + field.getName());
+	}
+
+	private static void assertStringElements(java.lang.reflect.Field field) {
+		Type type = field.getGenericType();
+		if (type instanceof ParameterizedType) {
+			Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+			LettuceAssert.isTrue(arguments.length == 1 && arguments[0] == String.class,
+					"Only String elements are supported for property " + field.getName());
+		}
+	}
+
+	private static String string(ByteBuffer bytes) {
+		return StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+	}
+
+	private static boolean parseBoolean(ByteBuffer bytes) {
+		if (bytes.remaining() == 1) {
+			return bytes.get(bytes.position()) == '1';
+		}
+		return Boolean.parseBoolean(string(bytes));
+	}
+
+	private static List<String> split(ByteBuffer bytes, char separator) {
+		String value = string(bytes);
+		List<String> values = new ArrayList<>();
+		int start = 0;
+		for (int index = 0; index <= value.length(); index++) {
+			if (index == value.length() || value.charAt(index) == separator) {
+				String element = value.substring(start, index).trim();
+				if (!element.isEmpty()) {
+					values.add(element);
+				}
+				start = index + 1;
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Sets a decoded field value on an object.
+	 */
+	public abstract static class Property {
+
+		private final String name;
+
+		protected Property(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		protected abstract void set(Object target, ByteBuffer value) throws Throwable;
+
+	}
+
+	private static class DoubleProperty extends Property {
+
+		private final MethodHandle setter;
+
+		DoubleProperty(String name, MethodHandle setter) {
+			super(name);
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+		}
+
+		@Override
+		protected void set(Object target, ByteBuffer value) throws Throwable {
+			setter.invokeExact(target, NumberParser.parseDouble(value));
+		}
+
+	}
+
+	private static class FloatProperty extends Property {
+
+		private final MethodHandle setter;
+
+		FloatProperty(String name, MethodHandle setter) {
+			super(name);
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, float.class));
+		}
+
+		@Override
+		protected void set(Object target, ByteBuffer value) throws Throwable {
+			setter.invokeExact(target, (float) NumberParser.parseDouble(value));
+		}
+
+	}
+
+	private static class LongProperty extends Property {
+
+		private final MethodHandle setter;
+
+		LongProperty(String name, MethodHandle setter) {
+			super(name);
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+		}
+
+		@Override
+		protected void set(Object target, ByteBuffer value) throws Throwable {
+			setter.invokeExact(target, NumberParser.parseLong(value));
+		}
+
+	}
+
+	private static class IntProperty extends Property {
+
+		private final MethodHandle setter;
+
+		IntProperty(String name, MethodHandle setter) {
+			super(name);
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+		}
+
+		@Override
+		protected void set(Object target, ByteBuffer value) throws Throwable {
+			setter.invokeExact(target, Math.toIntExact(NumberParser.parseLong(value)));
+		}
+
+	}
+
+	private static class BooleanProperty extends Property {
+
+		private final MethodHandle setter;
+
+		BooleanProperty(String name, MethodHandle setter) {
+			super(name);
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+		}
+
+		@Override
+		protected void set(Object target, ByteBuffer value) throws Throwable {
+			setter.invokeExact(target, parseBoolean(value));
+		}
+
+	}
+
+	private static class ObjectProperty extends Property {
+
+		private final MethodHandle setter;
+		private final Function<ByteBuffer, Object> converter;
+
+		ObjectProperty(String name, MethodHandle setter, Function<ByteBuffer, Object> converter) {
+			super(name);
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			this.converter = converter;
+		}
+
+		@Override
+		protected void set(Object target, ByteBuffer value) throws Throwable {
+			setter.invokeExact(target, converter.apply(value));
+		}
+
+	}
+
+	public static <T> Builder<T> builder(Class<T> type) {
+		return new Builder<>(type);
+	}
+
+	public static class Builder<T> {
+
+		private final Class<T> type;
+		private final List<Field<String>> fields = new ArrayList<>();
+		private final Map<String, String> mappings = new HashMap<>();
+		private String id;
+		private String score;
+
+		private Builder(Class<T> type) {
+			LettuceAssert.notNull(type, "Type must not be null");
+			this.type = type;
+		}
+
+		/**
+		 * Uses the schema of the given index. Without a schema every field of the
+		 * class is mapped from the reply field of the same name.
+		 *
+		 * @param indexInfo index info, e.g. from
+		 *                  {@link com.redis.lettucemod.RedisModulesUtils#indexInfo(List)}
+		 * @return this builder
+		 */
+		public Builder<T> indexInfo(IndexInfo indexInfo) {
+			return fields(indexInfo.getFields());
+		}
+
+		public Builder<T> fields(List<Field<String>> fields) {
+			this.fields.addAll(fields);
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		public Builder<T> fields(Field<String>... fields) {
+			return fields(Arrays.asList(fields));
+		}
+
+		/**
+		 *
+		 * @param field    name of the index field
+		 * @param property name of the property the field is mapped to
+		 * @return this builder
+		 */
+		public Builder<T> property(String field, String property) {
+			mappings.put(field, property);
+			return this;
+		}
+
+		/**
+		 *
+		 * @param property name of the property receiving the document key
+		 * @return this builder
+		 */
+		public Builder<T> id(String property) {
+			this.id = property;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param property name of the double property receiving the score when
+		 *                 searching {@code WITHSCORES}
+		 * @return this builder
+		 */
+		public Builder<T> score(String property) {
+			this.score = property;
+			return this;
+		}
+
+		public DocumentMapper<T> build() {
+			return new DocumentMapper<>(this);
+		}
+
+	}
+
+}
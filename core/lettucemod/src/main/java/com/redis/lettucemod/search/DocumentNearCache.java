@@ -0,0 +1,340 @@
+package com.redis.lettucemod.search;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.search.CreateOptions.DataType;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.cluster.pubsub.StatefulRedisClusterPubSubConnection;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+/**
+ * Local cache of hash documents returned by RediSearch queries. Entries are
+ * evicted when Redis publishes a keyspace notification for their key, so the
+ * server must have keyspace notifications enabled for hash, generic and
+ * expiration events, e.g. {@code CONFIG SET notify-keyspace-events Khgx} (or
+ * {@code KA}).
+ * <p>
+ * {@link #search(StatefulRedisModulesConnection, Object, Object, SearchOptions)}
+ * runs the query with {@code NOCONTENT} and only fetches the documents that are
+ * not already cached, so repeated queries over a hot set of documents do not
+ * transfer field payloads. Only {@link DataType#HASH} indexes are supported.
+ * <p>
+ * Notifications are subscribed for the prefixes of the index, or for the whole
+ * keyspace of the database if the index has no prefix. On Redis Cluster every
+ * upstream node is subscribed. The cache is cleared whenever the subscription
+ * is (re-)established because notifications may have been missed in between.
+ */
+public class DocumentNearCache<K, V> implements AutoCloseable {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final String KEYSPACE_CHANNEL_FORMAT = "__keyspace@%s__:";
+
+	private final RedisCodec<K, V> codec;
+	private final int maxSize;
+	private final byte[] channelPrefix;
+	private final Map<ByteBuffer, Document<K, V>> documents;
+	private final AtomicLong invalidations = new AtomicLong();
+	private final StatefulRedisPubSubConnection<K, V> pubSubConnection;
+
+	private DocumentNearCache(Builder<K, V> builder) {
+		this.codec = builder.codec;
+		this.maxSize = builder.maxSize;
+		this.channelPrefix = String.format(KEYSPACE_CHANNEL_FORMAT, builder.database)
+				.getBytes(StandardCharsets.US_ASCII);
+		this.documents = new LinkedHashMap<>(16, .75f, true);
+		this.pubSubConnection = RedisModulesUtils.pubSubConnection(builder.client, codec);
+		this.pubSubConnection.addListener(new InvalidationListener());
+		subscribe(builder.prefixes);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void subscribe(List<K> prefixes) {
+		List<K> patterns = new ArrayList<>();
+		if (prefixes.isEmpty()) {
+			patterns.add(pattern(new byte[0]));
+		} else {
+			for (K prefix : prefixes) {
+				patterns.add(pattern(bytes(codec.encodeKey(prefix))));
+			}
+		}
+		K[] patternArray = patterns.toArray((K[]) new Object[0]);
+		if (pubSubConnection instanceof StatefulRedisClusterPubSubConnection) {
+			StatefulRedisClusterPubSubConnection<K, V> clusterConnection = (StatefulRedisClusterPubSubConnection<K, V>) pubSubConnection;
+			// Keyspace notifications are node-local
+			clusterConnection.setNodeMessagePropagation(true);
+			clusterConnection.sync().upstream().commands().psubscribe(patternArray);
+		} else {
+			pubSubConnection.sync().psubscribe(patternArray);
+		}
+	}
+
+	private K pattern(byte[] prefix) {
+		ByteBuffer buffer = ByteBuffer.allocate(channelPrefix.length + prefix.length * 2 + 1);
+		buffer.put(channelPrefix);
+		for (byte b : prefix) {
+			if (b == '*' || b == '?' || b == '[' || b == ']' || b == '\\') {
+				buffer.put((byte) '\\');
+			}
+			buffer.put(b);
+		}
+		buffer.put((byte) '*');
+		buffer.flip();
+		return codec.decodeKey(buffer);
+	}
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	/**
+	 *
+	 * @param key the document key
+	 * @return the cached document with the given key or null if it is not cached
+	 */
+	public Document<K, V> get(K key) {
+		synchronized (documents) {
+			return documents.get(codec.encodeKey(key));
+		}
+	}
+
+	public void put(Document<K, V> document) {
+		LettuceAssert.notNull(document.getId(), "Document id must not be null");
+		put(codec.encodeKey(document.getId()), document);
+	}
+
+	private void put(ByteBuffer key, Document<K, V> document) {
+		synchronized (documents) {
+			documents.put(key, document);
+			if (documents.size() > maxSize) {
+				documents.remove(documents.keySet().iterator().next());
+			}
+		}
+	}
+
+	public void invalidate(K key) {
+		invalidate(codec.encodeKey(key));
+	}
+
+	private void invalidate(ByteBuffer key) {
+		synchronized (documents) {
+			invalidations.incrementAndGet();
+			documents.remove(key);
+		}
+	}
+
+	public void clear() {
+		synchronized (documents) {
+			invalidations.incrementAndGet();
+			documents.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (documents) {
+			return documents.size();
+		}
+	}
+
+	public SearchResults<K, V> search(StatefulRedisModulesConnection<K, V> connection, K index, V query) {
+		return search(connection, index, query, new SearchOptions<>());
+	}
+
+	/**
+	 * Runs the given query with {@code NOCONTENT} and hydrates the matching ids
+	 * from the cache, fetching missing documents with {@link SearchHydrator}. Result
+	 * order, scores and total count are the ones returned by the server. Sort keys
+	 * and payloads are not returned. If the options declare return fields, the
+	 * documents only contain those fields.
+	 *
+	 * @param connection connection used for the search and the document fetches
+	 * @param index      the index to query
+	 * @param query      the query string
+	 * @param options    search options
+	 * @return the search results
+	 */
+	public SearchResults<K, V> search(StatefulRedisModulesConnection<K, V> connection, K index, V query,
+			SearchOptions<K, V> options) {
+		SearchResults<K, V> ids = connection.sync().ftSearch(index, query, SearchHydrator.noContent(options));
+		Document<K, V>[] documents = cachedDocuments(ids);
+		List<Integer> misses = new ArrayList<>();
+		for (int position = 0; position < documents.length; position++) {
+			if (documents[position] == null) {
+				misses.add(position);
+			}
+		}
+		if (!misses.isEmpty()) {
+			fetch(connection, ids, misses, documents);
+		}
+		SearchResults<K, V> results = new SearchResults<>();
+		results.setCount(ids.getCount());
+		for (int position = 0; position < documents.length; position++) {
+			if (documents[position] != null) {
+				results.add(result(ids.get(position), documents[position], options.getReturnFields()));
+			}
+		}
+		return results;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Document<K, V>[] cachedDocuments(SearchResults<K, V> ids) {
+		Document<K, V>[] documents = new Document[ids.size()];
+		synchronized (this.documents) {
+			for (int position = 0; position < documents.length; position++) {
+				documents[position] = this.documents.get(codec.encodeKey(ids.get(position).getId()));
+			}
+		}
+		return documents;
+	}
+
+	private void fetch(StatefulRedisModulesConnection<K, V> connection, SearchResults<K, V> ids, List<Integer> misses,
+			Document<K, V>[] documents) {
+		long stamp = invalidations.get();
+		List<K> keys = new ArrayList<>(misses.size());
+		for (int position : misses) {
+			keys.add(ids.get(position).getId());
+		}
+		List<Document<K, V>> fetched = new SearchHydrator<>(connection).fetch(keys, Collections.emptyList());
+		synchronized (this.documents) {
+			// Only cache fetched documents if no notification was received meanwhile
+			boolean cacheable = stamp == invalidations.get();
+			for (int index = 0; index < misses.size(); index++) {
+				Document<K, V> document = fetched.get(index);
+				if (document == null) {
+					// Document was deleted after the search
+					continue;
+				}
+				documents[misses.get(index)] = document;
+				if (cacheable) {
+					put(codec.encodeKey(document.getId()), document);
+				}
+			}
+		}
+	}
+
+	private Document<K, V> result(Document<K, V> id, Document<K, V> cached, List<K> returnFields) {
+		Document<K, V> document = new Document<>();
+		document.setId(cached.getId());
+		document.setScore(id.getScore());
+		if (returnFields.isEmpty()) {
+			document.putAll(cached);
+		} else {
+			for (K field : returnFields) {
+				V value = cached.get(field);
+				if (value != null) {
+					document.put(field, value);
+				}
+			}
+		}
+		return document;
+	}
+
+	@Override
+	public void close() {
+		pubSubConnection.close();
+		clear();
+	}
+
+	private class InvalidationListener extends RedisPubSubAdapter<K, V> {
+
+		@Override
+		public void message(K pattern, K channel, V message) {
+			ByteBuffer encoded = codec.encodeKey(channel);
+			if (encoded.remaining() < channelPrefix.length) {
+				return;
+			}
+			encoded.position(encoded.position() + channelPrefix.length);
+			invalidate(ByteBuffer.wrap(bytes(encoded)));
+		}
+
+		@Override
+		public void psubscribed(K pattern, long count) {
+			clear();
+		}
+
+	}
+
+	public static Builder<String, String> builder(AbstractRedisClient client) {
+		return builder(client, StringCodec.UTF8);
+	}
+
+	public static <K, V> Builder<K, V> builder(AbstractRedisClient client, RedisCodec<K, V> codec) {
+		return new Builder<>(client, codec);
+	}
+
+	public static class Builder<K, V> {
+
+		private final AbstractRedisClient client;
+		private final RedisCodec<K, V> codec;
+		private final List<K> prefixes = new ArrayList<>();
+		private int maxSize = DEFAULT_MAX_SIZE;
+		private int database;
+
+		private Builder(AbstractRedisClient client, RedisCodec<K, V> codec) {
+			LettuceAssert.notNull(client, "Client must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			this.client = client;
+			this.codec = codec;
+		}
+
+		/**
+		 * Uses the key prefixes of the given index definition.
+		 *
+		 * @param options the options the index was created with
+		 * @return this builder
+		 */
+		public Builder<K, V> index(CreateOptions<K, V> options) {
+			LettuceAssert.isTrue(options.getOn().orElse(DataType.HASH) == DataType.HASH,
+					"Only hash indexes are supported");
+			this.prefixes.addAll(options.getPrefixes());
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		public Builder<K, V> prefixes(K... prefixes) {
+			this.prefixes.addAll(Arrays.asList(prefixes));
+			return this;
+		}
+
+		public Builder<K, V> maxSize(int maxSize) {
+			LettuceAssert.isTrue(maxSize > 0, "Max size must be greater than 0");
+			this.maxSize = maxSize;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param database the database number the index lives in, used to
+		 *                 subscribe to the right keyspace notifications. Ignored
+		 *                 by Redis Cluster which only has database 0.
+		 * @return this builder
+		 */
+		public Builder<K, V> database(int database) {
+			this.database = database;
+			return this;
+		}
+
+		public DocumentNearCache<K, V> build() {
+			return new DocumentNearCache<>(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,279 @@
+package com.redis.lettucemod.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.search.FacetedSearchResults.Bucket;
+import com.redis.lettucemod.search.Reducers.Count;
+import com.redis.lettucemod.search.SearchOptions.NumericFilter;
+import com.redis.lettucemod.search.Sort.Property;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.RedisCommand;
+
+/**
+ * Runs a search together with the facet counts of its query. The
+ * {@code FT.SEARCH} command and one {@code FT.AGGREGATE ... GROUPBY 1 @field
+ * REDUCE COUNT 0} command per facet field are written to the connection in a
+ * single flush, so the page is rendered after one round trip.
+ * <p>
+ * Numeric and geo filters of the search options are added to the facet query
+ * as {@code @field:[min max]} and {@code @field:[lon lat radius unit]} clauses
+ * so that facets count the same documents as the search. Options that
+ * {@code FT.AGGREGATE} cannot express, e.g. {@code INKEYS} or {@code SLOP}, are
+ * rejected.
+ * <p>
+ * Facet counts only depend on the index, facet query, query parameters,
+ * dialect and verbatim flag, so they can optionally be cached for a time to
+ * live. Cached searches then only send {@code FT.SEARCH}, e.g. when paging
+ * through results.
+ */
+public class FacetedSearch {
+
+	public static final int DEFAULT_FACET_SIZE = 10;
+
+	public static final int DEFAULT_CACHE_SIZE = 1000;
+
+	private static final String COUNT = "count";
+
+	private final StatefulRedisModulesConnection<String, String> connection;
+	private final SearchCommandBuilder<String, String> commandBuilder = new SearchCommandBuilder<>(StringCodec.UTF8);
+	private final Map<String, Integer> facets;
+	private final long cacheTimeToLive;
+	private final int cacheSize;
+	private final LinkedHashMap<List<Object>, CacheEntry> cache = new LinkedHashMap<>(16, .75f, true);
+
+	private FacetedSearch(Builder builder) {
+		this.connection = builder.connection;
+		this.facets = builder.facets;
+		this.cacheTimeToLive = builder.cacheTimeToLive.toNanos();
+		this.cacheSize = builder.cacheSize;
+	}
+
+	public FacetedSearchResults search(String index, String query) {
+		return search(index, query, SearchOptions.<String, String>builder().build());
+	}
+
+	/**
+	 * Searches the index and counts the documents matching the query for each
+	 * value of the facet fields.
+	 *
+	 * @param index   the index name
+	 * @param query   the query string
+	 * @param options search options, whose filters, parameters, dialect and
+	 *                verbatim flag also apply to facet counts
+	 * @return search results and facet buckets
+	 */
+	public FacetedSearchResults search(String index, String query, SearchOptions<String, String> options) {
+		String facetQuery = facetQuery(query, options);
+		List<Object> cacheKey = Arrays.asList(index, facetQuery, options.getParams(), options.getDialect(),
+				options.isVerbatim());
+		Map<String, List<Bucket>> cachedFacets = cachedFacets(cacheKey);
+		List<RedisCommand<String, String, ?>> commands = new ArrayList<>();
+		AsyncCommand<String, String, SearchResults<String, String>> search = new AsyncCommand<>(
+				commandBuilder.search(index, query, options));
+		commands.add(search);
+		List<RedisFuture<AggregateResults<String>>> aggregates = new ArrayList<>();
+		if (cachedFacets == null) {
+			for (Map.Entry<String, Integer> facet : facets.entrySet()) {
+				AggregateOptions<String, String> aggregateOptions = aggregateOptions(facet.getKey(), facet.getValue(),
+						options);
+				AsyncCommand<String, String, AggregateResults<String>> aggregate = new AsyncCommand<>(
+						commandBuilder.aggregate(index, facetQuery, aggregateOptions));
+				commands.add(aggregate);
+				aggregates.add(aggregate);
+			}
+		}
+		connection.dispatch(commands);
+		List<RedisFuture<SearchResults<String, String>>> searches = Collections.singletonList(search);
+		SearchResults<String, String> results = RedisModulesUtils.awaitAll(connection.getTimeout(), searches).get(0);
+		if (cachedFacets != null) {
+			return new FacetedSearchResults(results, cachedFacets);
+		}
+		Map<String, List<Bucket>> facetBuckets = new LinkedHashMap<>();
+		List<AggregateResults<String>> facetResults = RedisModulesUtils.awaitAll(connection.getTimeout(), aggregates);
+		int facet = 0;
+		for (String field : facets.keySet()) {
+			facetBuckets.put(field, buckets(field, facetResults.get(facet++)));
+		}
+		Map<String, List<Bucket>> unmodifiableFacets = Collections.unmodifiableMap(facetBuckets);
+		cache(cacheKey, unmodifiableFacets);
+		return new FacetedSearchResults(results, unmodifiableFacets);
+	}
+
+	/**
+	 *
+	 * @return the query narrowed by the numeric and geo filters of the options
+	 */
+	private static String facetQuery(String query, SearchOptions<String, String> options) {
+		LettuceAssert.isTrue(
+				options.getInKeys().isEmpty() && options.getInFields().isEmpty() && !options.getSlop().isPresent()
+						&& !options.isInOrder() && !options.getLanguage().isPresent()
+						&& !options.getExpander().isPresent() && !options.isNoStopWords(),
+				"Faceted search options must not use INKEYS, INFIELDS, SLOP, INORDER, LANGUAGE, EXPANDER "
+						+ "or NOSTOPWORDS");
+		StringBuilder filters = new StringBuilder();
+		for (NumericFilter<String, String> filter : options.getFilters()) {
+			filters.append(" @").append(filter.getField()).append(":[").append(bound(filter.getMin())).append(' ')
+					.append(bound(filter.getMax())).append(']');
+		}
+		options.getGeoFilter().ifPresent(f -> filters.append(" @").append(f.getField()).append(":[")
+				.append(f.getLongitude()).append(' ').append(f.getLatitude()).append(' ').append(f.getRadius())
+				.append(' ').append(f.getUnit()).append(']'));
+		if (filters.length() == 0) {
+			return query;
+		}
+		if (query.trim().equals("*")) {
+			return filters.substring(1);
+		}
+		return "(" + query + ")" + filters;
+	}
+
+	private static String bound(double value) {
+		if (value == Double.POSITIVE_INFINITY) {
+			return "+inf";
+		}
+		if (value == Double.NEGATIVE_INFINITY) {
+			return "-inf";
+		}
+		return String.valueOf(value);
+	}
+
+	private AggregateOptions<String, String> aggregateOptions(String field, int size,
+			SearchOptions<String, String> options) {
+		AggregateOptions.Builder<String, String> builder = AggregateOptions
+				.<String, String>operation(Group.by(field).reducer(Count.as(COUNT)).build())
+				.operation(Sort.by(Property.desc(COUNT)).max(size).build());
+		options.getParams().forEach(p -> builder.param(p.getKey(), p.getValue()));
+		options.getDialect().ifPresent(builder::dialect);
+		return builder.verbatim(options.isVerbatim()).build();
+	}
+
+	private static List<Bucket> buckets(String field, AggregateResults<String> results) {
+		List<Bucket> buckets = new ArrayList<>(results.size());
+		for (Map<String, Object> result : results) {
+			Object value = result.get(field);
+			Double count = RedisModulesUtils.getDouble(result.get(COUNT));
+			if (value != null && count != null) {
+				buckets.add(new Bucket(String.valueOf(value), count.longValue()));
+			}
+		}
+		return Collections.unmodifiableList(buckets);
+	}
+
+	private synchronized Map<String, List<Bucket>> cachedFacets(List<Object> key) {
+		CacheEntry entry = cache.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (System.nanoTime() - entry.expiry >= 0) {
+			cache.remove(key);
+			return null;
+		}
+		return entry.facets;
+	}
+
+	private synchronized void cache(List<Object> key, Map<String, List<Bucket>> facets) {
+		if (cacheTimeToLive <= 0) {
+			return;
+		}
+		cache.put(key, new CacheEntry(facets, System.nanoTime() + cacheTimeToLive));
+		if (cache.size() > cacheSize) {
+			cache.remove(cache.keySet().iterator().next());
+		}
+	}
+
+	/**
+	 * Removes all cached facet counts.
+	 */
+	public synchronized void invalidate() {
+		cache.clear();
+	}
+
+	private static class CacheEntry {
+
+		private final Map<String, List<Bucket>> facets;
+		private final long expiry;
+
+		private CacheEntry(Map<String, List<Bucket>> facets, long expiry) {
+			this.facets = facets;
+			this.expiry = expiry;
+		}
+
+	}
+
+	public static Builder builder(StatefulRedisModulesConnection<String, String> connection) {
+		return new Builder(connection);
+	}
+
+	public static class Builder {
+
+		private final StatefulRedisModulesConnection<String, String> connection;
+		private final Map<String, Integer> facets = new LinkedHashMap<>();
+		private Duration cacheTimeToLive = Duration.ZERO;
+		private int cacheSize = DEFAULT_CACHE_SIZE;
+
+		private Builder(StatefulRedisModulesConnection<String, String> connection) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			this.connection = connection;
+		}
+
+		public Builder facet(String field) {
+			return facet(field, DEFAULT_FACET_SIZE);
+		}
+
+		/**
+		 *
+		 * @param field the field to count values of
+		 * @param size  maximum number of buckets, the ones with the highest counts
+		 * @return this builder
+		 */
+		public Builder facet(String field, int size) {
+			LettuceAssert.notEmpty(field, "Field must not be empty");
+			LettuceAssert.isTrue(size > 0, "Size must be greater than 0");
+			facets.put(field, size);
+			return this;
+		}
+
+		/**
+		 *
+		 * @param timeToLive how long facet counts of a query are reused, zero to
+		 *                   disable caching
+		 * @return this builder
+		 */
+		public Builder cacheTimeToLive(Duration timeToLive) {
+			LettuceAssert.isTrue(timeToLive != null && !timeToLive.isNegative(),
+					"Time to live must not be negative");
+			this.cacheTimeToLive = timeToLive;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param cacheSize maximum number of queries whose facet counts are cached
+		 * @return this builder
+		 */
+		public Builder cacheSize(int cacheSize) {
+			LettuceAssert.isTrue(cacheSize > 0, "Cache size must be greater than 0");
+			this.cacheSize = cacheSize;
+			return this;
+		}
+
+		public FacetedSearch build() {
+			LettuceAssert.isTrue(!facets.isEmpty(), "At least one facet is required");
+			return new FacetedSearch(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.redis.lettucemod.search;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetedSearchResults {
+
+	private final SearchResults<String, String> results;
+	private final Map<String, List<Bucket>> facets;
+
+	public FacetedSearchResults(SearchResults<String, String> results, Map<String, List<Bucket>> facets) {
+		this.results = results;
+		this.facets = facets;
+	}
+
+	public SearchResults<String, String> getResults() {
+		return results;
+	}
+
+	/**
+	 *
+	 * @return buckets of each facet field, by descending count
+	 */
+	public Map<String, List<Bucket>> getFacets() {
+		return facets;
+	}
+
+	public List<Bucket> getFacet(String field) {
+		return facets.get(field);
+	}
+
+	public static class Bucket {
+
+		private final String value;
+		private final long count;
+
+		public Bucket(String value, long count) {
+			this.value = value;
+			this.count = count;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public String toString() {
+			return value + "=" + count;
+		}
+
+	}
+
+}
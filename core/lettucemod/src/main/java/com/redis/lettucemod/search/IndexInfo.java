@@ -48,6 +48,12 @@ public class IndexInfo {
 
 	private List<Object> cursorStats;
 
+	private Boolean indexing;
+
+	private Double percentIndexed;
+
+	private Long hashIndexingFailures;
+
 	public IndexInfo() {
 	}
 
@@ -72,6 +78,9 @@ public class IndexInfo {
 		this.offsetBitsPerRecordAvg = builder.offsetBitsPerRecordAvg;
 		this.gcStats = builder.gcStats;
 		this.cursorStats = builder.cursorStats;
+		this.indexing = builder.indexing;
+		this.percentIndexed = builder.percentIndexed;
+		this.hashIndexingFailures = builder.hashIndexingFailures;
 	}
 
 	public String getIndexName() {
@@ -234,6 +243,43 @@ public class IndexInfo {
 		this.cursorStats = cursorStats;
 	}
 
+	/**
+	 * 
+	 * @return true if the index is still scanning existing keys
+	 */
+	public Boolean getIndexing() {
+		return indexing;
+	}
+
+	public void setIndexing(Boolean indexing) {
+		this.indexing = indexing;
+	}
+
+	/**
+	 * 
+	 * @return fraction of existing keys that have been indexed, between 0 and 1
+	 */
+	public Double getPercentIndexed() {
+		return percentIndexed;
+	}
+
+	public void setPercentIndexed(Double percentIndexed) {
+		this.percentIndexed = percentIndexed;
+	}
+
+	/**
+	 * 
+	 * @return number of documents that could not be indexed, e.g. because a field
+	 *         value did not match its type
+	 */
+	public Long getHashIndexingFailures() {
+		return hashIndexingFailures;
+	}
+
+	public void setHashIndexingFailures(Long hashIndexingFailures) {
+		this.hashIndexingFailures = hashIndexingFailures;
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -280,6 +326,12 @@ public class IndexInfo {
 
 		private List<Object> cursorStats = new ArrayList<>();
 
+		private Boolean indexing;
+
+		private Double percentIndexed;
+
+		private Long hashIndexingFailures;
+
 		private Builder() {
 		}
 
@@ -383,6 +435,21 @@ public class IndexInfo {
 			return this;
 		}
 
+		public Builder indexing(Boolean indexing) {
+			this.indexing = indexing;
+			return this;
+		}
+
+		public Builder percentIndexed(Double percentIndexed) {
+			this.percentIndexed = percentIndexed;
+			return this;
+		}
+
+		public Builder hashIndexingFailures(Long hashIndexingFailures) {
+			this.hashIndexingFailures = hashIndexingFailures;
+			return this;
+		}
+
 		public IndexInfo build() {
 			return new IndexInfo(this);
 		}
@@ -0,0 +1,198 @@
+package com.redis.lettucemod.search;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.sync.RedisModulesCommands;
+
+import io.lettuce.core.RedisCommandInterruptedException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Changes the schema of an index without downtime. Readers query the index
+ * through an alias while a new version of the index named
+ * {@code <alias>_v<version>} is created and scans existing keys. Once the new
+ * index is fully indexed the alias is switched over to it with
+ * {@code FT.ALIASUPDATE} and the previous version is dropped. Documents are
+ * left untouched.
+ */
+public class IndexMigrator {
+
+	public static final String VERSION_SEPARATOR = "_v";
+
+	public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(100);
+
+	public static final Duration DEFAULT_TIMEOUT = Duration.ofHours(1);
+
+	private final StatefulRedisModulesConnection<String, String> connection;
+	private final String alias;
+	private final Pattern versionPattern;
+	private final Duration pollInterval;
+	private final Duration timeout;
+	private final boolean dropPrevious;
+	private final Consumer<IndexInfo> listener;
+
+	private IndexMigrator(Builder builder) {
+		this.connection = builder.connection;
+		this.alias = builder.alias;
+		this.versionPattern = Pattern.compile(Pattern.quote(alias + VERSION_SEPARATOR) + "(\\d+)");
+		this.pollInterval = builder.pollInterval;
+		this.timeout = builder.timeout;
+		this.dropPrevious = builder.dropPrevious;
+		this.listener = builder.listener;
+	}
+
+	/**
+	 *
+	 * @return name of the index the alias currently points to, if any
+	 */
+	public Optional<String> currentIndex() {
+		RedisModulesCommands<String, String> sync = connection.sync();
+		return RedisModulesUtils.indexInfo(() -> sync.ftInfo(alias)).map(IndexInfo::getIndexName);
+	}
+
+	@SuppressWarnings("unchecked")
+	public String migrate(Field<String>... fields) {
+		return migrate(CreateOptions.<String, String>builder().build(), fields);
+	}
+
+	/**
+	 * Creates the next version of the index, waits for it to be fully indexed,
+	 * points the alias to it and drops the previous version. If the new index does
+	 * not finish indexing in time it is dropped and the alias is left unchanged.
+	 *
+	 * @param options index options of the new version
+	 * @param fields  schema of the new version
+	 * @return name of the new index
+	 */
+	@SuppressWarnings("unchecked")
+	public String migrate(CreateOptions<String, String> options, Field<String>... fields) {
+		RedisModulesCommands<String, String> sync = connection.sync();
+		Optional<String> previous = currentIndex();
+		String index = alias + VERSION_SEPARATOR + nextVersion(sync);
+		sync.ftCreate(index, options, fields);
+		try {
+			awaitIndexed(sync, index);
+		} catch (RuntimeException e) {
+			sync.ftDropindex(index);
+			throw e;
+		}
+		sync.ftAliasupdate(alias, index);
+		if (dropPrevious && previous.isPresent() && !previous.get().equals(index)) {
+			sync.ftDropindex(previous.get());
+		}
+		return index;
+	}
+
+	private long nextVersion(RedisModulesCommands<String, String> sync) {
+		long version = 0;
+		for (String index : sync.ftList()) {
+			Matcher matcher = versionPattern.matcher(index);
+			if (matcher.matches()) {
+				version = Math.max(version, Long.parseLong(matcher.group(1)));
+			}
+		}
+		return version + 1;
+	}
+
+	private void awaitIndexed(RedisModulesCommands<String, String> sync, String index) {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (true) {
+			IndexInfo info = RedisModulesUtils.indexInfo(sync.ftInfo(index));
+			listener.accept(info);
+			if (isIndexed(info)) {
+				return;
+			}
+			if (System.nanoTime() - deadline > 0) {
+				throw new RedisCommandTimeoutException("Index " + index + " was not indexed within " + timeout);
+			}
+			try {
+				Thread.sleep(pollInterval.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RedisCommandInterruptedException(e);
+			}
+		}
+	}
+
+	private static boolean isIndexed(IndexInfo info) {
+		if (Boolean.TRUE.equals(info.getIndexing())) {
+			return false;
+		}
+		return info.getPercentIndexed() == null || info.getPercentIndexed() >= 1;
+	}
+
+	public static Builder builder(StatefulRedisModulesConnection<String, String> connection, String alias) {
+		return new Builder(connection, alias);
+	}
+
+	public static class Builder {
+
+		private final StatefulRedisModulesConnection<String, String> connection;
+		private final String alias;
+		private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+		private Duration timeout = DEFAULT_TIMEOUT;
+		private boolean dropPrevious = true;
+		private Consumer<IndexInfo> listener = info -> {
+		};
+
+		private Builder(StatefulRedisModulesConnection<String, String> connection, String alias) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notEmpty(alias, "Alias must not be empty");
+			this.connection = connection;
+			this.alias = alias;
+		}
+
+		/**
+		 *
+		 * @param pollInterval interval between two {@code FT.INFO} calls while the new
+		 *                     index is being indexed
+		 * @return this builder
+		 */
+		public Builder pollInterval(Duration pollInterval) {
+			LettuceAssert.notNull(pollInterval, "Poll interval must not be null");
+			this.pollInterval = pollInterval;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param timeout maximum time to wait for the new index to be indexed
+		 * @return this builder
+		 */
+		public Builder timeout(Duration timeout) {
+			LettuceAssert.notNull(timeout, "Timeout must not be null");
+			this.timeout = timeout;
+			return this;
+		}
+
+		public Builder dropPrevious(boolean dropPrevious) {
+			this.dropPrevious = dropPrevious;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param listener called with the info of the new index each time its
+		 *                 indexing progress is polled
+		 * @return this builder
+		 */
+		public Builder listener(Consumer<IndexInfo> listener) {
+			LettuceAssert.notNull(listener, "Listener must not be null");
+			this.listener = listener;
+			return this;
+		}
+
+		public IndexMigrator build() {
+			return new IndexMigrator(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,297 @@
+package com.redis.lettucemod.search;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.sync.RedisModulesCommands;
+
+import io.lettuce.core.RedisCommandInterruptedException;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Adaptive rate limiter for bulk writers loading documents into an index.
+ * Writers call {@link #acquire(int)} before each write or batch of writes,
+ * which blocks as needed to keep writes under the current rate.
+ * <p>
+ * The rate is adjusted every poll interval: it is cut multiplicatively when the
+ * 99th percentile of query latencies exceeds the target or when the indexing
+ * backlog reported by {@code FT.INFO} grows, and raised additively when
+ * latencies are within target and the backlog is stable or draining. Query
+ * latencies are recorded by the application with {@link #recordLatency} and
+ * sampled at each poll with a {@code FT.SEARCH} that returns no documents.
+ */
+public class IndexingThrottle {
+
+	public static final double DEFAULT_INITIAL_RATE = 1000;
+
+	public static final double DEFAULT_MIN_RATE = 10;
+
+	public static final double DEFAULT_MAX_RATE = 100000;
+
+	public static final double DEFAULT_DECREASE_FACTOR = .5;
+
+	public static final Duration DEFAULT_LATENCY_TARGET = Duration.ofMillis(50);
+
+	public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(1);
+
+	public static final int DEFAULT_MAX_SAMPLES = 1024;
+
+	private static final String PROBE_QUERY = "*";
+
+	private final StatefulRedisModulesConnection<String, String> connection;
+	private final String index;
+	private final double minRate;
+	private final double maxRate;
+	private final double increase;
+	private final double decreaseFactor;
+	private final long latencyTarget;
+	private final long pollInterval;
+	private final SearchOptions<String, String> probeOptions = SearchOptions.<String, String>builder().noContent()
+			.limit(SearchOptions.limit(0, 0)).build();
+	private final ReentrantLock pollLock = new ReentrantLock();
+	private final long[] samples;
+	private int sampleCount;
+	private int samplePosition;
+	private double rate;
+	private long nextFree;
+	private volatile long nextPoll;
+	private double backlog;
+	private volatile IndexInfo indexInfo;
+
+	private IndexingThrottle(Builder builder) {
+		this.connection = builder.connection;
+		this.index = builder.index;
+		this.minRate = builder.minRate;
+		this.maxRate = builder.maxRate;
+		this.increase = builder.increase == null ? builder.initialRate / 10 : builder.increase;
+		this.decreaseFactor = builder.decreaseFactor;
+		this.latencyTarget = builder.latencyTarget.toNanos();
+		this.pollInterval = builder.pollInterval.toNanos();
+		this.samples = new long[builder.maxSamples];
+		this.rate = builder.initialRate;
+		long now = System.nanoTime();
+		this.nextFree = now;
+		this.nextPoll = now + pollInterval;
+	}
+
+	public void acquire() {
+		acquire(1);
+	}
+
+	/**
+	 * Blocks until the given number of writes can be performed under the current
+	 * rate. Polls the index when the poll interval has elapsed.
+	 *
+	 * @param permits number of writes about to be performed
+	 */
+	public void acquire(int permits) {
+		LettuceAssert.isTrue(permits > 0, "Permits must be greater than 0");
+		if (System.nanoTime() - nextPoll >= 0 && pollLock.tryLock()) {
+			try {
+				update();
+			} finally {
+				pollLock.unlock();
+			}
+		}
+		long wait = reserve(permits);
+		if (wait > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RedisCommandInterruptedException(e);
+			}
+		}
+	}
+
+	private synchronized long reserve(int permits) {
+		long now = System.nanoTime();
+		long start = Math.max(now, nextFree);
+		nextFree = start + (long) (permits * TimeUnit.SECONDS.toNanos(1) / rate);
+		return start - now;
+	}
+
+	public void recordLatency(Duration latency) {
+		recordLatency(latency.toNanos());
+	}
+
+	/**
+	 *
+	 * @param nanos latency of a query against the index, in nanoseconds
+	 */
+	public synchronized void recordLatency(long nanos) {
+		samples[samplePosition] = nanos;
+		samplePosition = (samplePosition + 1) % samples.length;
+		sampleCount = Math.min(sampleCount + 1, samples.length);
+	}
+
+	/**
+	 * Polls the index info, samples query latency and adjusts the rate.
+	 *
+	 * @return the new rate in writes per second
+	 */
+	public double update() {
+		pollLock.lock();
+		try {
+			RedisModulesCommands<String, String> sync = connection.sync();
+			IndexInfo info = RedisModulesUtils.indexInfo(sync.ftInfo(index));
+			long start = System.nanoTime();
+			sync.ftSearch(index, PROBE_QUERY, probeOptions);
+			recordLatency(System.nanoTime() - start);
+			this.indexInfo = info;
+			this.nextPoll = System.nanoTime() + pollInterval;
+			return adjust(backlog(info));
+		} finally {
+			pollLock.unlock();
+		}
+	}
+
+	private static double backlog(IndexInfo info) {
+		if (Boolean.TRUE.equals(info.getIndexing()) && info.getPercentIndexed() != null) {
+			return 1 - info.getPercentIndexed();
+		}
+		return 0;
+	}
+
+	private synchronized double adjust(double currentBacklog) {
+		long[] interval = Arrays.copyOf(samples, sampleCount);
+		sampleCount = 0;
+		samplePosition = 0;
+		Arrays.sort(interval);
+		long p99 = interval.length == 0 ? 0 : interval[(int) Math.ceil(interval.length * .99) - 1];
+		if (p99 > latencyTarget || currentBacklog > backlog) {
+			rate = Math.max(minRate, rate * decreaseFactor);
+		} else {
+			rate = Math.min(maxRate, rate + increase);
+		}
+		backlog = currentBacklog;
+		return rate;
+	}
+
+	/**
+	 *
+	 * @return current rate in writes per second
+	 */
+	public synchronized double getRate() {
+		return rate;
+	}
+
+	/**
+	 *
+	 * @return index info from the last poll, null if the index was not polled yet
+	 */
+	public IndexInfo getIndexInfo() {
+		return indexInfo;
+	}
+
+	public static Builder builder(StatefulRedisModulesConnection<String, String> connection, String index) {
+		return new Builder(connection, index);
+	}
+
+	public static class Builder {
+
+		private final StatefulRedisModulesConnection<String, String> connection;
+		private final String index;
+		private double initialRate = DEFAULT_INITIAL_RATE;
+		private double minRate = DEFAULT_MIN_RATE;
+		private double maxRate = DEFAULT_MAX_RATE;
+		private Double increase;
+		private double decreaseFactor = DEFAULT_DECREASE_FACTOR;
+		private Duration latencyTarget = DEFAULT_LATENCY_TARGET;
+		private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+		private int maxSamples = DEFAULT_MAX_SAMPLES;
+
+		private Builder(StatefulRedisModulesConnection<String, String> connection, String index) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notEmpty(index, "Index must not be empty");
+			this.connection = connection;
+			this.index = index;
+		}
+
+		/**
+		 *
+		 * @param initialRate writes per second before the first adjustment
+		 * @return this builder
+		 */
+		public Builder initialRate(double initialRate) {
+			LettuceAssert.isTrue(initialRate > 0, "Initial rate must be greater than 0");
+			this.initialRate = initialRate;
+			return this;
+		}
+
+		public Builder minRate(double minRate) {
+			LettuceAssert.isTrue(minRate > 0, "Min rate must be greater than 0");
+			this.minRate = minRate;
+			return this;
+		}
+
+		public Builder maxRate(double maxRate) {
+			LettuceAssert.isTrue(maxRate > 0, "Max rate must be greater than 0");
+			this.maxRate = maxRate;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param increase writes per second added to the rate when the index keeps
+		 *                 up. Defaults to a tenth of the initial rate.
+		 * @return this builder
+		 */
+		public Builder increase(double increase) {
+			LettuceAssert.isTrue(increase > 0, "Increase must be greater than 0");
+			this.increase = increase;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param decreaseFactor factor the rate is multiplied by when the index falls
+		 *                       behind
+		 * @return this builder
+		 */
+		public Builder decreaseFactor(double decreaseFactor) {
+			LettuceAssert.isTrue(decreaseFactor > 0 && decreaseFactor < 1, "Decrease factor must be between 0 and 1");
+			this.decreaseFactor = decreaseFactor;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param latencyTarget 99th percentile query latency to stay under
+		 * @return this builder
+		 */
+		public Builder latencyTarget(Duration latencyTarget) {
+			LettuceAssert.notNull(latencyTarget, "Latency target must not be null");
+			this.latencyTarget = latencyTarget;
+			return this;
+		}
+
+		public Builder pollInterval(Duration pollInterval) {
+			LettuceAssert.notNull(pollInterval, "Poll interval must not be null");
+			this.pollInterval = pollInterval;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param maxSamples maximum number of latency samples kept between two polls
+		 * @return this builder
+		 */
+		public Builder maxSamples(int maxSamples) {
+			LettuceAssert.isTrue(maxSamples > 0, "Max samples must be greater than 0");
+			this.maxSamples = maxSamples;
+			return this;
+		}
+
+		public IndexingThrottle build() {
+			LettuceAssert.isTrue(minRate <= maxRate, "Min rate must not be greater than max rate");
+			return new IndexingThrottle(this);
+		}
+
+	}
+
+}
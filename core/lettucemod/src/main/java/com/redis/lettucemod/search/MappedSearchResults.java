@@ -0,0 +1,45 @@
+package com.redis.lettucemod.search;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * Search results mapped to objects by a {@link DocumentMapper}.
+ *
+ * @param <T> Object type.
+ */
+public class MappedSearchResults<T> extends ArrayList<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private long count;
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + Objects.hash(count);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		MappedSearchResults<?> other = (MappedSearchResults<?>) obj;
+		return count == other.count;
+	}
+
+}
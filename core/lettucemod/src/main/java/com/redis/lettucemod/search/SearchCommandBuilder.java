@@ -91,6 +91,10 @@ public class SearchCommandBuilder<K, V> extends RedisModulesCommandBuilder<K, V>
 	}
 
 	public Command<K, V, SearchResults<K, V>> search(K index, V query, SearchOptions<K, V> options) {
+		return search(index, query, options, searchOutput(options));
+	}
+
+	public <T> Command<K, V, T> search(K index, V query, SearchOptions<K, V> options, CommandOutput<K, V, T> output) {
 		notNullIndex(index);
 		notNullQuery(query);
 		SearchCommandArgs<K, V> args = args(index);
@@ -98,7 +102,7 @@ public class SearchCommandBuilder<K, V> extends RedisModulesCommandBuilder<K, V>
 		if (options != null) {
 			options.build(args);
 		}
-		return createCommand(SearchCommandType.SEARCH, searchOutput(options), args);
+		return createCommand(SearchCommandType.SEARCH, output, args);
 	}
 
 	private CommandOutput<K, V, SearchResults<K, V>> searchOutput(SearchOptions<K, V> options) {
@@ -0,0 +1,148 @@
+package com.redis.lettucemod.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Runs {@code FT.SEARCH} with {@code NOCONTENT} and fetches the matching hash
+ * documents separately with {@code HGETALL}, or {@code HMGET} when return
+ * fields are specified.
+ * <p>
+ * With wide documents this takes payload serialization off the query thread:
+ * the fetches are issued asynchronously on the same connection so they are
+ * pipelined, and a cluster connection routes each of them to the shard owning
+ * the key instead of funneling all payloads through the coordinator.
+ * <p>
+ * Result order, scores and total count are the ones returned by the server.
+ * Sort keys and payloads are not returned. Documents deleted between the search
+ * and the fetch are left out of the results. Only hash indexes are supported.
+ */
+public class SearchHydrator<K, V> {
+
+	private final StatefulRedisModulesConnection<K, V> connection;
+
+	public SearchHydrator(StatefulRedisModulesConnection<K, V> connection) {
+		LettuceAssert.notNull(connection, "Connection must not be null");
+		this.connection = connection;
+	}
+
+	public SearchResults<K, V> search(K index, V query) {
+		return search(index, query, new SearchOptions<>());
+	}
+
+	public SearchResults<K, V> search(K index, V query, SearchOptions<K, V> options) {
+		SearchResults<K, V> ids = connection.sync().ftSearch(index, query, noContent(options));
+		List<K> keys = new ArrayList<>(ids.size());
+		for (Document<K, V> id : ids) {
+			keys.add(id.getId());
+		}
+		List<Document<K, V>> documents = fetch(keys, options.getReturnFields());
+		SearchResults<K, V> results = new SearchResults<>();
+		results.setCount(ids.getCount());
+		for (int i = 0; i < documents.size(); i++) {
+			Document<K, V> document = documents.get(i);
+			if (document != null) {
+				document.setScore(ids.get(i).getScore());
+				results.add(document);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 *
+	 * @param options search options
+	 * @return a copy of the given options that only returns ids and scores
+	 */
+	public static <K, V> SearchOptions<K, V> noContent(SearchOptions<K, V> options) {
+		SearchOptions<K, V> noContentOptions = new SearchOptions<>(options);
+		noContentOptions.setNoContent(true);
+		noContentOptions.setWithPayloads(false);
+		noContentOptions.setWithSortKeys(false);
+		noContentOptions.setReturnFields(new ArrayList<>());
+		return noContentOptions;
+	}
+
+	/**
+	 * Fetches the given hashes in a single pipeline.
+	 *
+	 * @param keys   keys of the hashes to fetch
+	 * @param fields fields to fetch, or an empty list for all fields
+	 * @return documents in the same order as the given keys, with a null element
+	 *         for each key that does not exist
+	 */
+	public List<Document<K, V>> fetch(List<K> keys, List<K> fields) {
+		if (fields.isEmpty()) {
+			return fetchAll(keys);
+		}
+		return fetchFields(keys, fields);
+	}
+
+	private List<Document<K, V>> fetchAll(List<K> keys) {
+		RedisModulesAsyncCommands<K, V> async = connection.async();
+		List<RedisFuture<Map<K, V>>> futures = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			futures.add(async.hgetall(key));
+		}
+		List<Map<K, V>> hashes = RedisModulesUtils.awaitAll(connection.getTimeout(), futures);
+		List<Document<K, V>> documents = new ArrayList<>(keys.size());
+		for (int index = 0; index < keys.size(); index++) {
+			Map<K, V> hash = hashes.get(index);
+			if (hash == null || hash.isEmpty()) {
+				documents.add(null);
+			} else {
+				Document<K, V> document = document(keys.get(index));
+				document.putAll(hash);
+				documents.add(document);
+			}
+		}
+		return documents;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Document<K, V>> fetchFields(List<K> keys, List<K> fields) {
+		RedisModulesAsyncCommands<K, V> async = connection.async();
+		K[] fieldArray = fields.toArray((K[]) new Object[0]);
+		List<RedisFuture<List<KeyValue<K, V>>>> futures = new ArrayList<>(keys.size());
+		// HMGET replies with all nil values both for a missing key and for a hash
+		// without any of the fields
+		List<RedisFuture<Long>> existsFutures = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			futures.add(async.hmget(key, fieldArray));
+			existsFutures.add(async.exists(key));
+		}
+		List<List<KeyValue<K, V>>> values = RedisModulesUtils.awaitAll(connection.getTimeout(), futures);
+		List<Long> exists = RedisModulesUtils.awaitAll(connection.getTimeout(), existsFutures);
+		List<Document<K, V>> documents = new ArrayList<>(keys.size());
+		for (int index = 0; index < keys.size(); index++) {
+			if (exists.get(index) == 0) {
+				documents.add(null);
+				continue;
+			}
+			Document<K, V> document = document(keys.get(index));
+			for (KeyValue<K, V> value : values.get(index)) {
+				if (value.hasValue()) {
+					document.put(value.getKey(), value.getValue());
+				}
+			}
+			documents.add(document);
+		}
+		return documents;
+	}
+
+	private Document<K, V> document(K key) {
+		Document<K, V> document = new Document<>();
+		document.setId(key);
+		return document;
+	}
+
+}
@@ -34,6 +34,35 @@ public class SearchOptions<K, V> extends BaseSearchOptions<K, V> {
 
 	}
 
+	/**
+	 * Creates a copy of the given options. Lists are copied so the new instance
+	 * can be modified without affecting the original.
+	 * 
+	 * @param options the options to copy
+	 */
+	public SearchOptions(SearchOptions<K, V> options) {
+		super(options);
+		this.noContent = options.noContent;
+		this.noStopWords = options.noStopWords;
+		this.withScores = options.withScores;
+		this.withPayloads = options.withPayloads;
+		this.withSortKeys = options.withSortKeys;
+		this.filters = new ArrayList<>(options.filters);
+		this.geoFilter = options.geoFilter;
+		this.inKeys = new ArrayList<>(options.inKeys);
+		this.inFields = new ArrayList<>(options.inFields);
+		this.returnFields = new ArrayList<>(options.returnFields);
+		this.summarize = options.summarize;
+		this.highlight = options.highlight;
+		this.slop = options.slop;
+		this.inOrder = options.inOrder;
+		this.language = options.language;
+		this.expander = options.expander;
+		this.scorer = options.scorer;
+		this.payload = options.payload;
+		this.sortBy = options.sortBy;
+	}
+
 	private SearchOptions(Builder<K, V> builder) {
 		super(builder);
 		this.noContent = builder.noContent;
@@ -285,6 +314,18 @@ public class SearchOptions<K, V> extends BaseSearchOptions<K, V> {
 			this.max = max;
 		}
 
+		public K getField() {
+			return field;
+		}
+
+		public double getMin() {
+			return min;
+		}
+
+		public double getMax() {
+			return max;
+		}
+
 		@Override
 		public void build(SearchCommandArgs<K, V> args) {
 			args.addKey(field);
@@ -0,0 +1,419 @@
+package com.redis.lettucemod.search;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Local autocomplete cache in front of {@code FT.SUGGET}. Suggestion lists are
+ * cached per dictionary in a trie of (case-folded) prefixes, so type-ahead
+ * lookups for a longer prefix can be answered from the entry of a shorter one:
+ * when a reply held fewer suggestions than the requested {@code MAX} it holds
+ * every suggestion with that prefix, and the suggestions of any longer prefix
+ * are the ones it contains that start with the longer prefix, in the same
+ * order. Scores depend on the length of the prefix, so lookups
+ * {@code WITHSCORES} are only answered from entries of the same prefix.
+ * {@code FUZZY} lookups are never cached.
+ * <p>
+ * {@link #sugadd(Object, Suggestion)}, {@link #sugaddIncr(Object, Suggestion)}
+ * and {@link #sugdel(Object, Object)} write through to Redis and evict the
+ * cached prefixes of the changed string. Changes made by other clients are
+ * only picked up once entries expire after their time to live.
+ * <p>
+ * Returned suggestions are shared with the cache and must not be modified.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class SuggestionCache<K, V> {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+	// Server-side default of FT.SUGGET MAX
+	private static final long DEFAULT_MAX = 5;
+
+	// One trie per combination of WITHSCORES and WITHPAYLOADS
+	private static final int VARIANTS = 4;
+
+	private static final char[] NO_LABELS = new char[0];
+
+	private final StatefulRedisModulesConnection<K, V> connection;
+	private final RedisCodec<K, V> codec;
+	private final int maxSize;
+	private final long timeToLive;
+	private final Map<ByteBuffer, Node<V>[]> dictionaries = new HashMap<>();
+	private final LinkedHashMap<Node<V>, Boolean> entries = new LinkedHashMap<>(16, .75f, true);
+	private final AtomicLong invalidations = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private SuggestionCache(Builder<K, V> builder) {
+		this.connection = builder.connection;
+		this.codec = builder.codec;
+		this.maxSize = builder.maxSize;
+		this.timeToLive = builder.timeToLive.toNanos();
+	}
+
+	public List<Suggestion<V>> sugget(K key, V prefix) {
+		return sugget(key, prefix, SuggetOptions.builder().build());
+	}
+
+	/**
+	 * Returns the suggestions of the given prefix from the cache if possible,
+	 * calling {@code FT.SUGGET} and caching its reply otherwise.
+	 *
+	 * @param key     the suggestion dictionary key
+	 * @param prefix  the prefix to complete
+	 * @param options sugget options
+	 * @return the suggestions for the prefix
+	 */
+	public List<Suggestion<V>> sugget(K key, V prefix, SuggetOptions options) {
+		if (options.isFuzzy()) {
+			misses.incrementAndGet();
+			return connection.sync().ftSugget(key, prefix, options);
+		}
+		long max = options.getMax().map(Max::getValue).orElse(DEFAULT_MAX);
+		ByteBuffer dictionary = codec.encodeKey(key);
+		int variant = (options.isWithScores() ? 1 : 0) | (options.isWithPayloads() ? 2 : 0);
+		String folded = fold(codec.encodeValue(prefix));
+		long stamp;
+		synchronized (this) {
+			List<Suggestion<V>> cached = lookup(dictionary, variant, folded, max, options.isWithScores());
+			if (cached != null) {
+				hits.incrementAndGet();
+				return cached;
+			}
+			stamp = invalidations.get();
+		}
+		misses.incrementAndGet();
+		List<Suggestion<V>> suggestions = connection.sync().ftSugget(key, prefix, options);
+		synchronized (this) {
+			// Only cache the reply if no suggestion changed meanwhile
+			if (stamp == invalidations.get()) {
+				put(dictionary, variant, folded, suggestions, suggestions.size() < max);
+			}
+		}
+		return suggestions;
+	}
+
+	public Long sugadd(K key, Suggestion<V> suggestion) {
+		try {
+			return connection.sync().ftSugadd(key, suggestion);
+		} finally {
+			invalidate(key, suggestion.getString());
+		}
+	}
+
+	public Long sugaddIncr(K key, Suggestion<V> suggestion) {
+		try {
+			return connection.sync().ftSugaddIncr(key, suggestion);
+		} finally {
+			invalidate(key, suggestion.getString());
+		}
+	}
+
+	public Boolean sugdel(K key, V string) {
+		try {
+			return connection.sync().ftSugdel(key, string);
+		} finally {
+			invalidate(key, string);
+		}
+	}
+
+	/**
+	 * Evicts the cached prefixes of the given string, i.e. the entries that may
+	 * contain it.
+	 *
+	 * @param key    the suggestion dictionary key
+	 * @param string the suggestion string that changed
+	 */
+	public synchronized void invalidate(K key, V string) {
+		invalidations.incrementAndGet();
+		Node<V>[] roots = dictionaries.get(codec.encodeKey(key));
+		if (roots == null) {
+			return;
+		}
+		String folded = fold(codec.encodeValue(string));
+		for (Node<V> root : roots) {
+			List<Node<V>> path = new ArrayList<>();
+			Node<V> node = root;
+			for (int index = 0; node != null; index++) {
+				path.add(node);
+				node = index < folded.length() ? node.child(folded.charAt(index)) : null;
+			}
+			// Deepest first so emptied branches are pruned
+			for (int index = path.size() - 1; index >= 0; index--) {
+				evict(path.get(index));
+			}
+		}
+	}
+
+	/**
+	 * Evicts all cached prefixes of the given dictionary.
+	 *
+	 * @param key the suggestion dictionary key
+	 */
+	public synchronized void invalidate(K key) {
+		invalidations.incrementAndGet();
+		Node<V>[] roots = dictionaries.remove(codec.encodeKey(key));
+		if (roots != null) {
+			entries.keySet().removeIf(node -> Arrays.asList(roots).contains(node.root()));
+		}
+	}
+
+	public synchronized void clear() {
+		invalidations.incrementAndGet();
+		dictionaries.clear();
+		entries.clear();
+	}
+
+	/**
+	 *
+	 * @return number of cached prefixes
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 *
+	 * @return number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 *
+	 * @return number of lookups that called {@code FT.SUGGET}
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	private List<Suggestion<V>> lookup(ByteBuffer dictionary, int variant, String prefix, long max,
+			boolean withScores) {
+		Node<V>[] roots = dictionaries.get(dictionary);
+		Node<V> node = roots == null ? null : roots[variant];
+		Node<V> best = null;
+		long now = System.nanoTime();
+		for (int index = 0; node != null; index++) {
+			Entry<V> entry = node.entry;
+			if (entry != null && entry.expiresAt - now > 0) {
+				if (index == prefix.length()) {
+					if (entry.complete || max <= entry.suggestions.size()) {
+						best = node;
+					}
+				} else if (entry.complete && !withScores) {
+					best = node;
+				}
+			}
+			if (index == prefix.length()) {
+				break;
+			}
+			node = node.child(prefix.charAt(index));
+		}
+		if (best == null) {
+			return null;
+		}
+		entries.get(best);
+		return best.entry.suggestions(prefix, max);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void put(ByteBuffer dictionary, int variant, String prefix, List<Suggestion<V>> suggestions,
+			boolean complete) {
+		Node<V>[] roots = dictionaries.computeIfAbsent(dictionary, d -> new Node[VARIANTS]);
+		if (roots[variant] == null) {
+			roots[variant] = new Node<>(null, (char) 0);
+		}
+		Node<V> node = roots[variant];
+		for (int index = 0; index < prefix.length(); index++) {
+			node = node.childOrCreate(prefix.charAt(index));
+		}
+		String[] strings = new String[suggestions.size()];
+		for (int index = 0; index < strings.length; index++) {
+			strings[index] = fold(codec.encodeValue(suggestions.get(index).getString()));
+		}
+		node.entry = new Entry<>(new ArrayList<>(suggestions), strings, complete, System.nanoTime() + timeToLive);
+		entries.put(node, Boolean.TRUE);
+		while (entries.size() > maxSize) {
+			evict(entries.keySet().iterator().next());
+		}
+	}
+
+	private void evict(Node<V> node) {
+		node.entry = null;
+		entries.remove(node);
+		// Prune branches without entries
+		while (node.parent != null && node.entry == null && node.childCount == 0) {
+			node.parent.remove(node.label);
+			node = node.parent;
+		}
+	}
+
+	private static String fold(ByteBuffer bytes) {
+		return StandardCharsets.UTF_8.decode(bytes).toString().toLowerCase(Locale.ROOT);
+	}
+
+	private static class Entry<V> {
+
+		private final List<Suggestion<V>> suggestions;
+		private final String[] strings;
+		private final boolean complete;
+		private final long expiresAt;
+
+		Entry(List<Suggestion<V>> suggestions, String[] strings, boolean complete, long expiresAt) {
+			this.suggestions = suggestions;
+			this.strings = strings;
+			this.complete = complete;
+			this.expiresAt = expiresAt;
+		}
+
+		List<Suggestion<V>> suggestions(String prefix, long max) {
+			List<Suggestion<V>> results = new ArrayList<>();
+			for (int index = 0; index < strings.length && results.size() < max; index++) {
+				if (strings[index].startsWith(prefix)) {
+					results.add(suggestions.get(index));
+				}
+			}
+			return results;
+		}
+
+	}
+
+	private static class Node<V> {
+
+		private final Node<V> parent;
+		private final char label;
+		private char[] labels = NO_LABELS;
+		private Node<V>[] children;
+		private int childCount;
+		private Entry<V> entry;
+
+		Node(Node<V> parent, char label) {
+			this.parent = parent;
+			this.label = label;
+		}
+
+		Node<V> root() {
+			Node<V> node = this;
+			while (node.parent != null) {
+				node = node.parent;
+			}
+			return node;
+		}
+
+		Node<V> child(char label) {
+			for (int index = 0; index < childCount; index++) {
+				if (labels[index] == label) {
+					return children[index];
+				}
+			}
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		Node<V> childOrCreate(char label) {
+			Node<V> child = child(label);
+			if (child != null) {
+				return child;
+			}
+			if (childCount == labels.length) {
+				int capacity = Math.max(2, childCount * 2);
+				labels = Arrays.copyOf(labels, capacity);
+				children = children == null ? new Node[capacity] : Arrays.copyOf(children, capacity);
+			}
+			child = new Node<>(this, label);
+			labels[childCount] = label;
+			children[childCount] = child;
+			childCount++;
+			return child;
+		}
+
+		void remove(char label) {
+			for (int index = 0; index < childCount; index++) {
+				if (labels[index] == label) {
+					childCount--;
+					labels[index] = labels[childCount];
+					children[index] = children[childCount];
+					children[childCount] = null;
+					return;
+				}
+			}
+		}
+
+	}
+
+	public static Builder<String, String> builder(StatefulRedisModulesConnection<String, String> connection) {
+		return builder(connection, StringCodec.UTF8);
+	}
+
+	public static <K, V> Builder<K, V> builder(StatefulRedisModulesConnection<K, V> connection,
+			RedisCodec<K, V> codec) {
+		return new Builder<>(connection, codec);
+	}
+
+	public static class Builder<K, V> {
+
+		private final StatefulRedisModulesConnection<K, V> connection;
+		private final RedisCodec<K, V> codec;
+		private int maxSize = DEFAULT_MAX_SIZE;
+		private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+		private Builder(StatefulRedisModulesConnection<K, V> connection, RedisCodec<K, V> codec) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			this.connection = connection;
+			this.codec = codec;
+		}
+
+		/**
+		 *
+		 * @param maxSize maximum number of cached prefixes across all dictionaries,
+		 *                least recently used prefixes are evicted first
+		 * @return this builder
+		 */
+		public Builder<K, V> maxSize(int maxSize) {
+			LettuceAssert.isTrue(maxSize > 0, "Max size must be greater than 0");
+			this.maxSize = maxSize;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param timeToLive how long cached prefixes are used, which bounds how long
+		 *                   changes made by other clients go unnoticed
+		 * @return this builder
+		 */
+		public Builder<K, V> timeToLive(Duration timeToLive) {
+			LettuceAssert.isTrue(timeToLive != null && !timeToLive.isNegative() && !timeToLive.isZero(),
+					"Time to live must be greater than 0");
+			this.timeToLive = timeToLive;
+			return this;
+		}
+
+		public SuggestionCache<K, V> build() {
+			return new SuggestionCache<>(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,254 @@
+package com.redis.lettucemod.search;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandInterruptedException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Loads large numbers of suggestions into a suggestion dictionary. Suggestions
+ * are written with {@code FT.SUGADD} on the asynchronous API so they are
+ * pipelined, with at most a given number of commands in flight.
+ * <p>
+ * Duplicate strings are aggregated client-side within a window of distinct
+ * strings before being written: their scores are summed with {@code INCR}
+ * semantics, as {@code FT.SUGADD ... INCR} would, otherwise the last score wins
+ * as it would on the server. Duplicates spread over several windows
+ * are still written correctly, just not aggregated.
+ * <p>
+ * {@link #rebuild(Object, Object, Iterator)} loads into a shadow key that is
+ * renamed over the live key once every suggestion was written, so readers
+ * never see a partially built dictionary. On Redis Cluster both keys must hash
+ * to the same slot, e.g. by sharing a hash tag.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class SuggestionLoader<K, V> {
+
+	public static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+
+	public static final int DEFAULT_WINDOW_SIZE = 100000;
+
+	private final StatefulRedisModulesConnection<K, V> connection;
+	private final RedisCodec<K, V> codec;
+	private final boolean incr;
+	private final int maxInFlight;
+	private final int windowSize;
+
+	private SuggestionLoader(Builder<K, V> builder) {
+		this.connection = builder.connection;
+		this.codec = builder.codec;
+		this.incr = builder.incr;
+		this.maxInFlight = builder.maxInFlight;
+		this.windowSize = builder.windowSize;
+	}
+
+	public long load(K key, Stream<Suggestion<V>> suggestions) {
+		return load(key, suggestions.iterator());
+	}
+
+	/**
+	 * Adds the given suggestions to the dictionary in place.
+	 *
+	 * @param key         the suggestion dictionary key
+	 * @param suggestions suggestions to add
+	 * @return number of {@code FT.SUGADD} commands written
+	 */
+	public long load(K key, Iterator<Suggestion<V>> suggestions) {
+		return write(key, suggestions);
+	}
+
+	public long rebuild(K key, K shadowKey, Stream<Suggestion<V>> suggestions) {
+		return rebuild(key, shadowKey, suggestions.iterator());
+	}
+
+	/**
+	 * Replaces the dictionary with the given suggestions. They are loaded into
+	 * the shadow key, which is then renamed over the dictionary key. The shadow
+	 * key is deleted if loading fails, leaving the dictionary untouched.
+	 *
+	 * @param key         the suggestion dictionary key
+	 * @param shadowKey   key the new dictionary is built in
+	 * @param suggestions suggestions of the new dictionary
+	 * @return number of {@code FT.SUGADD} commands written
+	 */
+	public long rebuild(K key, K shadowKey, Iterator<Suggestion<V>> suggestions) {
+		if (connection instanceof StatefulRedisClusterConnection) {
+			LettuceAssert.isTrue(
+					SlotHash.getSlot(codec.encodeKey(key)) == SlotHash.getSlot(codec.encodeKey(shadowKey)),
+					"Dictionary key and shadow key must hash to the same slot");
+		}
+		connection.sync().del(shadowKey);
+		long count;
+		try {
+			count = write(shadowKey, suggestions);
+		} catch (RuntimeException e) {
+			connection.sync().del(shadowKey);
+			throw e;
+		}
+		if (count == 0) {
+			connection.sync().del(key);
+		} else {
+			connection.sync().rename(shadowKey, key);
+		}
+		return count;
+	}
+
+	private long write(K key, Iterator<Suggestion<V>> suggestions) {
+		Semaphore permits = new Semaphore(maxInFlight);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		RedisModulesAsyncCommands<K, V> async = connection.async();
+		Map<ByteBuffer, Suggestion<V>> window = new LinkedHashMap<>();
+		long count = 0;
+		while (suggestions.hasNext() && error.get() == null) {
+			aggregate(window, suggestions.next());
+			if (window.size() >= windowSize) {
+				count += flush(key, window, async, permits, error);
+			}
+		}
+		if (error.get() == null) {
+			count += flush(key, window, async, permits, error);
+		}
+		acquire(permits, maxInFlight);
+		Throwable failure = error.get();
+		if (failure != null) {
+			throw failure instanceof RedisException ? (RedisException) failure
+					: new RedisCommandExecutionException(failure);
+		}
+		return count;
+	}
+
+	private void aggregate(Map<ByteBuffer, Suggestion<V>> window, Suggestion<V> suggestion) {
+		LettuceAssert.notNull(suggestion.getString(), "Suggestion string must not be null");
+		ByteBuffer string = codec.encodeValue(suggestion.getString());
+		Suggestion<V> previous = window.get(string);
+		if (previous == null) {
+			window.put(string, suggestion);
+			return;
+		}
+		Suggestion<V> aggregated = new Suggestion<>();
+		aggregated.setString(suggestion.getString());
+		aggregated.setScore(incr ? score(previous) + score(suggestion) : suggestion.getScore());
+		aggregated.setPayload(suggestion.getPayload() == null ? previous.getPayload() : suggestion.getPayload());
+		window.put(string, aggregated);
+	}
+
+	private static double score(Suggestion<?> suggestion) {
+		return suggestion.getScore() == null ? 0 : suggestion.getScore();
+	}
+
+	private long flush(K key, Map<ByteBuffer, Suggestion<V>> window, RedisModulesAsyncCommands<K, V> async,
+			Semaphore permits, AtomicReference<Throwable> error) {
+		long count = 0;
+		for (Suggestion<V> suggestion : window.values()) {
+			if (error.get() != null) {
+				break;
+			}
+			acquire(permits, 1);
+			RedisFuture<Long> future = incr ? async.ftSugaddIncr(key, suggestion) : async.ftSugadd(key, suggestion);
+			future.whenComplete((result, throwable) -> {
+				if (throwable != null) {
+					error.compareAndSet(null, throwable);
+				}
+				permits.release();
+			});
+			count++;
+		}
+		window.clear();
+		return count;
+	}
+
+	private void acquire(Semaphore permits, int count) {
+		try {
+			if (!permits.tryAcquire(count, connection.getTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+				throw new RedisCommandTimeoutException("Suggestions were not written within " + connection.getTimeout());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RedisCommandInterruptedException(e);
+		}
+	}
+
+	public static Builder<String, String> builder(StatefulRedisModulesConnection<String, String> connection) {
+		return builder(connection, StringCodec.UTF8);
+	}
+
+	public static <K, V> Builder<K, V> builder(StatefulRedisModulesConnection<K, V> connection,
+			RedisCodec<K, V> codec) {
+		return new Builder<>(connection, codec);
+	}
+
+	public static class Builder<K, V> {
+
+		private final StatefulRedisModulesConnection<K, V> connection;
+		private final RedisCodec<K, V> codec;
+		private boolean incr;
+		private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+		private int windowSize = DEFAULT_WINDOW_SIZE;
+
+		private Builder(StatefulRedisModulesConnection<K, V> connection, RedisCodec<K, V> codec) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			this.connection = connection;
+			this.codec = codec;
+		}
+
+		public Builder<K, V> incr() {
+			return incr(true);
+		}
+
+		/**
+		 *
+		 * @param incr true to increment the scores of existing suggestions, and to
+		 *             sum the scores of duplicate strings, instead of replacing them
+		 * @return this builder
+		 */
+		public Builder<K, V> incr(boolean incr) {
+			this.incr = incr;
+			return this;
+		}
+
+		public Builder<K, V> maxInFlight(int maxInFlight) {
+			LettuceAssert.isTrue(maxInFlight > 0, "Max in-flight commands must be greater than 0");
+			this.maxInFlight = maxInFlight;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param windowSize number of distinct strings aggregated before they are
+		 *                   written
+		 * @return this builder
+		 */
+		public Builder<K, V> windowSize(int windowSize) {
+			LettuceAssert.isTrue(windowSize > 0, "Window size must be greater than 0");
+			this.windowSize = windowSize;
+			return this;
+		}
+
+		public SuggestionLoader<K, V> build() {
+			return new SuggestionLoader<>(this);
+		}
+
+	}
+
+}
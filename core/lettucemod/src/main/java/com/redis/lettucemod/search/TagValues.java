@@ -0,0 +1,90 @@
+package com.redis.lettucemod.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.redis.lettucemod.RedisModulesUtils;
+
+/**
+ * Immutable snapshot of the distinct values of a tag field, as returned by
+ * {@code FT.TAGVALS}. Values are interned and sorted so they can be searched by
+ * prefix, and escaped once so query conditions can be built from them without
+ * escaping values on every request, e.g. with
+ * {@code tag(field).in(tagValues::escape, values)} in lettucemod-query.
+ */
+public class TagValues {
+
+	private final String[] values;
+	private final String[] escapedValues;
+	private final long timestamp;
+
+	public TagValues(Collection<String> values) {
+		this.values = new String[values.size()];
+		int index = 0;
+		for (String value : values) {
+			this.values[index++] = value.intern();
+		}
+		Arrays.sort(this.values);
+		this.escapedValues = new String[this.values.length];
+		for (index = 0; index < this.values.length; index++) {
+			this.escapedValues[index] = RedisModulesUtils.escapeTag(this.values[index]);
+		}
+		this.timestamp = System.nanoTime();
+	}
+
+	/**
+	 *
+	 * @return sorted tag values
+	 */
+	public List<String> getValues() {
+		return Collections.unmodifiableList(Arrays.asList(values));
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	public boolean contains(String value) {
+		return Arrays.binarySearch(values, value) >= 0;
+	}
+
+	/**
+	 *
+	 * @param prefix the prefix to search for
+	 * @return sorted tag values starting with the given prefix
+	 */
+	public List<String> startingWith(String prefix) {
+		int from = insertionPoint(prefix);
+		int to = from;
+		while (to < values.length && values[to].startsWith(prefix)) {
+			to++;
+		}
+		return getValues().subList(from, to);
+	}
+
+	/**
+	 *
+	 * @param value a tag value
+	 * @return the escaped form of the value, looked up for values of this snapshot
+	 * @see RedisModulesUtils#escapeTag(String)
+	 */
+	public String escape(String value) {
+		int index = Arrays.binarySearch(values, value);
+		if (index >= 0) {
+			return escapedValues[index];
+		}
+		return RedisModulesUtils.escapeTag(value);
+	}
+
+	long getTimestamp() {
+		return timestamp;
+	}
+
+	private int insertionPoint(String value) {
+		int index = Arrays.binarySearch(values, value);
+		return index >= 0 ? index : -index - 1;
+	}
+
+}
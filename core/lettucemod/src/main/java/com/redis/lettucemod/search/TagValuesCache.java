@@ -0,0 +1,106 @@
+package com.redis.lettucemod.search;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Local dictionary of tag values per index and tag field, e.g. to render
+ * filter options of a faceted search without calling {@code FT.TAGVALS} on
+ * every request. Snapshots are loaded on first access and reloaded on access
+ * once they are older than the refresh interval.
+ */
+public class TagValuesCache {
+
+	public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+	private final StatefulRedisModulesConnection<String, String> connection;
+	private final long refreshInterval;
+	private final Map<List<String>, TagValues> snapshots = new ConcurrentHashMap<>();
+
+	private TagValuesCache(Builder builder) {
+		this.connection = builder.connection;
+		this.refreshInterval = builder.refreshInterval.toNanos();
+	}
+
+	/**
+	 *
+	 * @param index the index name
+	 * @param field the tag field name
+	 * @return tag values of the field, reloaded if the cached snapshot is older
+	 *         than the refresh interval
+	 */
+	public TagValues get(String index, String field) {
+		TagValues values = snapshots.get(key(index, field));
+		if (values == null || System.nanoTime() - values.getTimestamp() >= refreshInterval) {
+			return refresh(index, field);
+		}
+		return values;
+	}
+
+	/**
+	 * Loads the tag values of the given field with {@code FT.TAGVALS}.
+	 *
+	 * @param index the index name
+	 * @param field the tag field name
+	 * @return the new snapshot of tag values
+	 */
+	public TagValues refresh(String index, String field) {
+		TagValues values = new TagValues(connection.sync().ftTagvals(index, field));
+		snapshots.put(key(index, field), values);
+		return values;
+	}
+
+	public void invalidate(String index, String field) {
+		snapshots.remove(key(index, field));
+	}
+
+	public void clear() {
+		snapshots.clear();
+	}
+
+	private static List<String> key(String index, String field) {
+		return Arrays.asList(index, field);
+	}
+
+	public static Builder builder(StatefulRedisModulesConnection<String, String> connection) {
+		return new Builder(connection);
+	}
+
+	public static class Builder {
+
+		private final StatefulRedisModulesConnection<String, String> connection;
+		private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+		private Builder(StatefulRedisModulesConnection<String, String> connection) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			this.connection = connection;
+		}
+
+		/**
+		 *
+		 * @param refreshInterval age after which tag values are reloaded, which
+		 *                        bounds how long values added or removed by writers
+		 *                        go unnoticed
+		 * @return this builder
+		 */
+		public Builder refreshInterval(Duration refreshInterval) {
+			LettuceAssert.isTrue(refreshInterval != null && !refreshInterval.isNegative(),
+					"Refresh interval must not be negative");
+			this.refreshInterval = refreshInterval;
+			return this;
+		}
+
+		public TagValuesCache build() {
+			return new TagValuesCache(this);
+		}
+
+	}
+
+}
@@ -19,6 +19,14 @@ public class AbstractRangeOptions implements CompositeArgument {
 	protected AbstractRangeOptions() {
 	}
 
+	protected AbstractRangeOptions(AbstractRangeOptions options) {
+		this.latest = options.latest;
+		this.filterByTimestamp = options.filterByTimestamp;
+		this.filterByValue = options.filterByValue;
+		this.count = options.count;
+		this.aggregation = options.aggregation;
+	}
+
 	protected AbstractRangeOptions(Builder<?> builder) {
 		this.latest = builder.latest;
 		this.filterByTimestamp = builder.filterByTimestamp;
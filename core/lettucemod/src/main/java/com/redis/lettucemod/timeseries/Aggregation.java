@@ -86,6 +86,23 @@ public class Aggregation implements CompositeArgument {
 			this.value = value;
 		}
 
+		public boolean isStart() {
+			return this == START;
+		}
+
+		public boolean isEnd() {
+			return this == END;
+		}
+
+		/**
+		 *
+		 * @return the alignment timestamp, only meaningful if this is neither
+		 *         {@link #start()} nor {@link #end()}
+		 */
+		public long getValue() {
+			return value;
+		}
+
 		public static Align of(long timestamp) {
 			return new Align(timestamp);
 		}
@@ -0,0 +1,335 @@
+package com.redis.lettucemod.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.redis.lettucemod.timeseries.Aggregation.Align;
+import com.redis.lettucemod.timeseries.Aggregation.BucketTimestamp;
+
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Computes {@link Aggregation}s of raw samples on the client with the same
+ * bucket alignment, bucket timestamps and empty bucket rules as
+ * {@code TS.RANGE ... AGGREGATION}. Several aggregations, e.g. of different
+ * bucket durations for the same chart, are computed in a single pass over the
+ * samples so the raw series only has to be fetched once.
+ * <p>
+ * Samples must be sorted by ascending timestamp. Samples outside of the time
+ * range are not aggregated but are used as neighbors by {@link Aggregator#TWA}
+ * and for the {@link Aggregator#LAST} value of empty buckets, like the server
+ * does. With {@link Align#start()} an unbounded range starts at 0, and with
+ * {@link Align#end()} an unbounded range ends at the last sample.
+ */
+public class Downsampler {
+
+	private final TimeRange range;
+	private final List<Aggregation> aggregations;
+
+	private Downsampler(TimeRange range, List<Aggregation> aggregations) {
+		this.range = range;
+		this.aggregations = aggregations;
+	}
+
+	public static Downsampler of(Aggregation... aggregations) {
+		return of(TimeRange.unbounded(), aggregations);
+	}
+
+	public static Downsampler of(TimeRange range, Aggregation... aggregations) {
+		LettuceAssert.notNull(range, "Range must not be null");
+		LettuceAssert.notEmpty(aggregations, "At least one aggregation is required");
+		return new Downsampler(range, Arrays.asList(aggregations));
+	}
+
+	public List<Aggregation> getAggregations() {
+		return aggregations;
+	}
+
+	/**
+	 *
+	 * @param samples raw samples sorted by ascending timestamp
+	 * @return aggregated samples for each aggregation, in the order the
+	 *         aggregations were given
+	 */
+	public List<List<Sample>> downsample(List<Sample> samples) {
+		long[] timestamps = new long[samples.size()];
+		double[] values = new double[samples.size()];
+		for (int index = 0; index < timestamps.length; index++) {
+			Sample sample = samples.get(index);
+			timestamps[index] = sample.getTimestamp();
+			values[index] = sample.getValue();
+		}
+		return downsample(timestamps, values, timestamps.length);
+	}
+
+	/**
+	 *
+	 * @param timestamps sample timestamps in ascending order
+	 * @param values     sample values
+	 * @param length     number of samples to read from the arrays
+	 * @return aggregated samples for each aggregation, in the order the
+	 *         aggregations were given
+	 */
+	public List<List<Sample>> downsample(long[] timestamps, double[] values, int length) {
+		LettuceAssert.isTrue(length <= timestamps.length && length <= values.length,
+				"Length must not exceed array lengths");
+		long from = range.getFrom().isUnbounded() ? 0 : range.getFrom().getValue();
+		long to = range.getTo().isUnbounded() ? Long.MAX_VALUE : range.getTo().getValue();
+		long end = range.getTo().isUnbounded() && length > 0 ? timestamps[length - 1] : to;
+		Bucketizer[] bucketizers = new Bucketizer[aggregations.size()];
+		for (int index = 0; index < bucketizers.length; index++) {
+			bucketizers[index] = new Bucketizer(aggregations.get(index), from, end);
+		}
+		for (int index = 0; index < length; index++) {
+			long timestamp = timestamps[index];
+			if (timestamp < from) {
+				for (Bucketizer bucketizer : bucketizers) {
+					bucketizer.previous(timestamp, values[index]);
+				}
+			} else if (timestamp > to) {
+				for (Bucketizer bucketizer : bucketizers) {
+					bucketizer.next(timestamp, values[index]);
+				}
+				break;
+			} else {
+				for (Bucketizer bucketizer : bucketizers) {
+					bucketizer.add(timestamp, values[index]);
+				}
+			}
+		}
+		List<List<Sample>> results = new ArrayList<>(bucketizers.length);
+		for (Bucketizer bucketizer : bucketizers) {
+			results.add(bucketizer.finish());
+		}
+		return results;
+	}
+
+	/**
+	 * Streams samples into consecutive buckets of one aggregation.
+	 */
+	private static class Bucketizer {
+
+		private final Aggregator aggregator;
+		private final long duration;
+		private final long alignment;
+		private final BucketTimestamp bucketTimestamp;
+		private final boolean empty;
+		private final List<Sample> samples = new ArrayList<>();
+
+		private boolean open;
+		private long bucketStart;
+		private int count;
+		private double sum;
+		private double min;
+		private double max;
+		private double mean;
+		private double squares;
+		private long firstTimestamp;
+		private double firstValue;
+		private long lastTimestamp;
+		private double lastValue;
+		private double area;
+		private boolean hasPrevious;
+		private long previousTimestamp;
+		private double previousValue;
+
+		Bucketizer(Aggregation aggregation, long from, long to) {
+			this.aggregator = aggregation.getAggregator();
+			this.duration = aggregation.getBucketDuration().toMillis();
+			this.alignment = aggregation.getAlign().map(a -> alignment(a, from, to)).orElse(0L);
+			this.bucketTimestamp = aggregation.getBucketTimestamp().orElse(BucketTimestamp.LOW);
+			this.empty = aggregation.isEmpty();
+		}
+
+		private static long alignment(Align align, long from, long to) {
+			if (align.isStart()) {
+				return from;
+			}
+			if (align.isEnd()) {
+				return to;
+			}
+			return align.getValue();
+		}
+
+		private long bucketStart(long timestamp) {
+			return Math.max(0, timestamp - Math.floorMod(timestamp - alignment, duration));
+		}
+
+		/**
+		 * Sample before the range, only used as a neighbor.
+		 */
+		void previous(long timestamp, double value) {
+			hasPrevious = true;
+			previousTimestamp = timestamp;
+			previousValue = value;
+		}
+
+		/**
+		 * Sample after the range, only used as a neighbor.
+		 */
+		void next(long timestamp, double value) {
+			if (open) {
+				close(true, timestamp, value);
+				open = false;
+			}
+		}
+
+		void add(long timestamp, double value) {
+			long start = bucketStart(timestamp);
+			if (open && start != bucketStart) {
+				close(true, timestamp, value);
+				if (empty) {
+					for (long emptyStart = bucketStart + duration; emptyStart < start; emptyStart += duration) {
+						emptyBucket(emptyStart, timestamp, value);
+					}
+				}
+				open = false;
+			}
+			if (!open) {
+				open = true;
+				bucketStart = start;
+				count = 0;
+				sum = 0;
+				mean = 0;
+				squares = 0;
+				area = 0;
+				firstTimestamp = timestamp;
+				firstValue = value;
+				min = value;
+				max = value;
+			} else {
+				area += (lastValue + value) / 2 * (timestamp - lastTimestamp);
+			}
+			count++;
+			sum += value;
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			double delta = value - mean;
+			mean += delta / count;
+			squares += delta * (value - mean);
+			lastTimestamp = timestamp;
+			lastValue = value;
+		}
+
+		List<Sample> finish() {
+			if (open) {
+				close(false, 0, 0);
+				open = false;
+			}
+			return samples;
+		}
+
+		private void close(boolean hasNext, long nextTimestamp, double nextValue) {
+			samples.add(Sample.of(timestamp(bucketStart), value(hasNext, nextTimestamp, nextValue)));
+			hasPrevious = true;
+			previousTimestamp = lastTimestamp;
+			previousValue = lastValue;
+		}
+
+		private long timestamp(long start) {
+			switch (bucketTimestamp) {
+			case HIGH:
+				return start + duration;
+			case MID:
+				return start + duration / 2;
+			default:
+				return start;
+			}
+		}
+
+		private double value(boolean hasNext, long nextTimestamp, double nextValue) {
+			switch (aggregator) {
+			case AVG:
+				return sum / count;
+			case SUM:
+				return sum;
+			case MIN:
+				return min;
+			case MAX:
+				return max;
+			case RANGE:
+				return max - min;
+			case COUNT:
+				return count;
+			case FIRST:
+				return firstValue;
+			case LAST:
+				return lastValue;
+			case STD_P:
+				return Math.sqrt(squares / count);
+			case STD_S:
+				return count > 1 ? Math.sqrt(squares / (count - 1)) : 0;
+			case VAR_P:
+				return squares / count;
+			case VAR_S:
+				return count > 1 ? squares / (count - 1) : 0;
+			default:
+				return twa(hasNext, nextTimestamp, nextValue);
+			}
+		}
+
+		/**
+		 * Time-weighted average of the linear interpolation of the samples. The
+		 * interval extends to the bucket boundaries when there is a neighbor sample
+		 * to interpolate with on that side.
+		 */
+		private double twa(boolean hasNext, long nextTimestamp, double nextValue) {
+			double weightedArea = area;
+			long start = firstTimestamp;
+			long end = lastTimestamp;
+			if (hasPrevious && bucketStart < firstTimestamp) {
+				double startValue = interpolate(previousTimestamp, previousValue, firstTimestamp, firstValue,
+						bucketStart);
+				weightedArea += (startValue + firstValue) / 2 * (firstTimestamp - bucketStart);
+				start = bucketStart;
+			}
+			long bucketEnd = bucketStart + duration;
+			if (hasNext && lastTimestamp < bucketEnd) {
+				double endValue = interpolate(lastTimestamp, lastValue, nextTimestamp, nextValue, bucketEnd);
+				weightedArea += (lastValue + endValue) / 2 * (bucketEnd - lastTimestamp);
+				end = bucketEnd;
+			}
+			if (end == start) {
+				return lastValue;
+			}
+			return weightedArea / (end - start);
+		}
+
+		/**
+		 * Empty buckets report 0 for sums and counts, the last value before the
+		 * bucket for {@link Aggregator#LAST}, the interpolation between the
+		 * surrounding samples for {@link Aggregator#TWA}, and NaN otherwise.
+		 */
+		private void emptyBucket(long start, long nextTimestamp, double nextValue) {
+			double value;
+			switch (aggregator) {
+			case SUM:
+			case COUNT:
+				value = 0;
+				break;
+			case LAST:
+				value = previousValue;
+				break;
+			case TWA:
+				long middle = start + duration / 2;
+				value = interpolate(previousTimestamp, previousValue, nextTimestamp, nextValue, middle);
+				break;
+			default:
+				value = Double.NaN;
+				break;
+			}
+			samples.add(Sample.of(timestamp(start), value));
+		}
+
+		private static double interpolate(long timestamp1, double value1, long timestamp2, double value2,
+				long timestamp) {
+			if (timestamp2 == timestamp1) {
+				return value1;
+			}
+			return value1 + (value2 - value1) * (timestamp - timestamp1) / (timestamp2 - timestamp1);
+		}
+
+	}
+
+}
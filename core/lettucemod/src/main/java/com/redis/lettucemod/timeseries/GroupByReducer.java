@@ -0,0 +1,288 @@
+package com.redis.lettucemod.timeseries;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.redis.lettucemod.timeseries.MRangeOptions.GroupBy;
+import com.redis.lettucemod.timeseries.MRangeOptions.Reducer;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.internal.LettuceAssert;
+
+/**
+ * Applies {@code GROUPBY <label> REDUCE <reducer>} to {@code TS.MRANGE} results
+ * on the client, producing the same output as the server: one series per label
+ * value named {@code <label>=<value>}, labeled with {@code __reducer__} and
+ * {@code __source__} when labels are requested. Series that do not have the
+ * label are ignored.
+ * <p>
+ * This makes grouping possible over results gathered from several cluster
+ * shards, and lets raw series be fetched once and grouped several ways.
+ * Samples of a group are aligned on the union of their timestamps and reduced
+ * over primitive arrays. Groups are reduced in parallel on a
+ * {@link ForkJoinPool} and {@link #reduce(List, GroupBy, boolean, boolean)}
+ * waits for them, so it should not be called on an I/O thread.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class GroupByReducer<K, V> {
+
+	public static final String REDUCER_LABEL = "__reducer__";
+
+	public static final String SOURCE_LABEL = "__source__";
+
+	private static final byte[] GROUP_SEPARATOR = "=".getBytes(StandardCharsets.US_ASCII);
+
+	private static final byte[] SOURCE_SEPARATOR = ",".getBytes(StandardCharsets.US_ASCII);
+
+	private final RedisCodec<K, V> codec;
+	private final ForkJoinPool pool;
+
+	public GroupByReducer(RedisCodec<K, V> codec) {
+		this(codec, ForkJoinPool.commonPool());
+	}
+
+	public GroupByReducer(RedisCodec<K, V> codec, ForkJoinPool pool) {
+		LettuceAssert.notNull(codec, "Codec must not be null");
+		LettuceAssert.notNull(pool, "Pool must not be null");
+		this.codec = codec;
+		this.pool = pool;
+	}
+
+	/**
+	 *
+	 * @return the pool groups are reduced on
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 *
+	 * @param results    series to group, with at least the group label
+	 * @param groupBy    label and reducer
+	 * @param reverse    true to order samples by descending timestamp like
+	 *                   {@code TS.MREVRANGE}
+	 * @param withLabels true to label the output series, like {@code WITHLABELS}
+	 *                   or {@code SELECTED_LABELS}
+	 * @return one series per distinct value of the group label
+	 */
+	public List<RangeResult<K, V>> reduce(List<RangeResult<K, V>> results, GroupBy<K> groupBy, boolean reverse,
+			boolean withLabels) {
+		ByteBuffer label = codec.encodeKey(groupBy.getLabel());
+		Map<ByteBuffer, List<RangeResult<K, V>>> groups = new LinkedHashMap<>();
+		Map<ByteBuffer, V> groupValues = new LinkedHashMap<>();
+		for (RangeResult<K, V> result : results) {
+			V value = labelValue(result, label);
+			if (value == null) {
+				continue;
+			}
+			ByteBuffer encodedValue = codec.encodeValue(value);
+			groups.computeIfAbsent(encodedValue, v -> new ArrayList<>()).add(result);
+			groupValues.putIfAbsent(encodedValue, value);
+		}
+		List<RangeResult<K, V>> reduced = new ArrayList<>(groups.size());
+		List<ForkJoinTask<List<Sample>>> tasks = new ArrayList<>(groups.size());
+		for (Map.Entry<ByteBuffer, List<RangeResult<K, V>>> group : groups.entrySet()) {
+			RangeResult<K, V> result = new RangeResult<>();
+			result.setKey(codec.decodeKey(concat(GROUP_SEPARATOR, bytes(label), bytes(group.getKey()))));
+			Map<K, V> labels = new LinkedHashMap<>();
+			if (withLabels) {
+				labels.put(groupBy.getLabel(), groupValues.get(group.getKey()));
+				labels.put(key(REDUCER_LABEL), value(groupBy.getReducer().getName().toLowerCase()));
+				labels.put(key(SOURCE_LABEL), sources(group.getValue()));
+			}
+			result.setLabels(labels);
+			reduced.add(result);
+			if (groups.size() > 1) {
+				tasks.add(pool.submit(() -> reduce(group.getValue(), groupBy.getReducer(), reverse)));
+			} else {
+				result.setSamples(reduce(group.getValue(), groupBy.getReducer(), reverse));
+			}
+		}
+		for (int index = 0; index < tasks.size(); index++) {
+			reduced.get(index).setSamples(tasks.get(index).join());
+		}
+		return reduced;
+	}
+
+	private V labelValue(RangeResult<K, V> result, ByteBuffer label) {
+		if (result.getLabels() == null) {
+			return null;
+		}
+		for (Map.Entry<K, V> entry : result.getLabels().entrySet()) {
+			if (codec.encodeKey(entry.getKey()).equals(label)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	private List<Sample> reduce(List<RangeResult<K, V>> series, Reducer reducer, boolean reverse) {
+		long[][] timestamps = new long[series.size()][];
+		double[][] values = new double[series.size()][];
+		int total = 0;
+		for (int index = 0; index < timestamps.length; index++) {
+			List<Sample> samples = series.get(index).getSamples();
+			timestamps[index] = new long[samples.size()];
+			values[index] = new double[samples.size()];
+			for (int position = 0; position < samples.size(); position++) {
+				Sample sample = samples.get(position);
+				timestamps[index][position] = sample.getTimestamp();
+				values[index][position] = sample.getValue();
+			}
+			total += samples.size();
+		}
+		long[] aligned = new long[total];
+		int length = 0;
+		for (long[] column : timestamps) {
+			System.arraycopy(column, 0, aligned, length, column.length);
+			length += column.length;
+		}
+		Arrays.sort(aligned);
+		length = distinct(aligned);
+		Accumulator accumulator = new Accumulator(length);
+		for (int index = 0; index < timestamps.length; index++) {
+			for (int position = 0; position < timestamps[index].length; position++) {
+				int slot = Arrays.binarySearch(aligned, 0, length, timestamps[index][position]);
+				accumulator.add(slot, values[index][position]);
+			}
+		}
+		List<Sample> samples = new ArrayList<>(length);
+		for (int index = 0; index < length; index++) {
+			int slot = reverse ? length - 1 - index : index;
+			samples.add(Sample.of(aligned[slot], accumulator.result(reducer, slot)));
+		}
+		return samples;
+	}
+
+	/**
+	 * Removes duplicates from the given sorted array in place.
+	 *
+	 * @return number of distinct elements at the start of the array
+	 */
+	private static int distinct(long[] sorted) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int length = 1;
+		for (int index = 1; index < sorted.length; index++) {
+			if (sorted[index] != sorted[length - 1]) {
+				sorted[length++] = sorted[index];
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Per-timestamp running statistics. Variance uses Welford's algorithm to
+	 * avoid the cancellation of the naive sum of squares.
+	 */
+	private static class Accumulator {
+
+		private final int[] counts;
+		private final double[] sums;
+		private final double[] mins;
+		private final double[] maxs;
+		private final double[] means;
+		private final double[] squares;
+
+		Accumulator(int length) {
+			this.counts = new int[length];
+			this.sums = new double[length];
+			this.mins = new double[length];
+			this.maxs = new double[length];
+			this.means = new double[length];
+			this.squares = new double[length];
+		}
+
+		void add(int slot, double value) {
+			int count = ++counts[slot];
+			sums[slot] += value;
+			if (count == 1) {
+				mins[slot] = value;
+				maxs[slot] = value;
+			} else {
+				mins[slot] = Math.min(mins[slot], value);
+				maxs[slot] = Math.max(maxs[slot], value);
+			}
+			double delta = value - means[slot];
+			means[slot] += delta / count;
+			squares[slot] += delta * (value - means[slot]);
+		}
+
+		double result(Reducer reducer, int slot) {
+			int count = counts[slot];
+			switch (reducer) {
+			case MIN:
+				return mins[slot];
+			case MAX:
+				return maxs[slot];
+			case AVG:
+				return sums[slot] / count;
+			case RANGE:
+				return maxs[slot] - mins[slot];
+			case COUNT:
+				return count;
+			case VAR_P:
+				return squares[slot] / count;
+			case VAR_S:
+				return count > 1 ? squares[slot] / (count - 1) : 0;
+			case STD_P:
+				return Math.sqrt(squares[slot] / count);
+			case STD_S:
+				return count > 1 ? Math.sqrt(squares[slot] / (count - 1)) : 0;
+			default:
+				return sums[slot];
+			}
+		}
+
+	}
+
+	private V sources(List<RangeResult<K, V>> series) {
+		byte[][] keys = new byte[series.size()][];
+		for (int index = 0; index < keys.length; index++) {
+			keys[index] = bytes(codec.encodeKey(series.get(index).getKey()));
+		}
+		return codec.decodeValue(concat(SOURCE_SEPARATOR, keys));
+	}
+
+	private K key(String string) {
+		return codec.decodeKey(ByteBuffer.wrap(string.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private V value(String string) {
+		return codec.decodeValue(ByteBuffer.wrap(string.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	private static ByteBuffer concat(byte[] separator, byte[]... parts) {
+		int length = Math.max(0, parts.length - 1) * separator.length;
+		for (byte[] part : parts) {
+			length += part.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		for (int index = 0; index < parts.length; index++) {
+			if (index > 0) {
+				buffer.put(separator);
+			}
+			buffer.put(parts[index]);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+}
@@ -0,0 +1,371 @@
+package com.redis.lettucemod.timeseries;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.redis.lettucemod.FlushScheduler;
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisTimeSeriesAsyncCommands;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.internal.LettuceAssert;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * Write-behind buffer for {@code TS.INCRBY}. Increments are summed per series
+ * in striped cells and flushed as a single {@code TS.INCRBY} per series every
+ * flush period, which turns a high rate of small increments into one command
+ * per series and period.
+ * <p>
+ * With a bucket duration, increments are summed per series and bucket and
+ * flushed with {@code TS.ADD} at the start of the bucket and
+ * {@code ON_DUPLICATE SUM}, so each bucket becomes one sample holding the
+ * bucket's total, even across flushes and writers.
+ * <p>
+ * Buffered increments are at most one flush period old unless flushes lag
+ * behind, in which case an increment older than the max staleness triggers an
+ * immediate flush. Pending increments are flushed on {@link #close()} and, if
+ * enabled, by a JVM shutdown hook. Increments whose flush fails are lost.
+ * Series that do not exist are created with the server's default settings.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public class IncrbyAccumulator<K, V> implements AutoCloseable {
+
+	public static final Duration DEFAULT_FLUSH_PERIOD = Duration.ofSeconds(1);
+
+	public static final Duration DEFAULT_MAX_STALENESS = Duration.ofSeconds(5);
+
+	private static final InternalLogger log = InternalLoggerFactory.getInstance(IncrbyAccumulator.class);
+
+	private static final long NO_BUCKET = -1;
+
+	private final StatefulRedisModulesConnection<K, V> connection;
+	private final RedisCodec<K, V> codec;
+	private final long bucketDuration;
+	private final long maxStaleness;
+	private final FlushScheduler flushScheduler;
+	private final Map<CellKey, Cell<K>> cells = new ConcurrentHashMap<>();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final AtomicLong failedFlushes = new AtomicLong();
+	private final AddOptions<K, V> bucketOptions = AddOptions.<K, V>builder().policy(DuplicatePolicy.SUM).build();
+
+	private IncrbyAccumulator(Builder<K, V> builder) {
+		this.connection = builder.connection;
+		this.codec = builder.codec;
+		this.bucketDuration = builder.bucketDuration == null ? NO_BUCKET : builder.bucketDuration.toMillis();
+		this.maxStaleness = builder.maxStaleness.toNanos();
+		this.flushScheduler = new FlushScheduler(builder, "lettucemod-incrby-accumulator", this::close);
+		flushScheduler.schedule(this::scheduledFlush, builder.flushPeriod, builder.flushPeriod);
+	}
+
+	public void incrby(K key, double value) {
+		flushScheduler.assertOpen("Accumulator is closed");
+		long bucket = bucketDuration == NO_BUCKET ? NO_BUCKET : bucket(System.currentTimeMillis());
+		CellKey id = new CellKey(codec.encodeKey(key), bucket);
+		Cell<K> cell;
+		do {
+			cell = cells.computeIfAbsent(id, k -> new Cell<>(key, bucket));
+		} while (!cell.add(value));
+		if (cell.isStale(maxStaleness) && flushRequested.compareAndSet(false, true)) {
+			flushScheduler.execute(this::scheduledFlush);
+		}
+	}
+
+	public void decrby(K key, double value) {
+		incrby(key, -value);
+	}
+
+	private long bucket(long timestamp) {
+		return timestamp - Math.floorMod(timestamp, bucketDuration);
+	}
+
+	/**
+	 *
+	 * @return number of series, or series buckets, with buffered increments
+	 */
+	public int getPendingCount() {
+		return cells.size();
+	}
+
+	/**
+	 *
+	 * @return number of {@code TS.INCRBY} or {@code TS.ADD} commands that failed
+	 *         since creation
+	 */
+	public long getFailedFlushes() {
+		return failedFlushes.get();
+	}
+
+	private void scheduledFlush() {
+		flushRequested.set(false);
+		try {
+			flushAsync();
+		} catch (RuntimeException e) {
+			log.warn("Could not flush increments", e);
+		}
+	}
+
+	/**
+	 * Sends one {@code TS.INCRBY} for every series, or one {@code TS.ADD} for
+	 * every series bucket, with buffered increments.
+	 *
+	 * @return a future completing when all commands have completed
+	 */
+	public CompletableFuture<Void> flushAsync() {
+		List<CompletableFuture<Long>> futures = new ArrayList<>();
+		synchronized (cells) {
+			// Older buckets first so that samples are appended in timestamp order
+			List<Map.Entry<CellKey, Cell<K>>> entries = new ArrayList<>(cells.entrySet());
+			entries.sort(Comparator.comparingLong(e -> e.getKey().bucket));
+			long currentBucket = bucketDuration == NO_BUCKET ? NO_BUCKET : bucket(System.currentTimeMillis());
+			RedisTimeSeriesAsyncCommands<K, V> async = connection.async();
+			for (Map.Entry<CellKey, Cell<K>> entry : entries) {
+				Cell<K> cell = entry.getValue();
+				double sum = cell.drain();
+				if (sum == 0 || cell.bucket < currentBucket) {
+					// Idle series or past bucket
+					sum += retire(entry.getKey(), cell);
+				}
+				if (sum != 0) {
+					futures.add(incrby(async, cell, sum));
+				}
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+
+	private double retire(CellKey id, Cell<K> cell) {
+		if (!cell.retire()) {
+			return 0;
+		}
+		cells.remove(id, cell);
+		return cell.drain();
+	}
+
+	private CompletableFuture<Long> incrby(RedisTimeSeriesAsyncCommands<K, V> async, Cell<K> cell, double sum) {
+		CompletableFuture<Long> future;
+		if (cell.bucket == NO_BUCKET) {
+			future = async.tsIncrby(cell.key, sum).toCompletableFuture();
+		} else {
+			// TS.INCRBY would add the last value of the series to the bucket total
+			future = async.tsAdd(cell.key, Sample.of(cell.bucket, sum), bucketOptions).toCompletableFuture();
+		}
+		return future.whenComplete((r, e) -> {
+			if (e != null) {
+				failedFlushes.incrementAndGet();
+				log.warn("Could not flush increment of {} for key {}", sum, cell.key, e);
+			}
+		});
+	}
+
+	/**
+	 * Flushes buffered increments and waits for the commands to complete.
+	 */
+	public void flush() {
+		RedisModulesUtils.await(connection.getTimeout(), flushAsync());
+	}
+
+	/**
+	 * Stops scheduled flushes and flushes buffered increments.
+	 */
+	@Override
+	public void close() {
+		if (flushScheduler.close()) {
+			flush();
+		}
+	}
+
+	private static class CellKey {
+
+		private final ByteBuffer key;
+		private final long bucket;
+
+		CellKey(ByteBuffer key, long bucket) {
+			this.key = key;
+			this.bucket = bucket;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * key.hashCode() + Long.hashCode(bucket);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CellKey)) {
+				return false;
+			}
+			CellKey other = (CellKey) obj;
+			return bucket == other.bucket && key.equals(other.key);
+		}
+
+	}
+
+	/**
+	 * Sum of increments spread over several atomic stripes so that concurrent
+	 * writers rarely contend on the same compare-and-set. Stripes are drained
+	 * with {@code getAndSet} so no concurrent increment is lost, which
+	 * {@link java.util.concurrent.atomic.DoubleAdder#sumThenReset()} does not
+	 * guarantee.
+	 */
+	private static class Cell<K> {
+
+		private static final int STRIPES = Integer
+				.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+		// Stripes are 8 longs apart to keep them on separate cache lines
+		private static final int SPACING = 8;
+
+		private final K key;
+		private final long bucket;
+		private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * SPACING);
+		private final AtomicInteger writers = new AtomicInteger();
+		private final AtomicLong pendingSince = new AtomicLong();
+		private volatile boolean retired;
+
+		Cell(K key, long bucket) {
+			this.key = key;
+			this.bucket = bucket;
+		}
+
+		/**
+		 *
+		 * @return false if this cell was retired and the value was not added
+		 */
+		boolean add(double value) {
+			writers.incrementAndGet();
+			try {
+				if (retired) {
+					return false;
+				}
+				int index = stripe() * SPACING;
+				long current;
+				long next;
+				do {
+					current = stripes.get(index);
+					next = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value);
+				} while (!stripes.compareAndSet(index, current, next));
+				pendingSince.compareAndSet(0, System.nanoTime() | 1);
+				return true;
+			} finally {
+				writers.decrementAndGet();
+			}
+		}
+
+		private static int stripe() {
+			long id = Thread.currentThread().getId();
+			return (int) ((id ^ (id >>> 16)) * 0x9E3779B9L >>> 16) & (STRIPES - 1);
+		}
+
+		boolean isStale(long maxStaleness) {
+			long since = pendingSince.get();
+			return since != 0 && System.nanoTime() - since > maxStaleness;
+		}
+
+		double drain() {
+			pendingSince.set(0);
+			double sum = 0;
+			for (int stripe = 0; stripe < STRIPES; stripe++) {
+				sum += Double.longBitsToDouble(stripes.getAndSet(stripe * SPACING, 0));
+			}
+			return sum;
+		}
+
+		/**
+		 * Stops accepting increments unless a writer is currently adding one.
+		 *
+		 * @return true if this cell was retired
+		 */
+		boolean retire() {
+			retired = true;
+			if (writers.get() > 0) {
+				retired = false;
+				return false;
+			}
+			return true;
+		}
+
+	}
+
+	public static Builder<String, String> builder(StatefulRedisModulesConnection<String, String> connection) {
+		return builder(connection, StringCodec.UTF8);
+	}
+
+	public static <K, V> Builder<K, V> builder(StatefulRedisModulesConnection<K, V> connection,
+			RedisCodec<K, V> codec) {
+		return new Builder<>(connection, codec);
+	}
+
+	public static class Builder<K, V> extends FlushScheduler.Builder<Builder<K, V>> {
+
+		private final StatefulRedisModulesConnection<K, V> connection;
+		private final RedisCodec<K, V> codec;
+		private Duration flushPeriod = DEFAULT_FLUSH_PERIOD;
+		private Duration maxStaleness = DEFAULT_MAX_STALENESS;
+		private Duration bucketDuration;
+
+		private Builder(StatefulRedisModulesConnection<K, V> connection, RedisCodec<K, V> codec) {
+			LettuceAssert.notNull(connection, "Connection must not be null");
+			LettuceAssert.notNull(codec, "Codec must not be null");
+			this.connection = connection;
+			this.codec = codec;
+		}
+
+		public Builder<K, V> flushPeriod(Duration flushPeriod) {
+			LettuceAssert.isTrue(flushPeriod != null && !flushPeriod.isNegative() && !flushPeriod.isZero(),
+					"Flush period must be positive");
+			this.flushPeriod = flushPeriod;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param maxStaleness age of a buffered increment above which a flush is
+		 *                     triggered without waiting for the next flush period
+		 * @return this builder
+		 */
+		public Builder<K, V> maxStaleness(Duration maxStaleness) {
+			LettuceAssert.isTrue(maxStaleness != null && !maxStaleness.isNegative(),
+					"Max staleness must not be negative");
+			this.maxStaleness = maxStaleness;
+			return this;
+		}
+
+		/**
+		 *
+		 * @param bucketDuration duration of the buckets increments are summed into,
+		 *                       each flushed with the bucket start as timestamp
+		 * @return this builder
+		 */
+		public Builder<K, V> bucketDuration(Duration bucketDuration) {
+			LettuceAssert.isTrue(bucketDuration != null && bucketDuration.toMillis() > 0,
+					"Bucket duration must be at least 1 millisecond");
+			this.bucketDuration = bucketDuration;
+			return this;
+		}
+
+		public IncrbyAccumulator<K, V> build() {
+			return new IncrbyAccumulator<>(this);
+		}
+
+	}
+
+}
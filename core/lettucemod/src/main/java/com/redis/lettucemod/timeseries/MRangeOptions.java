@@ -16,6 +16,13 @@ public class MRangeOptions<K, V> extends AbstractRangeOptions {
 	public MRangeOptions() {
 	}
 
+	public MRangeOptions(MRangeOptions<K, V> options) {
+		super(options);
+		this.labels = options.labels;
+		this.filters = options.filters;
+		this.groupBy = options.groupBy;
+	}
+
 	private MRangeOptions(Builder<K, V> builder) {
 		super(builder);
 		this.labels = builder.labels;
@@ -66,13 +73,21 @@ public class MRangeOptions<K, V> extends AbstractRangeOptions {
 			this.reducer = reducer;
 		}
 
+		public K getLabel() {
+			return label;
+		}
+
+		public Reducer getReducer() {
+			return reducer;
+		}
+
 		@SuppressWarnings("unchecked")
 		@Override
 		public <L, W> void build(CommandArgs<L, W> args) {
 			args.add(TimeSeriesCommandKeyword.GROUPBY);
 			args.addKey((L) label);
 			args.add(TimeSeriesCommandKeyword.REDUCE);
-			args.add(reducer.name());
+			args.add(reducer.getName());
 		}
 
 		public static <K> GroupBy<K> of(K label, Reducer reducer) {
@@ -82,7 +97,23 @@ public class MRangeOptions<K, V> extends AbstractRangeOptions {
 	}
 
 	public enum Reducer {
-		SUM, MIN, MAX
+
+		SUM, MIN, MAX, AVG, RANGE, COUNT, STD_P("STD.P"), STD_S("STD.S"), VAR_P("VAR.P"), VAR_S("VAR.S");
+
+		private final String name;
+
+		Reducer(String name) {
+			this.name = name;
+		}
+
+		Reducer() {
+			this.name = this.name();
+		}
+
+		public String getName() {
+			return name;
+		}
+
 	}
 
 	@SuppressWarnings("unchecked")
@@ -15,6 +15,14 @@ public class TimeRange implements CompositeArgument {
 		this.to = builder.to;
 	}
 
+	public Timestamp getFrom() {
+		return from;
+	}
+
+	public Timestamp getTo() {
+		return to;
+	}
+
 	@Override
 	public <K, V> void build(CommandArgs<K, V> args) {
 		if (from.isUnbounded()) {
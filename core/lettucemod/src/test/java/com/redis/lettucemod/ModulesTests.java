@@ -1,6 +1,7 @@
 package com.redis.lettucemod;
 
 import static com.redis.lettucemod.Beers.ABV;
+import static com.redis.lettucemod.Beers.CATEGORY;
 import static com.redis.lettucemod.Beers.DESCRIPTION;
 import static com.redis.lettucemod.Beers.IBU;
 import static com.redis.lettucemod.Beers.ID;
@@ -31,7 +32,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterAll;
@@ -63,11 +67,19 @@ import com.redis.lettucemod.bloom.BloomFilterInsertOptions;
 import com.redis.lettucemod.bloom.CmsInfo;
 import com.redis.lettucemod.bloom.CuckooFilter;
 import com.redis.lettucemod.bloom.CuckooFilterInsertOptions;
+import com.redis.lettucemod.bloom.HeavyHitters;
 import com.redis.lettucemod.bloom.LongScoredValue;
+import com.redis.lettucemod.bloom.PartitionedBloomFilter;
+import com.redis.lettucemod.bloom.QuantileMonitor;
+import com.redis.lettucemod.bloom.QuantileSnapshot;
 import com.redis.lettucemod.bloom.TDigestInfo;
 import com.redis.lettucemod.bloom.TopKInfo;
+import com.redis.lettucemod.bloom.WindowedDeduplicator;
 import com.redis.lettucemod.cluster.RedisModulesClusterClient;
+import com.redis.lettucemod.protocol.BloomFilterCommandType;
 import com.redis.lettucemod.protocol.SearchCommandKeyword;
+import com.redis.lettucemod.protocol.SearchCommandType;
+import com.redis.lettucemod.protocol.TimeSeriesCommandType;
 import com.redis.lettucemod.search.AggregateOptions;
 import com.redis.lettucemod.search.AggregateOptions.Load;
 import com.redis.lettucemod.search.AggregateResults;
@@ -76,16 +88,24 @@ import com.redis.lettucemod.search.CreateOptions;
 import com.redis.lettucemod.search.CreateOptions.DataType;
 import com.redis.lettucemod.search.CursorOptions;
 import com.redis.lettucemod.search.Document;
+import com.redis.lettucemod.search.FacetedSearch;
+import com.redis.lettucemod.search.FacetedSearchResults;
+import com.redis.lettucemod.search.FacetedSearchResults.Bucket;
+import com.redis.lettucemod.search.DocumentMapper;
 import com.redis.lettucemod.search.Field;
 import com.redis.lettucemod.search.GeoLocation;
 import com.redis.lettucemod.search.Group;
 import com.redis.lettucemod.search.IndexInfo;
+import com.redis.lettucemod.search.IndexMigrator;
+import com.redis.lettucemod.search.IndexingThrottle;
 import com.redis.lettucemod.search.Language;
 import com.redis.lettucemod.search.Limit;
+import com.redis.lettucemod.search.MappedSearchResults;
 import com.redis.lettucemod.search.Reducers.Avg;
 import com.redis.lettucemod.search.Reducers.Count;
 import com.redis.lettucemod.search.Reducers.Max;
 import com.redis.lettucemod.search.Reducers.ToList;
+import com.redis.lettucemod.search.SearchHydrator;
 import com.redis.lettucemod.search.SearchOptions;
 import com.redis.lettucemod.search.SearchOptions.Highlight;
 import com.redis.lettucemod.search.SearchOptions.Highlight.Tags;
@@ -93,14 +113,24 @@ import com.redis.lettucemod.search.SearchResults;
 import com.redis.lettucemod.search.Sort;
 import com.redis.lettucemod.search.Sort.Property;
 import com.redis.lettucemod.search.Suggestion;
+import com.redis.lettucemod.search.SuggestionCache;
+import com.redis.lettucemod.search.SuggestionLoader;
 import com.redis.lettucemod.search.SuggetOptions;
 import com.redis.lettucemod.search.TagField;
+import com.redis.lettucemod.search.TagValues;
+import com.redis.lettucemod.search.TagValuesCache;
 import com.redis.lettucemod.search.TextField;
 import com.redis.lettucemod.search.VectorField;
 import com.redis.lettucemod.timeseries.AddOptions;
 import com.redis.lettucemod.timeseries.Aggregation;
 import com.redis.lettucemod.timeseries.Aggregator;
+import com.redis.lettucemod.timeseries.GroupByReducer;
+import com.redis.lettucemod.timeseries.IncrbyAccumulator;
+import com.redis.lettucemod.timeseries.MRangeOptions;
+import com.redis.lettucemod.timeseries.MRangeOptions.GroupBy;
+import com.redis.lettucemod.timeseries.MRangeOptions.Reducer;
 import com.redis.lettucemod.timeseries.RangeOptions;
+import com.redis.lettucemod.timeseries.RangeResult;
 import com.redis.lettucemod.timeseries.Sample;
 import com.redis.lettucemod.timeseries.TimeRange;
 import com.redis.testcontainers.RedisServer;
@@ -108,11 +138,14 @@ import com.redis.testcontainers.RedisServer;
 import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.KeyValue;
 import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.ReadOnlyCommands;
 import io.lettuce.core.RedisCommandExecutionException;
 import io.lettuce.core.RedisFuture;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.Value;
+import io.lettuce.core.codec.StringCodec;
 import io.lettuce.core.json.JsonPath;
+import io.lettuce.core.protocol.CommandType;
 import reactor.core.publisher.Mono;
 
 @Testcontainers
@@ -258,6 +291,61 @@ abstract class ModulesTests {
 		assertEquals("somepayload", suggestions.get(0).getPayload());
 	}
 
+	@Test
+	void connectionGroup() throws Exception {
+		for (RedisModulesConnectionGroup.Selection selection : RedisModulesConnectionGroup.Selection.values()) {
+			try (RedisModulesConnectionGroup<String, String> group = RedisModulesConnectionGroup.create(client,
+					StringCodec.UTF8, 3, selection)) {
+				List<RedisFuture<String>> futures = new ArrayList<>();
+				for (int index = 0; index < 100; index++) {
+					futures.add(group.connection().async().set("group:" + index, String.valueOf(index)));
+				}
+				LettuceFutures.awaitAll(Duration.ofSeconds(5), futures.toArray(new RedisFuture[0]));
+				Awaitility.await().until(() -> group.getOutstandingCommands() == 0);
+				Set<StatefulRedisModulesConnection<String, String>> used = new HashSet<>();
+				for (int index = 0; index < 3; index++) {
+					used.add(group.connection());
+				}
+				assertEquals(3, used.size());
+				assertEquals("99", group.connection().sync().get("group:99"));
+			}
+		}
+	}
+
+	@Test
+	void connectionLanes() throws Exception {
+		populateIndex(connection);
+		try (RedisModulesConnectionLanes<String, String> lanes = RedisModulesConnectionLanes.builder(client)
+				.heavyLane(1).lane("bloom", 1).route("bloom", BloomFilterCommandType.class).build()) {
+			assertEquals(new HashSet<>(Arrays.asList(RedisModulesConnectionLanes.DEFAULT_LANE,
+					RedisModulesConnectionLanes.HEAVY_LANE, "bloom")), lanes.getLaneNames());
+			assertEquals(lanes.lane(RedisModulesConnectionLanes.HEAVY_LANE), lanes.lane(SearchCommandType.AGGREGATE));
+			assertEquals(lanes.lane(RedisModulesConnectionLanes.DEFAULT_LANE), lanes.lane(SearchCommandType.SUGADD));
+			assertEquals(lanes.lane("bloom"), lanes.lane(BloomFilterCommandType.EXISTS));
+			assertEquals(lanes.lane(RedisModulesConnectionLanes.DEFAULT_LANE), lanes.lane(CommandType.GET));
+			RedisFuture<AggregateResults<String>> aggregate = lanes.connection(SearchCommandType.AGGREGATE).async()
+					.ftAggregate(INDEX, "*", AggregateOptions.<String, String>operation(Group.by(STYLE)
+							.reducer(Count.as("count")).build()).build());
+			lanes.connection(BloomFilterCommandType.ADD).sync().bfAdd("lanes:bf", "foo");
+			assertTrue(lanes.connection(BloomFilterCommandType.EXISTS).sync().bfExists("lanes:bf", "foo"));
+			assertFalse(aggregate.get().isEmpty());
+			Awaitility.await().until(() -> lanes.getOutstandingCommands(RedisModulesConnectionLanes.HEAVY_LANE) == 0);
+		}
+	}
+
+	@Test
+	void readOnlyCommands() {
+		ReadOnlyCommands.ReadOnlyPredicate readOnly = client.getOptions().getReadOnlyCommands();
+		assertTrue(readOnly.isReadOnly(SearchCommandType.SEARCH));
+		assertTrue(readOnly.isReadOnly(TimeSeriesCommandType.RANGE));
+		assertTrue(readOnly.isReadOnly(BloomFilterCommandType.EXISTS));
+		assertTrue(readOnly.isReadOnly(CommandType.GET));
+		assertFalse(readOnly.isReadOnly(SearchCommandType.CREATE));
+		assertFalse(readOnly.isReadOnly(TimeSeriesCommandType.ADD));
+		assertFalse(readOnly.isReadOnly(BloomFilterCommandType.ADD));
+		assertFalse(readOnly.isReadOnly(CommandType.SET));
+	}
+
 	@Test
 	void ftInfoInexistentIndex() {
 		Assertions.assertThrows(RedisCommandExecutionException.class, () -> connection.sync().ftInfo("sdfsdfs"),
@@ -417,6 +505,49 @@ abstract class ModulesTests {
 		assertSearch("wise", SearchOptions.<String, String>builder().inField(NAME).build(), 1, "5.900000095367432");
 	}
 
+	static class Beer {
+
+		private String id;
+		private String name;
+		private String styleName;
+		private double abv;
+		private Double ibu;
+		private double score;
+
+	}
+
+	@Test
+	void ftSearchDocumentMapper() throws Exception {
+		populateIndex(connection);
+		RedisModulesCommands<String, String> sync = connection.sync();
+		DocumentMapper<Beer> mapper = DocumentMapper.builder(Beer.class)
+				.indexInfo(RedisModulesUtils.indexInfo(sync.ftInfo(INDEX))).id("id").score("score").build();
+		SearchOptions<String, String> options = SearchOptions.<String, String>builder().withScores(true)
+				.limit(0, 100).build();
+		SearchResults<String, String> expected = sync.ftSearch(INDEX, "pale", options);
+		MappedSearchResults<Beer> beers = mapper.search(connection, INDEX, "pale", options);
+		assertEquals(expected.getCount(), beers.getCount());
+		assertEquals(expected.size(), beers.size());
+		for (int index = 0; index < expected.size(); index++) {
+			Document<String, String> doc = expected.get(index);
+			Beer beer = beers.get(index);
+			assertEquals(doc.get(ID), beer.id);
+			assertEquals(doc.get(NAME), beer.name);
+			assertEquals(doc.get(STYLE), beer.styleName);
+			assertEquals(doc.getScore().doubleValue(), beer.score);
+			if (doc.containsKey(ABV)) {
+				assertEquals(Double.parseDouble(doc.get(ABV)), beer.abv);
+			}
+			if (doc.containsKey(IBU)) {
+				assertEquals(Double.valueOf(doc.get(IBU)), beer.ibu);
+			} else {
+				assertNull(beer.ibu);
+			}
+		}
+		beers = mapper.searchAsync(connection, INDEX, "German", new SearchOptions<>()).get();
+		assertEquals(3, beers.getCount());
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	void ftSearchTags() throws InterruptedException, ExecutionException, IOException {
@@ -477,6 +608,42 @@ abstract class ModulesTests {
 		}
 	}
 
+	@Test
+	void ftSearchHydrated() throws Exception {
+		populateIndex(connection);
+		SearchHydrator<String, String> hydrator = new SearchHydrator<>(connection);
+		SearchOptions<String, String> options = SearchOptions.<String, String>builder().withScores(true)
+				.limit(0, 50).build();
+		SearchResults<String, String> expected = connection.sync().ftSearch(INDEX, "pale", options);
+		SearchResults<String, String> results = hydrator.search(INDEX, "pale", options);
+		assertEquals(expected.getCount(), results.getCount());
+		assertEquals(expected.size(), results.size());
+		for (int index = 0; index < expected.size(); index++) {
+			Document<String, String> document = results.get(index);
+			assertEquals(expected.get(index).getId(), document.getId());
+			assertEquals(expected.get(index).getScore(), document.getScore());
+			assertEquals(connection.sync().hgetall(document.getId()), document);
+		}
+		results = hydrator.search(INDEX, "pale",
+				SearchOptions.<String, String>builder().limit(0, 50).returnField(NAME).returnField(STYLE).build());
+		assertEquals(50, results.size());
+		for (Document<String, String> document : results) {
+			assertNotNull(document.get(NAME));
+			assertTrue(Arrays.asList(NAME, STYLE).containsAll(document.keySet()));
+		}
+		String key = results.get(0).getId();
+		List<Document<String, String>> documents = hydrator.fetch(Arrays.asList(key, PREFIX + "missing"),
+				Arrays.asList(NAME, STYLE));
+		assertEquals(key, documents.get(0).getId());
+		assertNull(documents.get(1));
+		assertNull(hydrator.fetch(Arrays.asList(PREFIX + "missing"), new ArrayList<>()).get(0));
+		connection.sync().hset(PREFIX + "unnamed", "foo", "bar");
+		Document<String, String> unnamed = hydrator.fetch(Arrays.asList(PREFIX + "unnamed"), Arrays.asList(NAME))
+				.get(0);
+		assertEquals(PREFIX + "unnamed", unnamed.getId());
+		assertTrue(unnamed.isEmpty());
+	}
+
 	private boolean isHighlighted(Document<String, String> result, String fieldName, Tags<String> tags, String string) {
 		return result.get(fieldName).toLowerCase().contains(tags.getOpen() + string + tags.getClose());
 	}
@@ -504,6 +671,108 @@ abstract class ModulesTests {
 		assertFalse(reactive.ftSugdel(SUGINDEX, "Thunderstorm").block());
 	}
 
+	@Test
+	void suggestionCache() throws IOException {
+		createBeerSuggestions();
+		RedisModulesCommands<String, String> sync = connection.sync();
+		SuggestionCache<String, String> cache = SuggestionCache.builder(connection).build();
+		SuggetOptions options = SuggetOptions.builder().max(1000L).withPayloads(true).build();
+		Function<List<Suggestion<String>>, List<String>> strings = suggestions -> suggestions.stream()
+				.map(Suggestion::getString).collect(Collectors.toList());
+		assertEquals(strings.apply(sync.ftSugget(SUGINDEX, "Am", options)),
+				strings.apply(cache.sugget(SUGINDEX, "Am", options)));
+		assertEquals(1, cache.getMissCount());
+		for (String prefix : Arrays.asList("Ame", "amer", "Ameri", "American P", "Amx")) {
+			assertEquals(strings.apply(sync.ftSugget(SUGINDEX, prefix, options)),
+					strings.apply(cache.sugget(SUGINDEX, prefix, options)));
+		}
+		assertEquals(1, cache.getMissCount());
+		assertEquals(5, cache.getHitCount());
+		cache.sugadd(SUGINDEX, Suggestion.string("American Lager").score(1).build());
+		assertEquals(strings.apply(sync.ftSugget(SUGINDEX, "Ameri", options)),
+				strings.apply(cache.sugget(SUGINDEX, "Ameri", options)));
+		assertEquals(2, cache.getMissCount());
+		assertTrue(cache.sugget(SUGINDEX, "Americ", options).stream()
+				.anyMatch(s -> s.getString().equals("American Lager")));
+		cache.sugdel(SUGINDEX, "American Lager");
+		assertTrue(cache.sugget(SUGINDEX, "American", options).stream()
+				.noneMatch(s -> s.getString().equals("American Lager")));
+		SuggetOptions withScores = SuggetOptions.builder().max(1000L).withScores(true).build();
+		cache.sugget(SUGINDEX, "Ame", withScores);
+		long misses = cache.getMissCount();
+		List<Suggestion<String>> scored = cache.sugget(SUGINDEX, "Ameri", withScores);
+		assertEquals(misses + 1, cache.getMissCount());
+		assertEquals(0.2773500978946686, scored.get(0).getScore(), .01);
+	}
+
+	@Test
+	void suggestionLoader() throws IOException {
+		RedisModulesCommands<String, String> sync = connection.sync();
+		List<Suggestion<String>> names = new ArrayList<>();
+		MappingIterator<Map<String, Object>> beers = mapIterator();
+		while (beers.hasNext()) {
+			names.add(Suggestion.of((String) beers.next().get(NAME), 1));
+		}
+		SuggestionLoader<String, String> loader = SuggestionLoader.builder(connection).incr().maxInFlight(10)
+				.windowSize(100).build();
+		String key = "{sugloader}:beers";
+		String shadowKey = "{sugloader}:beers:shadow";
+		sync.ftSugadd(key, Suggestion.of("Stale", 1));
+		assertTrue(loader.rebuild(key, shadowKey, Stream.concat(names.stream(), names.stream())) >= 410);
+		assertEquals(410, sync.ftSuglen(key));
+		assertEquals(0, sync.exists(shadowKey));
+		assertTrue(sync.ftSugget(key, "Stale").isEmpty());
+		String incrKey = "testSuggestionLoader";
+		assertEquals(1, loader.load(incrKey, Stream.of(Suggestion.of("value1", 1), Suggestion.of("value1", 1))));
+		List<Suggestion<String>> suggestions = sync.ftSugget(incrKey, "value",
+				SuggetOptions.builder().withScores(true).build());
+		assertEquals(1, suggestions.size());
+		assertEquals(1.4142135381698608, suggestions.get(0).getScore());
+		assertEquals(0, loader.rebuild(key, shadowKey, Stream.empty()));
+		assertEquals(0, sync.exists(key));
+	}
+
+	@Test
+	void indexMigrator() throws IOException {
+		int count = populateIndex(connection);
+		RedisModulesCommands<String, String> sync = connection.sync();
+		String alias = "beersAlias";
+		List<IndexInfo> progress = new ArrayList<>();
+		IndexMigrator migrator = IndexMigrator.builder(connection, alias).listener(progress::add).build();
+		assertFalse(migrator.currentIndex().isPresent());
+		CreateOptions<String, String> options = CreateOptions.<String, String>builder().prefix(PREFIX).build();
+		String v1 = migrator.migrate(options, Field.tag(STYLE).build());
+		assertEquals(alias + "_v1", v1);
+		assertFalse(progress.isEmpty());
+		assertEquals(1.0, progress.get(progress.size() - 1).getPercentIndexed());
+		assertEquals(count, sync.ftSearch(alias, "*").getCount());
+		String v2 = migrator.migrate(options, Field.tag(STYLE).build(), Field.text(NAME).build());
+		assertEquals(alias + "_v2", v2);
+		assertEquals(v2, migrator.currentIndex().get());
+		assertFalse(sync.ftList().contains(v1));
+		assertTrue(sync.ftList().contains(INDEX));
+		assertEquals(count, sync.ftSearch(alias, "*").getCount());
+	}
+
+	@Test
+	void indexingThrottle() throws IOException {
+		populateIndex(connection);
+		IndexingThrottle throttle = IndexingThrottle.builder(connection, INDEX).initialRate(1000).increase(100)
+				.latencyTarget(Duration.ofSeconds(1)).build();
+		throttle.recordLatency(Duration.ofSeconds(2));
+		assertEquals(500, throttle.update());
+		assertEquals(600, throttle.update());
+		IndexInfo info = throttle.getIndexInfo();
+		assertEquals(0, info.getHashIndexingFailures());
+		assertEquals(1.0, info.getPercentIndexed());
+		assertFalse(info.getIndexing());
+		for (int index = 0; index < 10; index++) {
+			throttle.acquire();
+		}
+		IntStream.range(0, 8).parallel().forEach(index -> throttle.update());
+		assertTrue(throttle.getRate() >= IndexingThrottle.DEFAULT_MIN_RATE);
+	}
+
 	private Map<String, Map<String, Object>> populateBeers() throws IOException {
 		int count = populateIndex(connection);
 		MappingIterator<Map<String, Object>> beers = mapIterator();
@@ -800,6 +1069,36 @@ abstract class ModulesTests {
 		Assertions.assertEquals(createOptions, actual);
 	}
 
+	@Test
+	void facetedSearch() throws IOException {
+		populateIndex(connection);
+		RedisModulesCommands<String, String> sync = connection.sync();
+		FacetedSearch facetedSearch = FacetedSearch.builder(connection).facet(STYLE, 5).facet(CATEGORY)
+				.cacheTimeToLive(Duration.ofMinutes(1)).build();
+		String query = "@abv:[5 +inf]";
+		FacetedSearchResults results = facetedSearch.search(INDEX, query);
+		assertEquals(sync.ftSearch(INDEX, query).getCount(), results.getResults().getCount());
+		List<Bucket> styles = results.getFacet(STYLE);
+		assertEquals(5, styles.size());
+		AggregateResults<String> expected = sync.ftAggregate(INDEX, query,
+				AggregateOptions.<String, String>operation(Group.by(STYLE).reducer(Count.as("count")).build())
+						.operation(Sort.by(Property.desc("count")).max(5).build()).build());
+		assertEquals(expected.get(0).get(STYLE), styles.get(0).getValue());
+		assertTrue(styles.get(0).getCount() >= styles.get(4).getCount());
+		assertFalse(results.getFacet(CATEGORY).isEmpty());
+		FacetedSearchResults page = facetedSearch.search(INDEX, query,
+				SearchOptions.<String, String>builder().limit(10, 10).build());
+		assertTrue(results.getFacets() == page.getFacets());
+		assertEquals(10, page.getResults().size());
+		FacetedSearchResults filtered = facetedSearch.search(INDEX, "*", SearchOptions.<String, String>builder()
+				.filter(SearchOptions.NumericFilter.<String, String>field(ABV).min(5).max(Double.POSITIVE_INFINITY))
+				.build());
+		assertEquals(results.getResults().getCount(), filtered.getResults().getCount());
+		assertEquals(styles.get(0).getCount(), filtered.getFacet(STYLE).get(0).getCount());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> facetedSearch.search(INDEX, query,
+				SearchOptions.<String, String>builder().inKeys(PREFIX + "1").build()));
+	}
+
 	@Test
 	void ftTagVals() throws Exception {
 		populateIndex(connection);
@@ -811,6 +1110,23 @@ abstract class ModulesTests {
 		assertEquals(TAG_VALS, new HashSet<>(connection.reactive().ftTagvals(INDEX, STYLE).collectList().block()));
 	}
 
+	@Test
+	void tagValuesCache() throws Exception {
+		populateIndex(connection);
+		TagValuesCache cache = TagValuesCache.builder(connection).refreshInterval(Duration.ofMinutes(1)).build();
+		TagValues values = cache.get(INDEX, STYLE);
+		assertEquals(36, values.size());
+		assertTrue(values == cache.get(INDEX, STYLE));
+		assertEquals(Arrays.asList("belgian-style dubbel", "belgian-style fruit lambic", "belgian-style pale ale",
+				"belgian-style pale strong ale", "belgian-style quadrupel", "belgian-style tripel"),
+				values.startingWith("belgian-style"));
+		assertTrue(values.startingWith("zzz").isEmpty());
+		assertTrue(values.contains("porter"));
+		assertEquals("american\\-style\\ pale\\ ale", values.escape("american-style pale ale"));
+		cache.invalidate(INDEX, STYLE);
+		assertTrue(values != cache.get(INDEX, STYLE));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	void ftAggregateEmptyToListReducer() {
@@ -935,6 +1251,75 @@ abstract class ModulesTests {
 		Assertions.assertNull(ts.tsGet("ts:empty"));
 	}
 
+	@Test
+	void tsMgetMrangeGroupBy() {
+		RedisTimeSeriesCommands<String, String> ts = connection.sync();
+		populate(ts);
+		assertEquals(2, ts.tsMget(FILTER).size());
+		List<RangeResult<String, String>> results = ts.tsMrange(TimeRange.unbounded(),
+				MRangeOptions.<String, String>filters(FILTER).withLabels()
+						.groupBy(GroupBy.of(LABEL_SENSOR_ID, Reducer.SUM)).build());
+		assertEquals(1, results.size());
+		RangeResult<String, String> result = results.get(0);
+		assertEquals(LABEL_SENSOR_ID + "=" + SENSOR_ID, result.getKey());
+		assertEquals(SENSOR_ID, result.getLabels().get(LABEL_SENSOR_ID));
+		assertEquals("sum", result.getLabels().get(GroupByReducer.REDUCER_LABEL));
+		assertEquals(new HashSet<>(Arrays.asList(TS_KEY, TS_KEY_2)),
+				new HashSet<>(Arrays.asList(result.getLabels().get(GroupByReducer.SOURCE_LABEL).split(","))));
+		assertEquals(2, result.getSamples().size());
+		assertEquals(Sample.of(TIMESTAMP_1, VALUE_1 * 2), result.getSamples().get(0));
+		assertEquals(Sample.of(TIMESTAMP_2, VALUE_2 * 2), result.getSamples().get(1));
+		results = ts.tsMrevrange(TimeRange.unbounded(), MRangeOptions.<String, String>filters(FILTER)
+				.groupBy(GroupBy.of(LABEL_AREA_ID, Reducer.MAX)).build());
+		assertEquals(2, results.size());
+		for (RangeResult<String, String> areaResult : results) {
+			assertTrue(areaResult.getLabels().isEmpty());
+			assertEquals(Sample.of(TIMESTAMP_2, VALUE_2), areaResult.getSamples().get(0));
+		}
+	}
+
+	@Test
+	void tsIncrbyAccumulator() throws Exception {
+		String key = "ts:counter";
+		try (IncrbyAccumulator<String, String> accumulator = IncrbyAccumulator.builder(connection)
+				.flushPeriod(Duration.ofMillis(100)).build()) {
+			List<Thread> threads = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				threads.add(new Thread(() -> {
+					for (int index = 0; index < 1000; index++) {
+						accumulator.incrby(key, 1);
+					}
+				}));
+			}
+			threads.forEach(Thread::start);
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			accumulator.decrby(key, 10);
+		}
+		assertEquals(3990, connection.sync().tsGet(key).getValue());
+		String bucketKey = "ts:bucket-counter";
+		// Long enough for all increments to fall into the same bucket
+		Duration bucketDuration = Duration.ofDays(3650);
+		try (IncrbyAccumulator<String, String> accumulator = IncrbyAccumulator.builder(connection)
+				.bucketDuration(bucketDuration).build()) {
+			for (int index = 0; index < 10; index++) {
+				accumulator.incrby(bucketKey, 2);
+			}
+			accumulator.flush();
+			for (int index = 0; index < 5; index++) {
+				accumulator.incrby(bucketKey, 2);
+			}
+			accumulator.flush();
+			assertEquals(0, accumulator.getFailedFlushes());
+		}
+		List<Sample> samples = connection.sync().tsRange(bucketKey, TimeRange.unbounded());
+		assertEquals(1, samples.size());
+		Sample last = samples.get(samples.size() - 1);
+		assertEquals(30, last.getValue());
+		assertEquals(0, last.getTimestamp() % bucketDuration.toMillis());
+	}
+
 	@Test
 	void utilsIndexInfo() {
 		Assertions.assertTrue(RedisModulesUtils.indexInfo(() -> connection.sync().ftInfo("wweriwjer")).isEmpty());
@@ -974,6 +1359,51 @@ abstract class ModulesTests {
 		assertEquals(3, info.getNumInserted());
 	}
 
+	@Test
+	void partitionedBloomFilter() {
+		RedisModulesCommands<String, String> sync = connection.sync();
+		PartitionedBloomFilter<String> filter = PartitionedBloomFilter.builder(connection, "test:pbf").shards(4)
+				.capacity(4000).window(Duration.ofHours(1)).build();
+		String[] items = IntStream.range(0, 100).mapToObj(i -> "item" + i).toArray(String[]::new);
+		assertTrue(filter.add(items).stream().allMatch(Boolean::booleanValue));
+		assertTrue(filter.exists(items).stream().allMatch(Boolean::booleanValue));
+		assertFalse(filter.add("item0").get(0));
+		assertFalse(filter.exists("other").get(0));
+		long inserted = 0;
+		for (String key : filter.currentKeys()) {
+			BloomFilterInfo info = sync.bfInfo(key);
+			assertEquals(1000, info.getCapacity());
+			assertEquals(1, info.getNumFilters());
+			assertTrue(sync.pttl(key) > 0);
+			inserted += info.getNumInserted();
+		}
+		assertEquals(100, inserted);
+		double fillRatio = filter.fillRatio();
+		assertTrue(fillRatio > 0 && fillRatio < 1);
+	}
+
+	@Test
+	void partitionedBloomFilterRotation() {
+		PartitionedBloomFilter<String> filter = PartitionedBloomFilter.builder(connection, "test:pbf:rotation")
+				.shards(2).capacity(40).build();
+		List<String> keys = filter.currentKeys();
+		String[] items = IntStream.range(0, 100).mapToObj(i -> "item" + i).toArray(String[]::new);
+		for (String item : items) {
+			assertTrue(filter.add(item).get(0));
+		}
+		assertNotEquals(keys, filter.currentKeys());
+		assertTrue(filter.exists(items).stream().allMatch(Boolean::booleanValue));
+		assertFalse(filter.add("item0").get(0));
+		PartitionedBloomFilter<String> other = PartitionedBloomFilter.builder(connection, "test:pbf:rotation")
+				.shards(2).capacity(40).build();
+		assertTrue(other.exists(items).stream().allMatch(Boolean::booleanValue));
+		assertEquals(filter.currentKeys(), other.currentKeys());
+		sync.set("test:pbf:wrongtype:0", "value");
+		PartitionedBloomFilter<String> wrongType = PartitionedBloomFilter.builder(connection, "test:pbf:wrongtype")
+				.shards(1).build();
+		Assertions.assertThrows(RedisCommandExecutionException.class, wrongType::fillRatio);
+	}
+
 	@Test
 	void bfReactive() {
 		String key = "test:reactive:bfBasic";
@@ -1033,6 +1463,22 @@ abstract class ModulesTests {
 		}
 	}
 
+	@Test
+	void windowedDeduplicator() {
+		RedisModulesCommands<String, String> sync = connection.sync();
+		WindowedDeduplicator<String> deduplicator = WindowedDeduplicator.builder(connection, "test:dedup")
+				.window(Duration.ofHours(1)).buckets(4).capacity(1000).build();
+		assertEquals(Arrays.asList(true, true, false), deduplicator.deduplicate("a", "b", "a"));
+		assertEquals(Arrays.asList(false, true), deduplicator.deduplicate("b", "c"));
+		assertEquals(Arrays.asList(true, true, false), deduplicator.contains("a", "c", "d"));
+		String key = deduplicator.currentKey();
+		assertTrue(sync.pttl(key) > 0);
+		long bucket = Long.parseLong(key.substring(key.lastIndexOf(':') + 1));
+		sync.cfAdd("test:dedup:" + (bucket - 4), "old");
+		sync.cfAdd("test:dedup:" + (bucket - 5), "expired");
+		assertEquals(Arrays.asList(false, true), deduplicator.deduplicate("old", "expired"));
+	}
+
 	@Test
 	void cfBasicReactive() {
 		String key1 = "cf:reactive:test:key";
@@ -1106,6 +1552,69 @@ abstract class ModulesTests {
 		assertEquals("OK", cms.cmsMerge(outKey, key1, key3));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	void cmsMergeCrossSlot() {
+		// Keys hash to different slots on Redis Cluster
+		String key1 = "cms:1";
+		String key2 = "cms:2";
+		String outKey = "cms:out";
+		RedisBloomCommands<String, String> cms = connection.sync();
+		cms.cmsInitByDim(key1, 1000, 5);
+		cms.cmsInitByDim(key2, 1000, 5);
+		cms.cmsInitByDim(outKey, 1000, 5);
+		cms.cmsIncrBy(key1, "test", 2);
+		cms.cmsIncrBy(key2, "test", 3);
+		assertEquals("OK", cms.cmsMerge(outKey, key1, key2));
+		assertEquals(5, cms.cmsQuery(outKey, "test").get(0));
+		assertEquals("OK", cms.cmsMerge(outKey, LongScoredValue.just(1, key1), LongScoredValue.just(2, key2)));
+		assertEquals(8, cms.cmsQuery(outKey, "test").get(0));
+		String tdigestKey1 = "tdigest:1";
+		String tdigestKey2 = "tdigest:2";
+		cms.tDigestCreate(tdigestKey1, 100);
+		cms.tDigestCreate(tdigestKey2, 100);
+		cms.tDigestAdd(tdigestKey1, 1, 2, 3);
+		cms.tDigestAdd(tdigestKey2, 4, 5, 6);
+		assertEquals("OK", cms.tDigestMerge("tdigest:out", tdigestKey1, tdigestKey2));
+		assertEquals(6, cms.tDigestInfo("tdigest:out").getObservations());
+		Awaitility.await().until(() -> connection.sync().keys("*merge:*").isEmpty());
+	}
+
+	@Test
+	void quantileMonitor() {
+		String key = "tdigest:latency";
+		connection.sync().unlink(key);
+		try (QuantileMonitor monitor = QuantileMonitor.builder(connection).quantiles(.5, .99).thresholds(50)
+				.interval(Duration.ofHours(1)).build()) {
+			for (int value = 1; value <= 100; value++) {
+				monitor.record(key, value);
+			}
+			monitor.flush();
+			assertEquals(100, connection.sync().tDigestInfo(key).getObservations());
+			assertTrue(connection.sync().keys("*staging*").isEmpty());
+			monitor.refresh();
+			QuantileSnapshot snapshot = monitor.getSnapshot(key);
+			assertEquals(50, snapshot.getQuantile(.5), 2);
+			assertEquals(99, snapshot.getQuantile(.99), 2);
+			assertEquals(.5, snapshot.getCdf(50), .02);
+			for (int value = 101; value <= 200; value++) {
+				monitor.record(key, value);
+			}
+			monitor.flush();
+			monitor.refresh();
+			assertEquals(200, connection.sync().tDigestInfo(key).getObservations());
+			assertEquals(.25, monitor.getSnapshot(key).getCdf(50), .02);
+			IntStream.range(0, 8).parallel().forEach(index -> {
+				for (int value = 1; value <= 10; value++) {
+					monitor.record(key, value);
+				}
+				monitor.flush();
+			});
+			assertEquals(280, connection.sync().tDigestInfo(key).getObservations());
+			assertTrue(connection.sync().keys("*staging*").isEmpty());
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	void cmsReactive() {
@@ -1191,6 +1700,37 @@ abstract class ModulesTests {
 		assertEquals("two", listWithScores.get(2).getKey());
 	}
 
+	@Test
+	void heavyHitters() {
+		String key = "topK:heavy";
+		connection.sync().unlink(key);
+		connection.sync().topKReserve(key, 3);
+		try (HeavyHitters<String, String> heavyHitters = HeavyHitters.builder(connection, key).capacity(3)
+				.flushPeriod(Duration.ofHours(1)).refreshPeriod(Duration.ofHours(1)).build()) {
+			for (int index = 0; index < 5; index++) {
+				heavyHitters.add("one");
+			}
+			heavyHitters.add("two", 3);
+			heavyHitters.add("three");
+			heavyHitters.add("four");
+			List<LongScoredValue<String>> candidates = heavyHitters.getCandidates();
+			assertEquals(3, candidates.size());
+			assertEquals("one", candidates.get(0).getValue());
+			assertEquals(5, candidates.get(0).getScore());
+			assertEquals("two", candidates.get(1).getValue());
+			assertEquals("four", candidates.get(2).getValue());
+			assertEquals(2, candidates.get(2).getScore());
+			heavyHitters.flush();
+			List<KeyValue<String, Long>> topK = heavyHitters.refresh();
+			assertEquals(topK, heavyHitters.getTopK());
+			assertEquals("one", topK.get(0).getKey());
+			assertEquals(5, topK.get(0).getValue());
+			assertEquals("two", topK.get(1).getKey());
+			assertEquals(3, topK.get(1).getValue());
+			assertEquals(Arrays.asList(false, true), connection.sync().topKQuery(key, "three", "four"));
+		}
+	}
+
 	@Test
 	void topKReactive() {
 		String key1 = "topK:1";
@@ -0,0 +1,71 @@
+package com.redis.lettucemod;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redis.lettucemod.output.NumberParser;
+
+class NumberParserTest {
+
+	private static ByteBuffer bytes(String string) {
+		return ByteBuffer.wrap(string.getBytes(US_ASCII));
+	}
+
+	private static void assertDouble(String string) {
+		Assertions.assertEquals(Double.parseDouble(string), NumberParser.parseDouble(bytes(string)), string);
+	}
+
+	@Test
+	void parsesDoubles() {
+		String[] values = { "0", "-0", "1", "-1", "+1", "3.14", "0.1", "0.30000000000000004", ".5", "5.", "-0.000001",
+				"5.800000190734863", "25.5", "1234567890123456789", "9007199254740993", "1e10", "1.5E-7", "-2.5e+3",
+				"123.4567890123456789012345" };
+		for (String value : values) {
+			assertDouble(value);
+		}
+		Random random = new Random(0);
+		for (int index = 0; index < 100000; index++) {
+			assertDouble(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(20) - 10)));
+			assertDouble(String.valueOf(random.nextInt(1000000) / 1000.0));
+			assertDouble(String.valueOf(random.nextLong()));
+		}
+	}
+
+	@Test
+	void parsesSpecialDoubles() {
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, NumberParser.parseDouble(bytes("inf")));
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, NumberParser.parseDouble(bytes("+inf")));
+		Assertions.assertEquals(Double.NEGATIVE_INFINITY, NumberParser.parseDouble(bytes("-inf")));
+		Assertions.assertTrue(Double.isNaN(NumberParser.parseDouble(bytes("nan"))));
+		Assertions.assertThrows(NumberFormatException.class, () -> NumberParser.parseDouble(bytes("")));
+		Assertions.assertThrows(NumberFormatException.class, () -> NumberParser.parseDouble(bytes("-")));
+		Assertions.assertThrows(NumberFormatException.class, () -> NumberParser.parseDouble(bytes("abc")));
+	}
+
+	@Test
+	void parsesLongs() {
+		String[] values = { "0", "-1", "+42", "1700000000000", "999999999999999999", "9223372036854775807",
+				"-9223372036854775808" };
+		for (String value : values) {
+			Assertions.assertEquals(Long.parseLong(value), NumberParser.parseLong(bytes(value)), value);
+		}
+		Assertions.assertThrows(NumberFormatException.class, () -> NumberParser.parseLong(bytes("")));
+		Assertions.assertThrows(NumberFormatException.class, () -> NumberParser.parseLong(bytes("1.5")));
+		Assertions.assertThrows(NumberFormatException.class, () -> NumberParser.parseLong(bytes("9223372036854775808")));
+	}
+
+	@Test
+	void keepsPosition() {
+		ByteBuffer buffer = bytes("xx12.5");
+		buffer.position(2);
+		Assertions.assertEquals(12.5, NumberParser.parseDouble(buffer));
+		Assertions.assertEquals(2, buffer.position());
+		Assertions.assertEquals(12, NumberParser.parseLong(bytes("12")));
+	}
+
+}
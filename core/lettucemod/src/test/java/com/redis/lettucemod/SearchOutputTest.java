@@ -253,4 +253,74 @@ class SearchOutputTest {
 		assertEquals(1, firstDocument.size());
 		assertEquals("hashValue", firstDocument.get("hashKey"));
 	}
+
+	@Test
+	void parsesResp3Reply() {
+		searchOutput = new SearchOutput<>(StringCodec.UTF8, true, false, true);
+		searchOutput.multiMap(5);
+		searchOutput.set(ByteBuffer.wrap("attributes".getBytes(UTF_8)));
+		searchOutput.complete(1);
+		searchOutput.multiArray(0);
+		searchOutput.complete(1);
+		searchOutput.set(ByteBuffer.wrap("format".getBytes(UTF_8)));
+		searchOutput.complete(1);
+		searchOutput.set(ByteBuffer.wrap("STRING".getBytes(UTF_8)));
+		searchOutput.complete(1);
+		searchOutput.set(ByteBuffer.wrap("results".getBytes(UTF_8)));
+		searchOutput.complete(1);
+		searchOutput.multiArray(2);
+		for (int index = 1; index <= 2; index++) {
+			searchOutput.multiMap(5);
+			searchOutput.set(ByteBuffer.wrap("id".getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.set(ByteBuffer.wrap(("key" + index).getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.set(ByteBuffer.wrap("score".getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.set(index / 10d);
+			searchOutput.complete(3);
+			searchOutput.set(ByteBuffer.wrap("payload".getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.set(ByteBuffer.wrap(("payload" + index).getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.set(ByteBuffer.wrap("extra_attributes".getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.multiMap(2);
+			searchOutput.set(ByteBuffer.wrap("hashKey1".getBytes(UTF_8)));
+			searchOutput.complete(4);
+			searchOutput.set(ByteBuffer.wrap("hashValue1".getBytes(UTF_8)));
+			searchOutput.complete(4);
+			searchOutput.set(ByteBuffer.wrap("hashKey2".getBytes(UTF_8)));
+			searchOutput.complete(4);
+			searchOutput.set(ByteBuffer.wrap("hashValue2".getBytes(UTF_8)));
+			searchOutput.complete(4);
+			searchOutput.complete(3);
+			searchOutput.set(ByteBuffer.wrap("values".getBytes(UTF_8)));
+			searchOutput.complete(3);
+			searchOutput.multiArray(0);
+			searchOutput.complete(3);
+			searchOutput.complete(2);
+		}
+		searchOutput.complete(1);
+		searchOutput.set(ByteBuffer.wrap("total_results".getBytes(UTF_8)));
+		searchOutput.complete(1);
+		searchOutput.set(10);
+		searchOutput.complete(1);
+		searchOutput.set(ByteBuffer.wrap("warning".getBytes(UTF_8)));
+		searchOutput.complete(1);
+		searchOutput.multiArray(0);
+		searchOutput.complete(1);
+		searchOutput.complete(0);
+
+		SearchResults<String, String> result = searchOutput.get();
+		assertEquals(2, result.size());
+		assertEquals(10, result.getCount());
+		Document<String, String> secondDocument = result.get(1);
+		assertEquals("key2", secondDocument.getId());
+		assertEquals(.2, secondDocument.getScore());
+		assertEquals("payload2", secondDocument.getPayload());
+		assertEquals(2, secondDocument.size());
+		assertEquals("hashValue1", secondDocument.get("hashKey1"));
+		assertEquals("hashValue2", secondDocument.get("hashKey2"));
+	}
 }
\ No newline at end of file
@@ -3,22 +3,49 @@ package com.redis.lettucemod;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.stream.Collectors;
 
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 
 import com.redis.lettucemod.api.StatefulRedisModulesConnection;
 import com.redis.lettucemod.api.sync.RedisTimeSeriesCommands;
+import com.redis.lettucemod.search.AggregateOptions;
+import com.redis.lettucemod.search.AggregateResults;
+import com.redis.lettucemod.search.Document;
+import com.redis.lettucemod.search.DocumentNearCache;
+import com.redis.lettucemod.search.Group;
+import com.redis.lettucemod.search.Reducers.Count;
+import com.redis.lettucemod.search.Reducers.ToList;
+import com.redis.lettucemod.search.SearchOptions;
+import com.redis.lettucemod.search.SearchResults;
+import com.redis.lettucemod.search.Sort;
+import com.redis.lettucemod.timeseries.AddOptions;
+import com.redis.lettucemod.timeseries.Aggregation;
+import com.redis.lettucemod.timeseries.Aggregation.Align;
+import com.redis.lettucemod.timeseries.Aggregation.BucketTimestamp;
+import com.redis.lettucemod.timeseries.Aggregator;
 import com.redis.lettucemod.timeseries.CreateOptions;
+import com.redis.lettucemod.timeseries.Downsampler;
 import com.redis.lettucemod.timeseries.DuplicatePolicy;
 import com.redis.lettucemod.timeseries.GetResult;
+import com.redis.lettucemod.timeseries.GroupByReducer;
 import com.redis.lettucemod.timeseries.MRangeOptions;
+import com.redis.lettucemod.timeseries.MRangeOptions.GroupBy;
+import com.redis.lettucemod.timeseries.MRangeOptions.Reducer;
+import com.redis.lettucemod.timeseries.RangeOptions;
 import com.redis.lettucemod.timeseries.RangeResult;
 import com.redis.lettucemod.timeseries.Sample;
 import com.redis.lettucemod.timeseries.TimeRange;
@@ -30,6 +57,7 @@ import io.lettuce.core.AclSetuserArgs;
 import io.lettuce.core.KeyValue;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
 import io.lettuce.core.resource.DefaultClientResources;
 
 class StackTests extends ModulesTests {
@@ -68,6 +96,51 @@ class StackTests extends ModulesTests {
 		}
 	}
 
+	@Test
+	void resp3() throws Exception {
+		Beers.populateIndex(connection);
+		populate(connection.sync());
+		try (AbstractRedisClient client = RedisModulesClient.builder()
+				.uri(RedisURI.create(container.getRedisURI())).protocolVersion(ProtocolVersion.RESP3).build();
+				StatefulRedisModulesConnection<String, String> resp3 = RedisModulesUtils.connection(client)) {
+			SearchOptions<String, String> searchOptions = SearchOptions.<String, String>builder().withScores(true)
+					.withPayloads(true).limit(0, 100).build();
+			SearchResults<String, String> expected = connection.sync().ftSearch(Beers.INDEX, "pale", searchOptions);
+			SearchResults<String, String> actual = resp3.sync().ftSearch(Beers.INDEX, "pale", searchOptions);
+			assertEquals(expected.getCount(), actual.getCount());
+			assertEquals(expected.size(), actual.size());
+			for (int index = 0; index < expected.size(); index++) {
+				assertEquals(expected.get(index).getId(), actual.get(index).getId());
+				assertEquals(expected.get(index).getScore(), actual.get(index).getScore(), 1e-9);
+				assertEquals(expected.get(index).getPayload(), actual.get(index).getPayload());
+				assertEquals(new HashMap<>(expected.get(index)), new HashMap<>(actual.get(index)));
+			}
+			SearchOptions<String, String> noContent = SearchOptions.<String, String>builder().noContent(true).build();
+			assertEquals(connection.sync().ftSearch(Beers.INDEX, "pale", noContent).stream().map(Document::getId)
+					.collect(Collectors.toList()),
+					resp3.sync().ftSearch(Beers.INDEX, "pale", noContent).stream().map(Document::getId)
+							.collect(Collectors.toList()));
+			AggregateOptions<String, String> aggregateOptions = AggregateOptions.<String, String>operation(
+					Group.by(Beers.STYLE).reducer(Count.as("count")).reducer(ToList.property(Beers.NAME).as("names").build())
+							.build())
+					.operation(Sort.by(Sort.Property.asc(Beers.STYLE)).build()).build();
+			AggregateResults<String> expectedRows = connection.sync().ftAggregate(Beers.INDEX, "*", aggregateOptions);
+			assertEquals(expectedRows, resp3.sync().ftAggregate(Beers.INDEX, "*", aggregateOptions));
+			MRangeOptions<String, String> rangeOptions = MRangeOptions.<String, String>filters(FILTER).withLabels()
+					.build();
+			assertEquals(connection.sync().tsMrange(TimeRange.unbounded(), rangeOptions),
+					resp3.sync().tsMrange(TimeRange.unbounded(), rangeOptions));
+			List<GetResult<String, String>> expectedGet = connection.sync().tsMgetWithLabels(FILTER);
+			List<GetResult<String, String>> actualGet = resp3.sync().tsMgetWithLabels(FILTER);
+			assertEquals(expectedGet.size(), actualGet.size());
+			for (int index = 0; index < expectedGet.size(); index++) {
+				assertEquals(expectedGet.get(index).getKey(), actualGet.get(index).getKey());
+				assertEquals(expectedGet.get(index).getLabels(), actualGet.get(index).getLabels());
+				assertEquals(expectedGet.get(index).getSample(), actualGet.get(index).getSample());
+			}
+		}
+	}
+
 	@Test
 	void tsMget() {
 		RedisTimeSeriesCommands<String, String> ts = connection.sync();
@@ -170,6 +243,79 @@ class StackTests extends ModulesTests {
 		assertEquals(AREA_ID_2, key2Result.getLabels().get(LABEL_AREA_ID));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	void tsMrangeGroupByReducer() {
+		RedisTimeSeriesCommands<String, String> ts = connection.sync();
+		populate(ts);
+		ts.tsAdd("temperature:3:13", Sample.of(TIMESTAMP_1, 10), AddOptions.<String, String>builder()
+				.labels(KeyValue.just(LABEL_SENSOR_ID, SENSOR_ID), KeyValue.just(LABEL_AREA_ID, AREA_ID)).build());
+		ts.tsAdd("temperature:3:13", Sample.of(TIMESTAMP_2 + 5, 20));
+		List<RangeResult<String, String>> raw = ts.tsMrange(TimeRange.unbounded(),
+				MRangeOptions.<String, String>filters(FILTER).withLabels().build());
+		GroupByReducer<String, String> reducer = new GroupByReducer<>(StringCodec.UTF8);
+		for (Reducer function : Reducer.values()) {
+			GroupBy<String> groupBy = GroupBy.of(LABEL_AREA_ID, function);
+			Map<String, RangeResult<String, String>> expected = ts
+					.tsMrange(TimeRange.unbounded(),
+							MRangeOptions.<String, String>filters(FILTER).withLabels().groupBy(groupBy).build())
+					.stream().collect(Collectors.toMap(RangeResult::getKey, r -> r));
+			List<RangeResult<String, String>> actual = reducer.reduce(raw, groupBy, false, true);
+			assertEquals(expected.size(), actual.size());
+			for (RangeResult<String, String> result : actual) {
+				RangeResult<String, String> expectedResult = expected.get(result.getKey());
+				assertEquals(expectedResult.getLabels().get(GroupByReducer.REDUCER_LABEL),
+						result.getLabels().get(GroupByReducer.REDUCER_LABEL));
+				assertEquals(expectedResult.getSamples().size(), result.getSamples().size());
+				for (int index = 0; index < result.getSamples().size(); index++) {
+					Sample expectedSample = expectedResult.getSamples().get(index);
+					Sample sample = result.getSamples().get(index);
+					assertEquals(expectedSample.getTimestamp(), sample.getTimestamp());
+					assertEquals(expectedSample.getValue(), sample.getValue(), 1e-9, function.getName());
+				}
+			}
+		}
+	}
+
+	@Test
+	void tsDownsampler() {
+		String key = "ts:downsample";
+		RedisTimeSeriesCommands<String, String> ts = connection.sync();
+		Random random = new Random(42);
+		long timestamp = 1000000;
+		for (int index = 0; index < 500; index++) {
+			timestamp += 1 + random.nextInt(5000);
+			ts.tsAdd(key, Sample.of(timestamp, Math.round(random.nextGaussian() * 10000) / 100.0));
+		}
+		List<Sample> raw = ts.tsRange(key, TimeRange.unbounded());
+		List<TimeRange> ranges = Arrays.asList(TimeRange.unbounded(), TimeRange.from(1050000).to(1400000).build());
+		for (TimeRange range : ranges) {
+			List<Aggregation> aggregations = new ArrayList<>();
+			for (Aggregator aggregator : Aggregator.values()) {
+				aggregations.add(Aggregation.aggregator(aggregator).bucketDuration(Duration.ofSeconds(1)).build());
+				aggregations.add(Aggregation.aggregator(aggregator).bucketDuration(Duration.ofMinutes(1))
+						.align(Align.start()).bucketTimestamp(BucketTimestamp.HIGH).empty().build());
+				aggregations.add(Aggregation.aggregator(aggregator).bucketDuration(Duration.ofSeconds(5))
+						.align(Align.of(123)).bucketTimestamp(BucketTimestamp.MID).empty().build());
+			}
+			List<List<Sample>> results = Downsampler.of(range, aggregations.toArray(new Aggregation[0]))
+					.downsample(raw);
+			for (int index = 0; index < aggregations.size(); index++) {
+				Aggregation aggregation = aggregations.get(index);
+				List<Sample> expected = ts.tsRange(key, range,
+						RangeOptions.builder().aggregation(aggregation).build());
+				List<Sample> actual = results.get(index);
+				assertEquals(expected.size(), actual.size(), aggregation.toString());
+				for (int position = 0; position < expected.size(); position++) {
+					assertEquals(expected.get(position).getTimestamp(), actual.get(position).getTimestamp(),
+							aggregation.toString());
+					assertEquals(expected.get(position).getValue(), actual.get(position).getValue(), 1e-6,
+							aggregation.toString());
+				}
+			}
+		}
+	}
+
 	private void assertMrange(List<String> keys, List<RangeResult<String, String>> results) {
 		assertEquals(2, results.size());
 		assertEquals(new HashSet<>(keys), results.stream().map(RangeResult::getKey).collect(Collectors.toSet()));
@@ -208,4 +354,35 @@ class StackTests extends ModulesTests {
 		}
 		resources.shutdown();
 	}
+
+	@Test
+	void documentNearCache() throws IOException {
+		Beers.populateIndex(connection);
+		connection.sync().configSet("notify-keyspace-events", "KA");
+		SearchOptions<String, String> options = SearchOptions.<String, String>builder().withScores(true)
+				.limit(0, 10).build();
+		try (RedisModulesClient client = RedisModulesClient.create(container.getRedisURI());
+				DocumentNearCache<String, String> cache = DocumentNearCache.builder(client).prefixes(Beers.PREFIX)
+						.build()) {
+			SearchResults<String, String> expected = connection.sync().ftSearch(Beers.INDEX, "pale", options);
+			SearchResults<String, String> results = cache.search(connection, Beers.INDEX, "pale", options);
+			assertEquals(expected.getCount(), results.getCount());
+			assertEquals(expected.size(), results.size());
+			for (int index = 0; index < expected.size(); index++) {
+				assertEquals(expected.get(index).getId(), results.get(index).getId());
+				assertEquals(expected.get(index).getScore(), results.get(index).getScore());
+				assertEquals(expected.get(index).get(Beers.NAME), results.get(index).get(Beers.NAME));
+			}
+			assertEquals(10, cache.size());
+			Document<String, String> document = results.get(0);
+			connection.sync().hset(document.getId(), Beers.NAME, "Pale Near Cache Ale");
+			Awaitility.await().timeout(Duration.ofSeconds(5)).until(() -> cache.get(document.getId()) == null);
+			results = cache.search(connection, Beers.INDEX, "pale", options);
+			assertTrue(results.stream().anyMatch(
+					d -> d.getId().equals(document.getId()) && "Pale Near Cache Ale".equals(d.get(Beers.NAME))));
+			SearchResults<String, String> names = cache.search(connection, Beers.INDEX, "pale",
+					SearchOptions.<String, String>builder().limit(0, 10).returnField(Beers.NAME).build());
+			assertEquals(1, names.get(0).size());
+		}
+	}
 }